@@ -1,8 +1,10 @@
 package com.airline;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 @SpringBootApplication
@@ -13,7 +15,11 @@ public class BackendApplication {
 	}
 
 	@Bean
-	public org.springframework.web.client.RestTemplate restTemplate() {
-		return new org.springframework.web.client.RestTemplate();
+	public RestTemplate restTemplate(@Value("${weather.connect-timeout-ms:2000}") int connectTimeoutMs,
+			@Value("${weather.read-timeout-ms:3000}") int readTimeoutMs) {
+		SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+		requestFactory.setConnectTimeout(connectTimeoutMs);
+		requestFactory.setReadTimeout(readTimeoutMs);
+		return new RestTemplate(requestFactory);
 	}
 }
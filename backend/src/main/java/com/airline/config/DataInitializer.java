@@ -19,6 +19,8 @@ public class DataInitializer implements CommandLineRunner {
         @Autowired
         com.airline.repository.AirportRepository airportRepository;
         @Autowired
+        com.airline.service.AirportService airportService;
+        @Autowired
         com.airline.repository.AircraftRepository aircraftRepository;
         @Autowired
         com.airline.repository.FlightRepository flightRepository;
@@ -87,7 +89,7 @@ public class DataInitializer implements CommandLineRunner {
                 if (airportRepository.findByCode(code).isEmpty()) {
                         com.airline.entity.Airport airport = new com.airline.entity.Airport(null, name, city, country,
                                         lat, lon, code);
-                        airportRepository.save(airport);
+                        airportService.createAirport(airport);
                 }
         }
 }
@@ -0,0 +1,75 @@
+package com.airline.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.hibernate.autoconfigure.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.util.OptionalLong;
+
+/**
+ * Hibernate second-level cache for reference data, held in bounded in-process
+ * Caffeine caches. Regions are created here rather than from a config file so
+ * their sizes come from application properties like everything else.
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    public static final String AIRPORTS_REGION = "airports";
+    public static final String AIRCRAFT_REGION = "aircraft";
+    public static final String ROLES_REGION = "roles";
+    public static final String QUERY_RESULTS_REGION = "default-query-results-region";
+    public static final String UPDATE_TIMESTAMPS_REGION = "default-update-timestamps-region";
+
+    private static final String CACHE_MANAGER_URI = "airline-second-level-cache";
+
+    @Value("${second-level-cache.airports.max-entries:50000}")
+    private long airportsMaxEntries;
+
+    @Value("${second-level-cache.aircraft.max-entries:1000}")
+    private long aircraftMaxEntries;
+
+    @Value("${second-level-cache.query-results.max-entries:10000}")
+    private long queryResultsMaxEntries;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager secondLevelCacheManager() {
+        // A manager of our own rather than the provider default, which other code may share
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(URI.create(CACHE_MANAGER_URI),
+                getClass().getClassLoader());
+        createRegion(cacheManager, AIRPORTS_REGION, airportsMaxEntries);
+        createRegion(cacheManager, AIRCRAFT_REGION, aircraftMaxEntries);
+        createRegion(cacheManager, ROLES_REGION, 100);
+        createRegion(cacheManager, QUERY_RESULTS_REGION, queryResultsMaxEntries);
+        // One entry per table, and evicting one would let cached query results outlive a write
+        createRegion(cacheManager, UPDATE_TIMESTAMPS_REGION, -1);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager secondLevelCacheManager) {
+        return properties -> {
+            properties.put("hibernate.cache.use_second_level_cache", "true");
+            properties.put("hibernate.cache.use_query_cache", "true");
+            properties.put("hibernate.cache.region.factory_class", "jcache");
+            properties.put("hibernate.javax.cache.cache_manager", secondLevelCacheManager);
+        };
+    }
+
+    private static void createRegion(CacheManager cacheManager, String name, long maxEntries) {
+        if (cacheManager.getCache(name) != null) {
+            return;
+        }
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(maxEntries > 0 ? OptionalLong.of(maxEntries) : OptionalLong.empty());
+        configuration.setNativeStatisticsEnabled(true);
+        cacheManager.createCache(name, configuration);
+    }
+}
@@ -0,0 +1,38 @@
+package com.airline.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread factories for the application's own I/O executors. They follow
+ * {@code spring.threads.virtual.enabled} the same way Spring Boot does for Tomcat
+ * and the application task executor: virtual threads when the switch is on and the
+ * JVM is Java 21 or later, platform daemon threads otherwise. Executors keep their
+ * own size and queue limits either way, since those bound load on what they call.
+ */
+@Component
+public class WorkerThreads {
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualEnabled;
+
+    public boolean isVirtual() {
+        return virtualEnabled && Runtime.version().feature() >= 21;
+    }
+
+    public ThreadFactory factory(String prefix) {
+        if (isVirtual()) {
+            return new VirtualThreadTaskExecutor(prefix).getVirtualThreadFactory();
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
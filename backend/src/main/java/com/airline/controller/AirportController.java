@@ -1,50 +1,119 @@
 package com.airline.controller;
 
 import com.airline.entity.Airport;
+import com.airline.payload.response.MessageResponse;
+import com.airline.repository.AirportJdbcRepository;
+import com.airline.service.AirportGeoIndex;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.ObjectMapper;
 
 import java.util.List;
+import java.util.Map;
 
-@CrossOrigin(origins = "*", maxAge = 3600)
+@CrossOrigin(origins = "*", maxAge = 3600, exposedHeaders = "X-Next-Cursor")
 @RestController
 @RequestMapping("/api/airports")
 public class AirportController {
+    // LOADING or DEGRADED means results may be partial while the airport import runs or after it failed
+    private static final String DATA_STATE_HEADER = "X-Airport-Data-State";
+    // Last id of a full page, to pass back as ?after=; absent on the last page
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     @Autowired
     com.airline.service.AirportService airportService;
 
+    @Autowired
+    AirportJdbcRepository airportJdbcRepository;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Value("${api.page.default-size:500}")
+    private int defaultPageSize;
+
+    @Value("${api.page.max-size:2000}")
+    private int maxPageSize;
+
     @GetMapping
-    public List<Airport> getAllAirports() {
-        return airportService.getAllAirports();
+    public ResponseEntity<List<Airport>> getAirports(@RequestParam(defaultValue = "0") long after,
+            @RequestParam(required = false) Integer limit) {
+        int size = Math.min(limit != null && limit > 0 ? limit : defaultPageSize, maxPageSize);
+        List<Airport> page = airportService.getAirports(after, size);
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.size() == size) {
+            response.header(NEXT_CURSOR_HEADER, String.valueOf(page.get(page.size() - 1).getId()));
+        }
+        return response.body(page);
+    }
+
+    /**
+     * Streams every airport as NDJSON from a database cursor; memory use does not grow
+     * with the table.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportAirports() {
+        return NdjsonResponses.stream(objectMapper, false, sink -> airportJdbcRepository.exportAll(sink::accept));
     }
 
     @GetMapping("/search")
-    public List<Airport> searchAirports(@RequestParam String q) {
-        return airportService.searchAirports(q);
+    public ResponseEntity<List<Airport>> searchAirports(@RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok()
+                .header(DATA_STATE_HEADER, airportService.getDataState().name())
+                .body(airportService.searchAirports(q, limit));
+    }
+
+    /**
+     * Closest airports to {@code lat}/{@code lon}, or to the airport {@code near}
+     * (excluding it), with haversine distances in km.
+     */
+    @GetMapping("/nearest")
+    public ResponseEntity<?> getNearestAirports(@RequestParam(required = false) Double lat,
+            @RequestParam(required = false) Double lon,
+            @RequestParam(required = false) String near,
+            @RequestParam(defaultValue = "5") int limit) {
+        if (near == null && !validCoordinates(lat, lon))
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: lat/lon or near is required"));
+
+        List<AirportGeoIndex.Nearby> nearest = airportService.findNearest(lat, lon, near, limit);
+        if (nearest == null)
+            return ResponseEntity.notFound().build();
+        return ResponseEntity.ok()
+                .header(DATA_STATE_HEADER, airportService.getDataState().name())
+                .body(nearest);
+    }
+
+    @GetMapping("/within")
+    public ResponseEntity<?> getAirportsWithin(@RequestParam Double lat,
+            @RequestParam Double lon,
+            @RequestParam double radiusKm,
+            @RequestParam(defaultValue = "50") int limit) {
+        if (!validCoordinates(lat, lon) || radiusKm < 0)
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: Invalid lat/lon or radius"));
+
+        return ResponseEntity.ok()
+                .header(DATA_STATE_HEADER, airportService.getDataState().name())
+                .body(airportService.findWithin(lat, lon, radiusKm, limit));
+    }
+
+    private static boolean validCoordinates(Double lat, Double lon) {
+        return lat != null && lon != null && Math.abs(lat) <= 90 && Math.abs(lon) <= 180;
+    }
+
+    @GetMapping("/status")
+    public Map<String, Object> getDataStatus() {
+        return airportService.getDataStatus();
     }
 
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
-    // Note: Creating via repo directly for now or move to service if needed.
-    // Keeping it simple.
-    // Ideally move to service, but focussing on search.
     public Airport createAirport(@RequestBody Airport airport) {
-        // Warning: This bypasses service for creation.
-        // For strict service layer, we should add create method to service.
-        // But for this task, I'll direct repo autowire for creation to avoid breaking
-        // changes if I remove repo autowire.
-        // Actually, I'll keep repo autowired for creation or just add create to
-        // service.
-        // Let's add create to autowire repo for now to keep diff small or just use
-        // service?
-        // Let's assume repo is still autowired? No I replaced it.
-        // I will add repository back or add create method to service?
-        // Better: Use service for everything.
-        // I will create a temp fix: Autowire repo as well or just add create to service
-        // effectively.
-        // Let's rely on Repo being autowired?
-        // No, I'll make the controller clean.
-        return null; // Placeholder, I'll fix this in next step with multi_replace to be safe.
+        return airportService.createAirport(airport);
     }
 }
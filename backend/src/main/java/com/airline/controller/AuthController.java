@@ -7,23 +7,37 @@ import com.airline.payload.request.LoginRequest;
 import com.airline.payload.request.SignupRequest;
 import com.airline.payload.response.JwtResponse;
 import com.airline.payload.response.MessageResponse;
-import com.airline.repository.RoleRepository;
+import com.airline.repository.UserIdentityView;
 import com.airline.repository.UserRepository;
 import com.airline.security.jwt.JwtUtils;
 import com.airline.security.services.UserDetailsImpl;
+import com.airline.service.LoginRateLimiter;
+import com.airline.service.PasswordHashingService;
+import com.airline.service.RoleCache;
+import com.airline.service.SigninMetrics;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
@@ -37,19 +51,52 @@ public class AuthController {
     UserRepository userRepository;
 
     @Autowired
-    RoleRepository roleRepository;
+    RoleCache roleCache;
 
     @Autowired
-    PasswordEncoder encoder;
+    PasswordHashingService passwordHashingService;
+
+    // Spring Boot's task executor, which also runs async MVC work; sign-up saves run here
+    // so the few hashing threads never wait on the database
+    @Autowired
+    @Qualifier("applicationTaskExecutor")
+    Executor applicationTaskExecutor;
 
     @Autowired
     JwtUtils jwtUtils;
 
+    @Autowired
+    LoginRateLimiter loginRateLimiter;
+
+    @Autowired
+    SigninMetrics signinMetrics;
+
     @PostMapping("/signin")
-    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
+    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest,
+            HttpServletRequest request) {
+        long start = System.nanoTime();
+        // Bursts are turned away here, before the user is loaded or any password hashed
+        long waitNanos = loginRateLimiter.tryAcquire(loginRequest.getUsername(), request.getRemoteAddr());
+        if (waitNanos > 0) {
+            signinMetrics.record(SigninMetrics.Outcome.RATE_LIMITED, System.nanoTime() - start);
+            return ResponseEntity
+                    .status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER,
+                            String.valueOf(Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos))))
+                    .body(new MessageResponse("Error: Too many sign-in attempts, please retry later"));
+        }
 
-        Authentication authentication = authenticationManager.authenticate(
-                new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword()));
+        Authentication authentication;
+        try {
+            authentication = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword()));
+        } catch (AuthenticationException e) {
+            signinMetrics.record(SigninMetrics.Outcome.BAD_CREDENTIALS, System.nanoTime() - start);
+            throw e;
+        } catch (RuntimeException e) {
+            signinMetrics.record(SigninMetrics.Outcome.ERROR, System.nanoTime() - start);
+            throw e;
+        }
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
         String jwt = jwtUtils.generateJwtToken(authentication);
@@ -59,6 +106,7 @@ public class AuthController {
                 .map(item -> item.getAuthority())
                 .collect(Collectors.toList());
 
+        signinMetrics.record(SigninMetrics.Outcome.SUCCESS, System.nanoTime() - start);
         return ResponseEntity.ok(new JwtResponse(jwt,
                 userDetails.getId(),
                 userDetails.getUsername(),
@@ -67,57 +115,82 @@ public class AuthController {
     }
 
     @PostMapping("/signup")
-    public ResponseEntity<?> registerUser(@Valid @RequestBody SignupRequest signUpRequest) {
-        if (userRepository.existsByUsername(signUpRequest.getUsername())) {
-            return ResponseEntity
+    public CompletableFuture<ResponseEntity<?>> registerUser(@Valid @RequestBody SignupRequest signUpRequest) {
+        // One query answers both uniqueness checks
+        List<UserIdentityView> conflicts = userRepository.findIdentityConflicts(signUpRequest.getUsername(),
+                signUpRequest.getEmail());
+        if (conflicts.stream().anyMatch(existing -> existing.getUsername().equals(signUpRequest.getUsername()))) {
+            return CompletableFuture.completedFuture(ResponseEntity
                     .badRequest()
-                    .body(new MessageResponse("Error: Username is already taken!"));
+                    .body(new MessageResponse("Error: Username is already taken!")));
         }
 
-        if (userRepository.existsByEmail(signUpRequest.getEmail())) {
-            return ResponseEntity
+        if (!conflicts.isEmpty()) {
+            return CompletableFuture.completedFuture(ResponseEntity
                     .badRequest()
-                    .body(new MessageResponse("Error: Email is already in use!"));
+                    .body(new MessageResponse("Error: Email is already in use!")));
         }
 
-        // Create new user's account
-        User user = new User(signUpRequest.getUsername(),
-                signUpRequest.getEmail(),
-                encoder.encode(signUpRequest.getPassword()));
-
         Set<String> strRoles = signUpRequest.getRole();
         Set<Role> roles = new HashSet<>();
 
         if (strRoles == null) {
-            Role userRole = roleRepository.findByName(ERole.ROLE_CUSTOMER)
-                    .orElseThrow(() -> new RuntimeException("Error: Role is not found."));
-            roles.add(userRole);
+            roles.add(roleCache.get(ERole.ROLE_CUSTOMER));
         } else {
             strRoles.forEach(role -> {
                 switch (role) {
                     case "admin":
-                        Role adminRole = roleRepository.findByName(ERole.ROLE_ADMIN)
-                                .orElseThrow(() -> new RuntimeException("Error: Role is not found."));
-                        roles.add(adminRole);
+                        roles.add(roleCache.get(ERole.ROLE_ADMIN));
 
                         break;
                     case "staff":
-                        Role modRole = roleRepository.findByName(ERole.ROLE_STAFF)
-                                .orElseThrow(() -> new RuntimeException("Error: Role is not found."));
-                        roles.add(modRole);
+                        roles.add(roleCache.get(ERole.ROLE_STAFF));
 
                         break;
                     default:
-                        Role userRole = roleRepository.findByName(ERole.ROLE_CUSTOMER)
-                                .orElseThrow(() -> new RuntimeException("Error: Role is not found."));
-                        roles.add(userRole);
+                        roles.add(roleCache.get(ERole.ROLE_CUSTOMER));
                 }
             });
         }
 
+        // The request thread is released while the password is hashed on the bounded pool
+        return passwordHashingService.encode(signUpRequest.getPassword())
+                .<ResponseEntity<?>>thenApplyAsync(hash -> createUser(signUpRequest, hash, roles),
+                        applicationTaskExecutor)
+                .exceptionally(AuthController::signupFailure);
+    }
+
+    private ResponseEntity<?> createUser(SignupRequest signUpRequest, String passwordHash, Set<Role> roles) {
+        // Create new user's account
+        User user = new User(signUpRequest.getUsername(),
+                signUpRequest.getEmail(),
+                passwordHash);
+
         user.setRoles(roles);
         userRepository.save(user);
 
         return ResponseEntity.ok(new MessageResponse("User registered successfully!"));
     }
+
+    private static ResponseEntity<?> signupFailure(Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                ? failure.getCause()
+                : failure;
+        if (cause instanceof RejectedExecutionException) {
+            return ResponseEntity
+                    .status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(new MessageResponse("Error: Too many sign-ups in progress, please retry"));
+        }
+        if (cause instanceof DataIntegrityViolationException) {
+            // Lost a race with a concurrent sign-up for the same username or email
+            return ResponseEntity
+                    .badRequest()
+                    .body(new MessageResponse("Error: Username or email is already in use!"));
+        }
+        if (cause instanceof RuntimeException runtime) {
+            throw runtime;
+        }
+        throw new CompletionException(cause);
+    }
 }
@@ -1,40 +1,180 @@
 package com.airline.controller;
 
 import com.airline.entity.Booking;
-import com.airline.entity.User;
+import com.airline.payload.request.BookingRequest;
+import com.airline.payload.request.SeatHoldRequest;
+import com.airline.payload.response.MessageResponse;
 import com.airline.repository.BookingRepository;
-import com.airline.repository.UserRepository;
+import com.airline.security.services.UserDetailsImpl;
+import com.airline.service.BookingService;
+import com.airline.service.BookingWriteBehind;
+import com.airline.service.FlightNotFoundException;
+import com.airline.service.IdempotencyStore;
+import com.airline.service.SeatHoldService;
+import com.airline.service.SeatUnavailableException;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
 @RequestMapping("/api/bookings")
 public class BookingController {
+    static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+
     @Autowired
     BookingRepository bookingRepository;
 
     @Autowired
-    UserRepository userRepository;
+    BookingService bookingService;
+
+    @Autowired
+    SeatHoldService seatHoldService;
+
+    @Autowired
+    IdempotencyStore idempotencyStore;
+
+    @Autowired
+    BookingWriteBehind bookingWriteBehind;
 
     @PostMapping
     @PreAuthorize("hasRole('CUSTOMER') or hasRole('ADMIN')")
-    public Booking createBooking(@RequestBody Booking booking) {
-        booking.setBookingTime(LocalDateTime.now());
-        // In real app, handle seat booking logic / transaction here
-        return bookingRepository.save(booking);
+    public ResponseEntity<?> createBooking(@Valid @RequestBody BookingRequest request,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            @AuthenticationPrincipal UserDetailsImpl user) {
+        return idempotent(user, idempotencyKey, "book:" + request.getFlightId() + ":" + request.getSeatId(), () -> {
+            try {
+                // Write-behind acknowledges before the insert, so it must not open a transaction here
+                return ResponseEntity.ok(bookingWriteBehind.isEnabled()
+                        ? bookingWriteBehind.submit(user.getId(), request.getFlightId(), request.getSeatId())
+                        : bookingService.book(user.getId(), request.getFlightId(), request.getSeatId()));
+            } catch (FlightNotFoundException e) {
+                return ResponseEntity
+                        .status(HttpStatus.NOT_FOUND)
+                        .body(new MessageResponse("Error: " + e.getMessage()));
+            } catch (SeatUnavailableException e) {
+                return ResponseEntity
+                        .status(HttpStatus.CONFLICT)
+                        .body(new MessageResponse("Error: " + e.getMessage()));
+            } catch (RejectedExecutionException e) {
+                return ResponseEntity
+                        .status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .body(new MessageResponse("Error: Too many bookings in progress, please retry"));
+            }
+        });
+    }
+
+    @PostMapping("/holds")
+    @PreAuthorize("hasRole('CUSTOMER') or hasRole('ADMIN')")
+    public ResponseEntity<?> holdSeat(@Valid @RequestBody SeatHoldRequest request,
+            @AuthenticationPrincipal UserDetailsImpl user) {
+        try {
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(seatHoldService.hold(request.getFlightId(), request.getSeatId(), user.getId()));
+        } catch (SeatUnavailableException e) {
+            return ResponseEntity
+                    .status(HttpStatus.CONFLICT)
+                    .body(new MessageResponse("Error: " + e.getMessage()));
+        }
+    }
+
+    @PostMapping("/holds/{holdId}/confirm")
+    @PreAuthorize("hasRole('CUSTOMER') or hasRole('ADMIN')")
+    public ResponseEntity<?> confirmHold(@PathVariable String holdId,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey,
+            @AuthenticationPrincipal UserDetailsImpl user) {
+        return idempotent(user, idempotencyKey, "confirm:" + holdId, () -> {
+            try {
+                return ResponseEntity.ok(bookingService.confirmHold(holdId, user.getId()));
+            } catch (FlightNotFoundException e) {
+                return ResponseEntity
+                        .status(HttpStatus.NOT_FOUND)
+                        .body(new MessageResponse("Error: " + e.getMessage()));
+            } catch (SeatUnavailableException e) {
+                return ResponseEntity
+                        .status(HttpStatus.CONFLICT)
+                        .body(new MessageResponse("Error: " + e.getMessage()));
+            }
+        });
+    }
+
+    @DeleteMapping("/holds/{holdId}")
+    @PreAuthorize("hasRole('CUSTOMER') or hasRole('ADMIN')")
+    public ResponseEntity<?> releaseHold(@PathVariable String holdId, @AuthenticationPrincipal UserDetailsImpl user) {
+        if (!seatHoldService.release(holdId, user.getId())) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(new MessageResponse("Seat hold released"));
     }
 
     @GetMapping("/user/{userId}")
     @PreAuthorize("hasRole('CUSTOMER') or hasRole('ADMIN')")
     public List<Booking> getUserBookings(@PathVariable Long userId) {
-        User user = userRepository.findById(userId).orElse(null);
-        if (user == null)
-            return List.of();
-        return bookingRepository.findByUser(user);
+        return bookingRepository.findByUserIdWithDetails(userId);
+    }
+
+    /**
+     * Runs the request once per user and {@code Idempotency-Key}; a retry with the
+     * same key gets the stored response back. Server errors are not stored, so they
+     * can be retried with the same key.
+     */
+    private ResponseEntity<?> idempotent(UserDetailsImpl user, String key, String fingerprint,
+            Supplier<ResponseEntity<?>> action) {
+        if (key == null) {
+            return action.get();
+        }
+        if (key.isBlank() || key.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            return ResponseEntity
+                    .badRequest()
+                    .body(new MessageResponse("Error: Idempotency-Key must be 1 to "
+                            + MAX_IDEMPOTENCY_KEY_LENGTH + " characters"));
+        }
+
+        IdempotencyStore.Claim claim = idempotencyStore.begin(user.getId() + ":" + key, fingerprint);
+        switch (claim.getState()) {
+            case REPLAY:
+                ResponseEntity<?> stored = claim.getResponse();
+                return ResponseEntity.status(stored.getStatusCode())
+                        .headers(stored.getHeaders())
+                        .header(IDEMPOTENT_REPLAYED, "true")
+                        .body(stored.getBody());
+            case IN_PROGRESS:
+                return ResponseEntity
+                        .status(HttpStatus.CONFLICT)
+                        .header(HttpHeaders.RETRY_AFTER, "1")
+                        .body(new MessageResponse("Error: A request with this Idempotency-Key is in progress"));
+            case MISMATCH:
+                return ResponseEntity
+                        .unprocessableContent()
+                        .body(new MessageResponse("Error: Idempotency-Key was already used for a different request"));
+            default:
+                break;
+        }
+
+        ResponseEntity<?> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            idempotencyStore.abandon(claim);
+            throw e;
+        }
+        if (response.getStatusCode().is5xxServerError()) {
+            idempotencyStore.abandon(claim);
+        } else {
+            idempotencyStore.complete(claim, response);
+        }
+        return response;
     }
 }
@@ -1,17 +1,48 @@
 package com.airline.controller;
 
 import com.airline.entity.Flight;
+import com.airline.payload.request.DelayRiskBatchRequest;
+import com.airline.payload.response.SeatAvailabilityResponse;
+import com.airline.payload.response.FareCalendarResponse;
+import com.airline.payload.response.FlightStatusEvent;
+import com.airline.payload.response.MessageResponse;
+import com.airline.repository.FlightJdbcRepository;
 import com.airline.repository.FlightRepository;
+import com.airline.service.ConnectionSearchService;
 import com.airline.service.DelayPredictionService;
+import com.airline.service.DelayRiskBatchService;
+import com.airline.service.FareCalendarService;
+import com.airline.service.FlightSearchService;
+import com.airline.service.FlightStatusEventBus;
+import com.airline.service.FlightService;
+import com.airline.service.RouteGraph;
+import com.airline.service.SeatReservationService;
 import com.airline.service.WeatherService;
+import com.airline.service.WeatherSnapshot;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.ObjectMapper;
 
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
-@CrossOrigin(origins = "*", maxAge = 3600)
+@CrossOrigin(origins = "*", maxAge = 3600, exposedHeaders = "X-Next-Cursor")
 @RestController
 @RequestMapping("/api/flights")
 public class FlightController {
@@ -25,9 +56,94 @@ public class FlightController {
     @Autowired
     DelayPredictionService delayPredictionService;
 
+    @Autowired
+    DelayRiskBatchService delayRiskBatchService;
+
+    @Autowired
+    SeatReservationService seatReservationService;
+
+    @Autowired
+    FlightJdbcRepository flightJdbcRepository;
+
+    @Autowired
+    FlightSearchService flightSearchService;
+
+    @Autowired
+    FlightService flightService;
+
+    @Autowired
+    ConnectionSearchService connectionSearchService;
+
+    @Autowired
+    FareCalendarService fareCalendarService;
+
+    @Autowired
+    FlightStatusEventBus flightStatusEventBus;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    private static final LocalDateTime FIRST_DEPARTURE = LocalDateTime.of(1, 1, 1, 0, 0);
+
+    // Opaque keyset cursor for the next page; absent on the last page
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    @Value("${api.page.default-size:500}")
+    private int defaultPageSize;
+
+    @Value("${api.page.max-size:2000}")
+    private int maxPageSize;
+
+    @Value("${flight-status.sse.timeout-ms:3600000}")
+    private long statusStreamTimeoutMs;
+
+    /**
+     * Keyset-paginated listing. {@code sort=id} pages by id with the last id as the
+     * cursor; {@code sort=departureTime} pages by (departureTime, id) and skips flights
+     * without a departure time.
+     */
     @GetMapping
-    public List<Flight> getAllFlights() {
-        return flightRepository.findAll();
+    public ResponseEntity<?> getFlights(@RequestParam(defaultValue = "id") String sort,
+            @RequestParam(required = false) String after,
+            @RequestParam(required = false) Integer limit) {
+        int size = Math.min(limit != null && limit > 0 ? limit : defaultPageSize, maxPageSize);
+        List<Flight> page;
+        try {
+            if ("departureTime".equals(sort)) {
+                LocalDateTime afterTime = FIRST_DEPARTURE;
+                long afterId = 0;
+                if (after != null) {
+                    int split = after.lastIndexOf('_');
+                    afterTime = LocalDateTime.parse(after.substring(0, split));
+                    afterId = Long.parseLong(after.substring(split + 1));
+                }
+                page = flightRepository.findPageByDepartureTime(afterTime, afterId, Limit.of(size));
+            } else if ("id".equals(sort)) {
+                page = flightRepository.findPageById(after != null ? Long.parseLong(after) : 0L, Limit.of(size));
+            } else {
+                return ResponseEntity.badRequest().body(new MessageResponse("Error: Unsupported sort " + sort));
+            }
+        } catch (DateTimeParseException | IndexOutOfBoundsException | NumberFormatException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: Invalid cursor"));
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.size() == size) {
+            Flight last = page.get(page.size() - 1);
+            response.header(NEXT_CURSOR_HEADER, "departureTime".equals(sort)
+                    ? last.getDepartureTime() + "_" + last.getId()
+                    : String.valueOf(last.getId()));
+        }
+        return response.body(page);
+    }
+
+    /**
+     * Streams every flight as NDJSON from a database cursor; memory use does not grow
+     * with the table.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportFlights() {
+        return NdjsonResponses.stream(objectMapper, false, sink -> flightJdbcRepository.exportAll(sink::accept));
     }
 
     @GetMapping("/search")
@@ -35,33 +151,138 @@ public class FlightController {
             @RequestParam String destination,
             @RequestParam String date) {
         // Parse date (yyyy-MM-dd)
-        java.time.LocalDate localDate = java.time.LocalDate.parse(date);
-        java.time.LocalDateTime start = localDate.atStartOfDay();
-        java.time.LocalDateTime end = localDate.atTime(java.time.LocalTime.MAX);
+        return flightSearchService.search(origin, destination, java.time.LocalDate.parse(date));
+    }
+
+    /**
+     * Itineraries with up to {@code maxStops} connections departing on {@code date},
+     * best first by arrival time or total price.
+     */
+    @GetMapping("/connections")
+    public ResponseEntity<?> searchConnections(@RequestParam String origin,
+            @RequestParam String destination,
+            @RequestParam String date,
+            @RequestParam(defaultValue = "arrival") String sort,
+            @RequestParam(defaultValue = "5") int limit,
+            @RequestParam(defaultValue = "2") int maxStops) {
+        RouteGraph.Sort order;
+        try {
+            order = RouteGraph.Sort.valueOf(sort.toUpperCase(java.util.Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(new MessageResponse("Error: Unsupported sort " + sort));
+        }
+        return ResponseEntity.ok(connectionSearchService.search(origin, destination,
+                java.time.LocalDate.parse(date), order, limit, maxStops));
+    }
+
+    /**
+     * Cheapest fare and flight count for each day within {@code days} either side of
+     * {@code date}.
+     */
+    @GetMapping("/fare-calendar")
+    public ResponseEntity<?> getFareCalendar(@RequestParam String origin,
+            @RequestParam String destination,
+            @RequestParam String date,
+            @RequestParam(defaultValue = "30") int days) {
+        FareCalendarResponse calendar = fareCalendarService.getCalendar(origin, destination,
+                java.time.LocalDate.parse(date), days);
+        if (calendar == null)
+            return ResponseEntity.notFound().build();
+        return ResponseEntity.ok(calendar);
+    }
+
+    /**
+     * Server-Sent Events stream of status and schedule changes for one flight or for
+     * every flight departing from or arriving at an airport. Reconnecting clients
+     * send {@code Last-Event-ID} to receive recent events they missed.
+     */
+    @GetMapping("/status-stream")
+    public ResponseEntity<SseEmitter> streamFlightStatus(@RequestParam(required = false) Long flight,
+            @RequestParam(required = false) String airport,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        if ((flight == null) == (airport == null || airport.isBlank())) {
+            return ResponseEntity.badRequest().build();
+        }
+        String topic = flight != null
+                ? FlightStatusEventBus.flightTopic(flight)
+                : FlightStatusEventBus.airportTopic(airport);
+
+        SseEmitter emitter = new SseEmitter(statusStreamTimeoutMs);
+        FlightStatusEventBus.Subscription subscription = flightStatusEventBus.subscribe(topic, lastEventId,
+                new FlightStatusEventBus.EventSink() {
+                    @Override
+                    public void send(FlightStatusEvent event) throws IOException {
+                        emitter.send(SseEmitter.event()
+                                .id(String.valueOf(event.getId()))
+                                .name("status")
+                                .data(event, MediaType.APPLICATION_JSON));
+                    }
+
+                    @Override
+                    public void heartbeat() throws IOException {
+                        emitter.send(SseEmitter.event().comment("keepalive"));
+                    }
 
-        return flightRepository.findFlights(origin, destination, start, end);
+                    @Override
+                    public void close() {
+                        emitter.complete();
+                    }
+                });
+        if (subscription == null) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .build();
+        }
+        emitter.onCompletion(() -> flightStatusEventBus.unsubscribe(subscription));
+        emitter.onTimeout(() -> flightStatusEventBus.unsubscribe(subscription));
+        emitter.onError(e -> flightStatusEventBus.unsubscribe(subscription));
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noStore())
+                .body(emitter);
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<Flight> getFlightById(@PathVariable Long id) {
-        return flightRepository.findById(id)
+        return flightRepository.findWithDetailsById(id)
                 .map(ResponseEntity::ok)
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @PostMapping
     public Flight createFlight(@RequestBody Flight flight) {
-        return flightRepository.save(flight);
+        return flightService.saveFlight(flight);
+    }
+
+    @GetMapping("/{id}/seats")
+    public ResponseEntity<SeatAvailabilityResponse> getSeatAvailability(@PathVariable Long id, WebRequest request) {
+        SeatAvailabilityResponse availability = seatReservationService.getAvailability(id);
+        if (availability.getCabins().isEmpty())
+            return ResponseEntity.notFound().build();
+
+        String etag = "\"" + id + "-" + availability.getVersion() + "\"";
+        if (request.checkNotModified(etag))
+            return null;
+
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache())
+                .body(availability);
     }
 
     @GetMapping("/{id}/weather")
     public ResponseEntity<?> getFlightWeather(@PathVariable Long id) {
-        Flight flight = flightRepository.findById(id).orElse(null);
+        Flight flight = flightRepository.findWithDetailsById(id).orElse(null);
         if (flight == null)
             return ResponseEntity.notFound().build();
 
-        Map<String, Object> departureWeather = weatherService.getWeather(flight.getDepartureAirport());
-        Map<String, Object> arrivalWeather = weatherService.getWeather(flight.getArrivalAirport());
+        CompletableFuture<WeatherSnapshot> departureLookup = weatherService
+                .getWeatherAsync(flight.getDepartureAirport());
+        CompletableFuture<WeatherSnapshot> arrivalLookup = weatherService
+                .getWeatherAsync(flight.getArrivalAirport());
+        weatherService.awaitWithinBudget(departureLookup, arrivalLookup);
+
+        WeatherSnapshot departureWeather = departureLookup.getNow(null);
+        WeatherSnapshot arrivalWeather = arrivalLookup.getNow(null);
 
         return ResponseEntity.ok(Map.of(
                 "departure", departureWeather != null ? departureWeather : "Unavailable",
@@ -70,13 +291,32 @@ public class FlightController {
 
     @GetMapping("/{id}/delay-risk")
     public ResponseEntity<?> getDelayRisk(@PathVariable Long id) {
-        Flight flight = flightRepository.findById(id).orElse(null);
+        Flight flight = flightRepository.findWithDetailsById(id).orElse(null);
         if (flight == null)
             return ResponseEntity.notFound().build();
 
-        Map<String, Object> departureWeather = weatherService.getWeather(flight.getDepartureAirport());
+        WeatherSnapshot departureWeather = weatherService.getWeather(flight.getDepartureAirport());
         // Simple risk based on departure weather only for now
         return ResponseEntity.ok(Map.of(
                 "riskLevel", delayPredictionService.predictDelayRisk(departureWeather)));
     }
+
+    @PostMapping("/delay-risk")
+    public ResponseEntity<StreamingResponseBody> getDelayRisks(@Valid @RequestBody DelayRiskBatchRequest request) {
+        return streamDelayRisks(flightRepository.findAllWithDepartureAirportByIdIn(request.getFlightIds()));
+    }
+
+    @GetMapping("/delay-risk")
+    public ResponseEntity<StreamingResponseBody> getDelayRisksForAirport(@RequestParam String airport,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        LocalDateTime start = from != null ? from : LocalDateTime.now();
+        LocalDateTime end = to != null ? to : start.plusHours(24);
+        return streamDelayRisks(flightRepository.findDepartures(airport, start, end));
+    }
+
+    private ResponseEntity<StreamingResponseBody> streamDelayRisks(List<Flight> flights) {
+        return NdjsonResponses.stream(objectMapper, true,
+                sink -> delayRiskBatchService.scoreFlights(flights, sink::accept));
+    }
 }
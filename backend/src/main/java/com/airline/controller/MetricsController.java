@@ -0,0 +1,100 @@
+package com.airline.controller;
+
+import com.airline.security.jwt.JwtUtils;
+import com.airline.service.BookingWriteBehind;
+import com.airline.service.FlightStatusEventBus;
+import com.airline.service.IdempotencyStore;
+import com.airline.service.LoginRateLimiter;
+import com.airline.service.PasswordHashingService;
+import com.airline.service.ReferenceDataCache;
+import com.airline.service.SeatReservationService;
+import com.airline.service.SigninMetrics;
+import com.airline.service.TicketNumberGenerator;
+import com.airline.service.WeatherService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@CrossOrigin(origins = "*", maxAge = 3600)
+@RestController
+@RequestMapping("/api/metrics")
+@PreAuthorize("hasRole('ADMIN')")
+public class MetricsController {
+    @Autowired
+    WeatherService weatherService;
+
+    @Autowired
+    JwtUtils jwtUtils;
+
+    @Autowired
+    PasswordHashingService passwordHashingService;
+
+    @Autowired
+    SigninMetrics signinMetrics;
+
+    @Autowired
+    LoginRateLimiter loginRateLimiter;
+
+    @Autowired
+    ReferenceDataCache referenceDataCache;
+
+    @Autowired
+    FlightStatusEventBus flightStatusEventBus;
+
+    @Autowired
+    IdempotencyStore idempotencyStore;
+
+    @Autowired
+    TicketNumberGenerator ticketNumberGenerator;
+
+    @Autowired
+    BookingWriteBehind bookingWriteBehind;
+
+    @Autowired
+    SeatReservationService seatReservationService;
+
+    @GetMapping("/weather")
+    public Map<String, Long> getWeatherCacheStats() {
+        return weatherService.getCacheStats();
+    }
+
+    @GetMapping("/tokens")
+    public Map<String, Long> getVerifiedTokenCacheStats() {
+        return jwtUtils.getVerifiedCacheStats();
+    }
+
+    @GetMapping("/password-hashing")
+    public Map<String, Long> getPasswordHashingStats() {
+        return passwordHashingService.getStats();
+    }
+
+    @GetMapping("/signin")
+    public Map<String, Map<String, Long>> getSigninStats() {
+        Map<String, Map<String, Long>> stats = new LinkedHashMap<>(signinMetrics.getStats());
+        stats.put("rateLimit", loginRateLimiter.getStats());
+        return stats;
+    }
+
+    @GetMapping("/reference-cache")
+    public Map<String, Map<String, Object>> getReferenceCacheStats() {
+        return referenceDataCache.getStats();
+    }
+
+    @GetMapping("/flight-status")
+    public Map<String, Long> getFlightStatusStreamStats() {
+        return flightStatusEventBus.getStats();
+    }
+
+    @GetMapping("/bookings")
+    public Map<String, Map<String, Long>> getBookingPipelineStats() {
+        Map<String, Map<String, Long>> stats = new LinkedHashMap<>();
+        stats.put("idempotency", idempotencyStore.getStats());
+        stats.put("ticketNumbers", ticketNumberGenerator.getStats());
+        stats.put("writeBehind", bookingWriteBehind.getStats());
+        stats.put("seatMaps", Map.of("cachedFlights", (long) seatReservationService.cachedFlights()));
+        return stats;
+    }
+}
@@ -0,0 +1,44 @@
+package com.airline.controller;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+/**
+ * Writes newline-delimited JSON straight to the response as records are produced,
+ * so nothing is collected on the heap first.
+ */
+final class NdjsonResponses {
+
+    static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private NdjsonResponses() {
+    }
+
+    /**
+     * @param flushEach flush after every record, for slow producers whose clients
+     *                  want results as they arrive; bulk exports leave flushing to
+     *                  the container's buffer
+     */
+    static ResponseEntity<StreamingResponseBody> stream(ObjectMapper objectMapper, boolean flushEach,
+            Consumer<Consumer<Object>> producer) {
+        StreamingResponseBody body = (OutputStream out) -> producer.accept(record -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(record));
+                out.write('\n');
+                if (flushEach) {
+                    out.flush();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+}
@@ -1,12 +1,18 @@
 package com.airline.entity;
 
+import com.airline.config.SecondLevelCacheConfig;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfig.AIRPORTS_REGION)
+@JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
 @Table(name = "airports")
 @Data
 @NoArgsConstructor
@@ -0,0 +1,26 @@
+package com.airline.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "dataset_versions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DatasetVersion {
+    @Id
+    @Column(length = 50)
+    private String name;
+
+    @Column(length = 64)
+    private String checksum;
+
+    private Long rowCount;
+
+    private LocalDateTime importedAt;
+}
@@ -1,11 +1,14 @@
 package com.airline.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Entity
+@JsonIgnoreProperties({ "hibernateLazyInitializer", "handler" })
 @Table(name = "seats")
 @Data
 @NoArgsConstructor
@@ -22,7 +25,12 @@ public class Seat {
 
     private Boolean isBooked = false;
 
-    @ManyToOne
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "flight_id")
     private Flight flight;
+
+    @Version
+    @Column(columnDefinition = "bigint default 0 not null")
+    private Long version;
 }
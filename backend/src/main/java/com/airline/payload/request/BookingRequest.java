@@ -0,0 +1,13 @@
+package com.airline.payload.request;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class BookingRequest {
+    @NotNull
+    private Long flightId;
+
+    // Optional; without it the booking has no seat assignment
+    private Long seatId;
+}
@@ -0,0 +1,14 @@
+package com.airline.payload.request;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class DelayRiskBatchRequest {
+    @NotEmpty
+    @Size(max = 1000)
+    private List<Long> flightIds;
+}
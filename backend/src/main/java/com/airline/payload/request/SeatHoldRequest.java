@@ -0,0 +1,13 @@
+package com.airline.payload.request;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class SeatHoldRequest {
+    @NotNull
+    private Long flightId;
+
+    @NotNull
+    private Long seatId;
+}
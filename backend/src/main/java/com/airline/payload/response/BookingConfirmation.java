@@ -0,0 +1,23 @@
+package com.airline.payload.response;
+
+import com.airline.entity.EBookingStatus;
+import com.airline.entity.EPaymentStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class BookingConfirmation {
+    private Long bookingId;
+    private Long flightId;
+    private String flightNumber;
+    private Long seatId;
+    private String seatNumber;
+    private EBookingStatus status;
+    private LocalDateTime bookingTime;
+    private Double amount;
+    private EPaymentStatus paymentStatus;
+    private String ticketNumber;
+}
@@ -0,0 +1,29 @@
+package com.airline.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Cheapest fare per departure day for a route. Days without flights have a
+ * {@code null} price and a count of zero.
+ */
+@Data
+@AllArgsConstructor
+public class FareCalendarResponse {
+    private String origin;
+    private String destination;
+    private LocalDate from;
+    private LocalDate to;
+    private List<Day> days;
+
+    @Data
+    @AllArgsConstructor
+    public static class Day {
+        private LocalDate date;
+        private Double minPrice;
+        private long flights;
+    }
+}
@@ -0,0 +1,22 @@
+package com.airline.payload.response;
+
+import com.airline.entity.EFlightStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class FlightStatusEvent {
+    // Increases across all topics; clients resume with it as Last-Event-ID
+    private long id;
+    private Long flightId;
+    private String flightNumber;
+    private String departureAirport;
+    private String arrivalAirport;
+    private EFlightStatus previousStatus;
+    private EFlightStatus status;
+    private LocalDateTime departureTime;
+    private LocalDateTime arrivalTime;
+}
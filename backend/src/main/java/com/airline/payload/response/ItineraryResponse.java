@@ -0,0 +1,30 @@
+package com.airline.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class ItineraryResponse {
+    private LocalDateTime departureTime;
+    private LocalDateTime arrivalTime;
+    private long durationMinutes;
+    private int stops;
+    private double totalPrice;
+    private List<Leg> legs;
+
+    @Data
+    @AllArgsConstructor
+    public static class Leg {
+        private Long flightId;
+        private String flightNumber;
+        private String departureAirport;
+        private String arrivalAirport;
+        private LocalDateTime departureTime;
+        private LocalDateTime arrivalTime;
+        private double price;
+    }
+}
@@ -0,0 +1,31 @@
+package com.airline.payload.response;
+
+import com.airline.entity.ESeatType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Compact seat map: per cabin, seat ids and numbers in the same order plus a
+ * Base64-encoded little-endian bitset where bit {@code i} marks seat {@code i} as
+ * taken (booked or held).
+ */
+@Data
+@AllArgsConstructor
+public class SeatAvailabilityResponse {
+    private Long flightId;
+    private String version;
+    private List<Cabin> cabins;
+
+    @Data
+    @AllArgsConstructor
+    public static class Cabin {
+        private ESeatType seatType;
+        private int total;
+        private int available;
+        private long[] seatIds;
+        private List<String> seatNumbers;
+        private String taken;
+    }
+}
@@ -0,0 +1,99 @@
+package com.airline.repository;
+
+import com.airline.entity.Airport;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Bulk airport reads and writes that bypass JPA. Airport ids use IDENTITY generation,
+ * which stops Hibernate from batching inserts, so the CSV import goes through plain
+ * JDBC batches instead (rewritten into multi-row INSERTs by the Postgres driver).
+ * The export walks the table through a server-side cursor.
+ */
+@Repository
+public class AirportJdbcRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO airports (name, city, country, latitude, longitude, code) "
+            + "VALUES (?, ?, ?, ?, ?, ?) ON CONFLICT (code) DO NOTHING";
+    private static final String COUNT_CODES_SQL = "SELECT count(*) FROM airports WHERE code IN (%s)";
+    private static final String EXPORT_SQL = "SELECT id, code, name, city, country, latitude, longitude "
+            + "FROM airports ORDER BY id";
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Value("${export.fetch-size:1000}")
+    private int fetchSize;
+
+    /**
+     * Inserts the airports, skipping codes that already exist, and returns how many rows
+     * were written. Rewritten batches report {@code SUCCESS_NO_INFO} rather than a count
+     * per row, so in that case the batch's codes are counted afterwards instead; callers
+     * pass only codes that were absent before the batch, so each match is a row it wrote.
+     */
+    public int insertBatch(List<Airport> airports) {
+        int[][] counts = jdbcTemplate.batchUpdate(INSERT_SQL, airports, airports.size(), (ps, airport) -> {
+            ps.setString(1, airport.getName());
+            ps.setString(2, airport.getCity());
+            ps.setString(3, airport.getCountry());
+            setDouble(ps, 4, airport.getLatitude());
+            setDouble(ps, 5, airport.getLongitude());
+            ps.setString(6, airport.getCode());
+        });
+
+        int inserted = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (count == Statement.SUCCESS_NO_INFO) {
+                    return countCodes(airports);
+                }
+                inserted += count;
+            }
+        }
+        return inserted;
+    }
+
+    private int countCodes(List<Airport> airports) {
+        String placeholders = String.join(", ", Collections.nCopies(airports.size(), "?"));
+        Integer count = jdbcTemplate.queryForObject(COUNT_CODES_SQL.formatted(placeholders), Integer.class,
+                airports.stream().map(Airport::getCode).toArray());
+        return count != null ? count : 0;
+    }
+
+    // Postgres only uses a cursor for fetchSize when autocommit is off, hence the transaction
+    @Transactional(readOnly = true)
+    public void exportAll(Consumer<Map<String, Object>> sink) {
+        jdbcTemplate.query(ScrollingStatements.forwardOnly(EXPORT_SQL, fetchSize), rs -> {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("id", rs.getLong(1));
+            row.put("code", rs.getString(2));
+            row.put("name", rs.getString(3));
+            row.put("city", rs.getString(4));
+            row.put("country", rs.getString(5));
+            row.put("latitude", rs.getObject(6, Double.class));
+            row.put("longitude", rs.getObject(7, Double.class));
+            sink.accept(row);
+        });
+    }
+
+    private static void setDouble(PreparedStatement ps, int index, Double value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.DOUBLE);
+        } else {
+            ps.setDouble(index, value);
+        }
+    }
+}
@@ -1,18 +1,24 @@
 package com.airline.repository;
 
 import com.airline.entity.Airport;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
 public interface AirportRepository extends JpaRepository<Airport, Long> {
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     Optional<Airport> findByCode(String code);
 
-    java.util.List<Airport> findTop10ByNameContainingIgnoreCaseOrCityContainingIgnoreCaseOrCodeContainingIgnoreCase(
-            String name, String city, String code);
+    java.util.List<Airport> findByNameContainingIgnoreCaseOrCityContainingIgnoreCaseOrCodeContainingIgnoreCase(
+            String name, String city, String code, org.springframework.data.domain.Limit limit);
 
     @org.springframework.data.jpa.repository.Query("SELECT a.code FROM Airport a WHERE a.code IS NOT NULL")
     java.util.List<String> findAllCodes();
+
+    java.util.List<Airport> findByIdGreaterThanOrderById(Long id, org.springframework.data.domain.Limit limit);
 }
@@ -10,4 +10,7 @@ import java.util.List;
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
     List<Booking> findByUser(User user);
+
+    @org.springframework.data.jpa.repository.Query("SELECT b FROM Booking b JOIN FETCH b.user JOIN FETCH b.flight f JOIN FETCH f.departureAirport JOIN FETCH f.arrivalAirport LEFT JOIN FETCH f.aircraft LEFT JOIN FETCH b.seat WHERE b.user.id = :userId")
+    List<Booking> findByUserIdWithDetails(@org.springframework.data.repository.query.Param("userId") Long userId);
 }
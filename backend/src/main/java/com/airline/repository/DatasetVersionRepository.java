@@ -0,0 +1,9 @@
+package com.airline.repository;
+
+import com.airline.entity.DatasetVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface DatasetVersionRepository extends JpaRepository<DatasetVersion, String> {
+}
@@ -0,0 +1,14 @@
+package com.airline.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Cheapest fare and number of flights on one departure day of a route.
+ */
+public interface FareDayView {
+    LocalDate getDay();
+
+    Double getMinPrice();
+
+    Long getFlights();
+}
@@ -0,0 +1,49 @@
+package com.airline.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Flight reads that bypass JPA. The export walks the whole table through a
+ * server-side cursor, handing each row to the sink before fetching the next batch.
+ */
+@Repository
+public class FlightJdbcRepository {
+
+    private static final String EXPORT_SQL = "SELECT f.id, f.flight_number, d.code, a.code, f.departure_time, "
+            + "f.arrival_time, f.aircraft_id, f.status, f.price FROM flights f "
+            + "LEFT JOIN airports d ON d.id = f.departure_airport_id "
+            + "LEFT JOIN airports a ON a.id = f.arrival_airport_id ORDER BY f.id";
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Value("${export.fetch-size:1000}")
+    private int fetchSize;
+
+    // Postgres only uses a cursor for fetchSize when autocommit is off, hence the transaction
+    @Transactional(readOnly = true)
+    public void exportAll(Consumer<Map<String, Object>> sink) {
+        jdbcTemplate.query(ScrollingStatements.forwardOnly(EXPORT_SQL, fetchSize), rs -> {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("id", rs.getLong(1));
+            row.put("flightNumber", rs.getString(2));
+            row.put("departureAirport", rs.getString(3));
+            row.put("arrivalAirport", rs.getString(4));
+            row.put("departureTime", rs.getObject(5, LocalDateTime.class));
+            row.put("arrivalTime", rs.getObject(6, LocalDateTime.class));
+            row.put("aircraftId", rs.getObject(7, Long.class));
+            row.put("status", rs.getString(8));
+            row.put("price", rs.getObject(9, Double.class));
+            sink.accept(row);
+        });
+    }
+}
@@ -1,6 +1,5 @@
 package com.airline.repository;
 
-import com.airline.entity.Airport;
 import com.airline.entity.Flight;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
@@ -10,9 +9,42 @@ import java.util.List;
 
 @Repository
 public interface FlightRepository extends JpaRepository<Flight, Long> {
-    @org.springframework.data.jpa.repository.Query("SELECT f FROM Flight f WHERE f.departureAirport.code = :origin AND f.arrivalAirport.code = :dest AND f.departureTime BETWEEN :start AND :end")
-    List<Flight> findFlights(@org.springframework.data.repository.query.Param("origin") String origin,
-            @org.springframework.data.repository.query.Param("dest") String dest,
+    // Airports are nullable, so every fetch join is outer: flights without one stay listed, as in the export
+    @org.springframework.data.jpa.repository.Query("SELECT f FROM Flight f LEFT JOIN FETCH f.departureAirport LEFT JOIN FETCH f.arrivalAirport LEFT JOIN FETCH f.aircraft")
+    List<Flight> findAllWithDetails();
+
+    @org.springframework.data.jpa.repository.Query("SELECT f FROM Flight f LEFT JOIN FETCH f.departureAirport LEFT JOIN FETCH f.arrivalAirport LEFT JOIN FETCH f.aircraft WHERE f.id > :afterId ORDER BY f.id")
+    List<Flight> findPageById(@org.springframework.data.repository.query.Param("afterId") Long afterId,
+            org.springframework.data.domain.Limit limit);
+
+    @org.springframework.data.jpa.repository.Query("SELECT f FROM Flight f LEFT JOIN FETCH f.departureAirport LEFT JOIN FETCH f.arrivalAirport LEFT JOIN FETCH f.aircraft WHERE f.departureTime > :afterTime OR (f.departureTime = :afterTime AND f.id > :afterId) ORDER BY f.departureTime, f.id")
+    List<Flight> findPageByDepartureTime(@org.springframework.data.repository.query.Param("afterTime") LocalDateTime afterTime,
+            @org.springframework.data.repository.query.Param("afterId") Long afterId,
+            org.springframework.data.domain.Limit limit);
+
+    @org.springframework.data.jpa.repository.EntityGraph(attributePaths = { "departureAirport", "arrivalAirport", "aircraft" })
+    java.util.Optional<Flight> findWithDetailsById(Long id);
+
+    // Filters on the airport foreign keys only; callers attach the airports they resolved
+    @org.springframework.data.jpa.repository.Query("SELECT f FROM Flight f LEFT JOIN FETCH f.aircraft WHERE f.departureAirport.id = :originId AND f.arrivalAirport.id = :destinationId AND f.departureTime BETWEEN :start AND :end ORDER BY f.departureTime")
+    List<Flight> findRoute(@org.springframework.data.repository.query.Param("originId") Long originId,
+            @org.springframework.data.repository.query.Param("destinationId") Long destinationId,
+            @org.springframework.data.repository.query.Param("start") LocalDateTime start,
+            @org.springframework.data.repository.query.Param("end") LocalDateTime end);
+
+    @org.springframework.data.jpa.repository.Query("SELECT CAST(f.departureTime AS LocalDate) AS day, MIN(f.price) AS minPrice, COUNT(f) AS flights FROM Flight f WHERE f.departureAirport.id = :originId AND f.arrivalAirport.id = :destinationId AND f.departureTime >= :start AND f.departureTime < :end AND (f.status IS NULL OR f.status <> com.airline.entity.EFlightStatus.CANCELLED) GROUP BY CAST(f.departureTime AS LocalDate) ORDER BY CAST(f.departureTime AS LocalDate)")
+    List<FareDayView> findFareDays(@org.springframework.data.repository.query.Param("originId") Long originId,
+            @org.springframework.data.repository.query.Param("destinationId") Long destinationId,
+            @org.springframework.data.repository.query.Param("start") LocalDateTime start,
+            @org.springframework.data.repository.query.Param("end") LocalDateTime end);
+
+    // Outer join so flights without a departure airport still come back and are scored without weather
+    @org.springframework.data.jpa.repository.Query("SELECT f FROM Flight f LEFT JOIN FETCH f.departureAirport WHERE f.id IN :ids")
+    List<Flight> findAllWithDepartureAirportByIdIn(
+            @org.springframework.data.repository.query.Param("ids") java.util.Collection<Long> ids);
+
+    @org.springframework.data.jpa.repository.Query("SELECT f FROM Flight f JOIN FETCH f.departureAirport a WHERE a.code = :origin AND f.departureTime BETWEEN :start AND :end ORDER BY f.departureTime")
+    List<Flight> findDepartures(@org.springframework.data.repository.query.Param("origin") String origin,
             @org.springframework.data.repository.query.Param("start") LocalDateTime start,
             @org.springframework.data.repository.query.Param("end") LocalDateTime end);
 }
@@ -0,0 +1,21 @@
+package com.airline.repository;
+
+import org.springframework.jdbc.core.PreparedStatementCreator;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+final class ScrollingStatements {
+
+    private ScrollingStatements() {
+    }
+
+    static PreparedStatementCreator forwardOnly(String sql, int fetchSize) {
+        return connection -> {
+            PreparedStatement ps = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            return ps;
+        };
+    }
+}
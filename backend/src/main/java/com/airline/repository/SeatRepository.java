@@ -10,4 +10,8 @@ import java.util.List;
 @Repository
 public interface SeatRepository extends JpaRepository<Seat, Long> {
     List<Seat> findByFlight(Flight flight);
+
+    List<SeatView> findByFlightIdOrderById(Long flightId);
+
+    boolean existsByIdAndFlightId(Long id, Long flightId);
 }
@@ -0,0 +1,16 @@
+package com.airline.repository;
+
+import com.airline.entity.ESeatType;
+
+/**
+ * Column-only view of a seat, loaded without its flight graph.
+ */
+public interface SeatView {
+    Long getId();
+
+    String getSeatNumber();
+
+    ESeatType getSeatType();
+
+    Boolean getIsBooked();
+}
@@ -4,9 +4,15 @@ import com.airline.entity.Ticket;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface TicketRepository extends JpaRepository<Ticket, Long> {
     Optional<Ticket> findByTicketNumber(String ticketNumber);
+
+    @org.springframework.data.jpa.repository.Query("SELECT t.ticketNumber FROM Ticket t WHERE t.ticketNumber IN :ticketNumbers")
+    List<String> findExistingTicketNumbers(
+            @org.springframework.data.repository.query.Param("ticketNumbers") Collection<String> ticketNumbers);
 }
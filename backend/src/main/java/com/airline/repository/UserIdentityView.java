@@ -0,0 +1,10 @@
+package com.airline.repository;
+
+/**
+ * Username and email of an existing account, used for sign-up uniqueness checks.
+ */
+public interface UserIdentityView {
+    String getUsername();
+
+    String getEmail();
+}
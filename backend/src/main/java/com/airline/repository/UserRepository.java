@@ -4,13 +4,21 @@ import com.airline.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByUsername(String username);
 
+    @org.springframework.data.jpa.repository.EntityGraph(attributePaths = "roles")
+    Optional<User> findWithRolesByUsername(String username);
+
     Boolean existsByUsername(String username);
 
     Boolean existsByEmail(String email);
+
+    @org.springframework.data.jpa.repository.Query("SELECT u.username AS username, u.email AS email FROM User u "
+            + "WHERE u.username = :username OR u.email = :email")
+    List<UserIdentityView> findIdentityConflicts(String username, String email);
 }
@@ -4,59 +4,171 @@ import com.airline.security.services.UserDetailsImpl;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
 
 import java.security.Key;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 @Component
 public class JwtUtils {
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
+    static final String CLAIM_USER_ID = "uid";
+    static final String CLAIM_EMAIL = "email";
+    static final String CLAIM_ROLES = "roles";
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
     @Value("${jwt.expiration}")
     private int jwtExpirationMs;
 
+    @Value("${jwt.verified-cache.max-entries:10000}")
+    private int verifiedCacheMaxEntries;
+
+    private Key key;
+    private JwtParser parser;
+
+    // Recently verified tokens keyed by their signature segment, dropped when the token expires
+    private final ConcurrentHashMap<String, Verified> verified = new ConcurrentHashMap<>();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+
+    @PostConstruct
+    public void init() {
+        key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
+        parser = Jwts.parserBuilder().setSigningKey(key).build();
+    }
+
     public String generateJwtToken(Authentication authentication) {
         UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
 
+        List<String> roles = new ArrayList<>();
+        for (GrantedAuthority authority : userPrincipal.getAuthorities()) {
+            roles.add(authority.getAuthority());
+        }
+
         return Jwts.builder()
                 .setSubject((userPrincipal.getUsername()))
+                .claim(CLAIM_USER_ID, userPrincipal.getId())
+                .claim(CLAIM_EMAIL, userPrincipal.getEmail())
+                .claim(CLAIM_ROLES, roles)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-                .signWith(key(), SignatureAlgorithm.HS256)
+                .signWith(key, SignatureAlgorithm.HS256)
                 .compact();
     }
 
-    private Key key() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(jwtSecret));
-    }
-
     public String getUserNameFromJwtToken(String token) {
-        return Jwts.parserBuilder().setSigningKey(key()).build()
-                .parseClaimsJws(token).getBody().getSubject();
+        Claims claims = parseValidatedClaims(token);
+        return claims != null ? claims.getSubject() : null;
     }
 
     public boolean validateJwtToken(String authToken) {
+        return parseValidatedClaims(authToken) != null;
+    }
+
+    /**
+     * Verifies the token once and returns its claims, or {@code null} if it is
+     * malformed, unsigned, wrongly signed or expired. Tokens seen recently are
+     * answered from the verified cache without re-checking the signature.
+     */
+    public Claims parseValidatedClaims(String token) {
+        if (token == null) {
+            return null;
+        }
+        String signature = token.substring(token.lastIndexOf('.') + 1);
+        Verified cached = verified.get(signature);
+        long now = System.currentTimeMillis();
+        // The full token must match: a signature pasted onto another payload is not a hit
+        if (cached != null && cached.token.equals(token)) {
+            if (now < cached.expiresAtMillis) {
+                cacheHits.increment();
+                return cached.claims;
+            }
+            verified.remove(signature, cached);
+        }
+        cacheMisses.increment();
+
+        Claims claims;
         try {
-            Jwts.parserBuilder().setSigningKey(key()).build().parse(authToken);
-            return true;
+            claims = parser.parseClaimsJws(token).getBody();
         } catch (MalformedJwtException e) {
             logger.error("Invalid JWT token: {}", e.getMessage());
+            return null;
         } catch (ExpiredJwtException e) {
             logger.error("JWT token is expired: {}", e.getMessage());
+            return null;
         } catch (UnsupportedJwtException e) {
             logger.error("JWT token is unsupported: {}", e.getMessage());
+            return null;
         } catch (IllegalArgumentException e) {
             logger.error("JWT claims string is empty: {}", e.getMessage());
+            return null;
+        } catch (JwtException e) {
+            logger.error("Invalid JWT signature: {}", e.getMessage());
+            return null;
+        }
+
+        if (verifiedCacheMaxEntries > 0 && claims.getExpiration() != null) {
+            remember(signature, new Verified(token, claims, claims.getExpiration().getTime()), now);
+        }
+        return claims;
+    }
+
+    /**
+     * Rebuilds the principal from a verified token's claims, or returns {@code null}
+     * for tokens issued before the id and roles were carried as claims.
+     */
+    public UserDetailsImpl principalFromClaims(Claims claims) {
+        Object id = claims.get(CLAIM_USER_ID);
+        Object roles = claims.get(CLAIM_ROLES);
+        if (!(id instanceof Number) || !(roles instanceof Collection<?> names)) {
+            return null;
+        }
+        List<GrantedAuthority> authorities = new ArrayList<>(names.size());
+        for (Object name : names) {
+            authorities.add(new SimpleGrantedAuthority(String.valueOf(name)));
         }
+        return new UserDetailsImpl(((Number) id).longValue(), claims.getSubject(),
+                claims.get(CLAIM_EMAIL, String.class), null, authorities);
+    }
+
+    public Map<String, Long> getVerifiedCacheStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("hits", cacheHits.sum());
+        stats.put("misses", cacheMisses.sum());
+        stats.put("size", (long) verified.size());
+        return stats;
+    }
+
+    private void remember(String signature, Verified entry, long now) {
+        if (verified.size() >= verifiedCacheMaxEntries) {
+            verified.values().removeIf(existing -> existing.expiresAtMillis <= now);
+            Iterator<String> victims = verified.keySet().iterator();
+            while (verified.size() >= verifiedCacheMaxEntries && victims.hasNext()) {
+                victims.next();
+                victims.remove();
+            }
+        }
+        verified.put(signature, entry);
+    }
 
-        return false;
+    private record Verified(String token, Claims claims, long expiresAtMillis) {
     }
 }
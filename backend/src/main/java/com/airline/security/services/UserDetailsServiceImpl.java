@@ -3,17 +3,30 @@ package com.airline.security.services;
 import com.airline.entity.User;
 import com.airline.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+
 @Service
 public class UserDetailsServiceImpl implements UserDetailsService {
     @Autowired
     UserRepository userRepository;
 
+    @Value("${jwt.principal-cache.ttl-seconds:0}")
+    private long principalCacheTtlSeconds;
+
+    @Value("${jwt.principal-cache.max-entries:10000}")
+    private int principalCacheMaxEntries;
+
+    // Principals re-read from the database, kept briefly so revocation checks are not per request
+    private final ConcurrentHashMap<String, Cached> principals = new ConcurrentHashMap<>();
+
     @Override
     @Transactional
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
@@ -22,4 +35,45 @@ public class UserDetailsServiceImpl implements UserDetailsService {
 
         return UserDetailsImpl.build(user);
     }
+
+    /**
+     * Principal for an authenticated request. With the principal cache disabled the
+     * token's own claims are trusted until it expires; with it enabled the user is
+     * re-read at most once per TTL, so deleted users and changed roles take effect
+     * within that window. Tokens without claims fall back to a database lookup.
+     */
+    public UserDetails resolvePrincipal(String username, UserDetailsImpl fromToken) {
+        if (principalCacheTtlSeconds <= 0) {
+            return fromToken != null ? fromToken : loadUserByUsername(username);
+        }
+
+        long now = System.currentTimeMillis();
+        Cached cached = principals.get(username);
+        if (cached == null || now >= cached.expiresAtMillis) {
+            User user = userRepository.findWithRolesByUsername(username)
+                    .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + username));
+            cached = new Cached(UserDetailsImpl.build(user), now + principalCacheTtlSeconds * 1000);
+            remember(username, cached, now);
+        }
+        // A token issued to an earlier account with the same username is not honoured
+        if (fromToken != null && !fromToken.getId().equals(cached.principal.getId())) {
+            throw new UsernameNotFoundException("Token does not belong to user: " + username);
+        }
+        return cached.principal;
+    }
+
+    private void remember(String username, Cached entry, long now) {
+        if (principals.size() >= principalCacheMaxEntries) {
+            principals.values().removeIf(existing -> existing.expiresAtMillis <= now);
+            Iterator<String> victims = principals.keySet().iterator();
+            while (principals.size() >= principalCacheMaxEntries && victims.hasNext()) {
+                victims.next();
+                victims.remove();
+            }
+        }
+        principals.put(username, entry);
+    }
+
+    private record Cached(UserDetailsImpl principal, long expiresAtMillis) {
+    }
 }
@@ -0,0 +1,144 @@
+package com.airline.service;
+
+import com.airline.entity.Airport;
+import com.airline.repository.AirportJdbcRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Streams an OurAirports {@code airports.csv} into the airports table: rows are
+ * tokenized as they are read, filtered, and flushed through JDBC batches so memory
+ * stays bounded by a single batch regardless of file size.
+ */
+@Component
+@Slf4j
+public class AirportCsvImporter {
+
+    private static final int COL_TYPE = 2;
+    private static final int COL_NAME = 3;
+    private static final int COL_LATITUDE = 4;
+    private static final int COL_LONGITUDE = 5;
+    private static final int COL_ISO_COUNTRY = 8;
+    private static final int COL_MUNICIPALITY = 10;
+    private static final int COL_IATA = 13;
+
+    @Autowired
+    AirportJdbcRepository airportJdbcRepository;
+
+    @Value("${airport.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${airport.import.progress-interval:10000}")
+    private int progressInterval;
+
+    public ImportResult importCsv(InputStream input, Set<String> existingCodes) throws IOException {
+        long start = System.nanoTime();
+        long read = 0;
+        long skipped = 0;
+        long inserted = 0;
+        long nextProgress = progressInterval;
+        List<Airport> batch = new ArrayList<>(batchSize);
+
+        try (CsvReader csv = new CsvReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            boolean isHeader = true;
+            while (csv.next()) {
+                if (isHeader) {
+                    isHeader = false;
+                    continue;
+                }
+                read++;
+
+                Airport airport = toAirport(csv);
+                // Claim the code only once the row is fully valid, so a bad row cannot shadow a later good
+                // one; the claim also drops duplicates within the file itself
+                if (airport == null || !existingCodes.add(airport.getCode())) {
+                    skipped++;
+                    continue;
+                }
+
+                batch.add(airport);
+                if (batch.size() >= batchSize) {
+                    inserted += airportJdbcRepository.insertBatch(batch);
+                    batch.clear();
+                }
+
+                if (read >= nextProgress) {
+                    log.info("Airport import progress: {} rows read, {} inserted ({} rows/sec)", read, inserted,
+                            rowsPerSecond(read, start));
+                    nextProgress += progressInterval;
+                }
+            }
+
+            if (!batch.isEmpty()) {
+                inserted += airportJdbcRepository.insertBatch(batch);
+            }
+        }
+
+        ImportResult result = new ImportResult(read, inserted, skipped, (System.nanoTime() - start) / 1_000_000);
+        log.info("Airport import finished: {} rows read, {} inserted, {} skipped in {} ms ({} rows/sec)",
+                result.rowsRead(), result.inserted(), result.skipped(), result.elapsedMillis(),
+                rowsPerSecond(read, start));
+        return result;
+    }
+
+    private Airport toAirport(CsvReader csv) {
+        if (csv.size() <= COL_IATA) {
+            return null;
+        }
+
+        String type = csv.get(COL_TYPE).trim();
+        if ("closed".equalsIgnoreCase(type) || "balloonport".equalsIgnoreCase(type)) {
+            return null;
+        }
+
+        String name = csv.get(COL_NAME).trim();
+        String isoCountry = csv.get(COL_ISO_COUNTRY).trim();
+        String municipality = csv.get(COL_MUNICIPALITY).trim();
+        String iata = csv.get(COL_IATA).trim();
+        if (name.isEmpty() || municipality.isEmpty() || isoCountry.isEmpty() || iata.isEmpty()) {
+            return null;
+        }
+
+        double latitude;
+        double longitude;
+        try {
+            latitude = Double.parseDouble(csv.get(COL_LATITUDE).trim());
+            longitude = Double.parseDouble(csv.get(COL_LONGITUDE).trim());
+        } catch (NumberFormatException e) {
+            log.warn("Skipping invalid coordinate data for airport: {}", name);
+            return null;
+        }
+        // Also rejects NaN, which parses but fails every comparison
+        if (!(latitude >= -90 && latitude <= 90 && longitude >= -180 && longitude <= 180)) {
+            log.warn("Skipping out-of-range coordinates for airport: {}", name);
+            return null;
+        }
+
+        Airport airport = new Airport();
+        airport.setName(name);
+        airport.setCity(municipality);
+        airport.setCountry(isoCountry);
+        airport.setCode(iata);
+        airport.setLatitude(latitude);
+        airport.setLongitude(longitude);
+        return airport;
+    }
+
+    private static long rowsPerSecond(long rows, long startNanos) {
+        long elapsedNanos = Math.max(1, System.nanoTime() - startNanos);
+        return rows * 1_000_000_000L / elapsedNanos;
+    }
+
+    public record ImportResult(long rowsRead, long inserted, long skipped, long elapsedMillis) {
+    }
+}
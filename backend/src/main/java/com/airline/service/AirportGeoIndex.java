@@ -0,0 +1,328 @@
+package com.airline.service;
+
+import com.airline.entity.Airport;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory spatial index over airport coordinates for nearest-K and radius queries.
+ * Airports are stored as points on the unit sphere in an implicit k-d tree (the
+ * median of each range is its node), so straight-line distance orders results the
+ * same way great-circle distance does and there is no special case at the poles or
+ * the antimeridian. Reported distances are haversine kilometres.
+ * <p>
+ * Like {@link AirportSearchIndex} it is an immutable snapshot swapped on rebuild.
+ */
+@Component
+public class AirportGeoIndex {
+
+    static final double EARTH_RADIUS_KM = 6371.0088;
+
+    private volatile Tree tree = Tree.EMPTY;
+
+    public int size() {
+        return tree.airports.length;
+    }
+
+    public void rebuild(Collection<Airport> airports) {
+        tree = Tree.build(airports);
+    }
+
+    /**
+     * Adds or replaces a single airport by id.
+     */
+    public synchronized void put(Airport airport) {
+        Map<Object, Airport> merged = new LinkedHashMap<>();
+        for (Airport existing : tree.airports) {
+            merged.put(existing.getId(), existing);
+        }
+        merged.put(airport.getId(), airport);
+        tree = Tree.build(merged.values());
+    }
+
+    /**
+     * The {@code k} airports closest to the point, nearest first, leaving out the
+     * airport with id {@code excludeId} (may be {@code null}).
+     */
+    public List<Nearby> nearest(double latitude, double longitude, int k, Long excludeId) {
+        Tree current = tree;
+        if (k <= 0 || current.airports.length == 0) {
+            return Collections.emptyList();
+        }
+        double[] query = unitVector(latitude, longitude);
+        BoundedHeap heap = new BoundedHeap(excludeId != null ? k + 1 : k);
+        current.nearest(0, current.airports.length, 0, query, heap);
+
+        List<Nearby> results = new ArrayList<>(heap.size);
+        for (int index : heap.sortedIndexes()) {
+            Airport airport = current.airports[index];
+            if (excludeId != null && excludeId.equals(airport.getId()) || results.size() == k) {
+                continue;
+            }
+            results.add(new Nearby(airport, haversineKm(latitude, longitude, airport.getLatitude(),
+                    airport.getLongitude())));
+        }
+        return results;
+    }
+
+    /**
+     * Airports within {@code radiusKm} of the point, nearest first, at most {@code limit}.
+     */
+    public List<Nearby> within(double latitude, double longitude, double radiusKm, int limit) {
+        Tree current = tree;
+        if (limit <= 0 || radiusKm < 0 || current.airports.length == 0) {
+            return Collections.emptyList();
+        }
+        double[] query = unitVector(latitude, longitude);
+        // Chord length on the unit sphere for the given arc; beyond half the globe it covers everything
+        double angle = Math.min(radiusKm / EARTH_RADIUS_KM, Math.PI);
+        double chord = 2 * Math.sin(angle / 2);
+        List<Integer> hits = new ArrayList<>();
+        current.within(0, current.airports.length, 0, query, chord * chord + 1e-12, hits);
+
+        List<Nearby> results = new ArrayList<>(hits.size());
+        for (int index : hits) {
+            Airport airport = current.airports[index];
+            double distance = haversineKm(latitude, longitude, airport.getLatitude(), airport.getLongitude());
+            if (distance <= radiusKm) {
+                results.add(new Nearby(airport, distance));
+            }
+        }
+        results.sort(Comparator.comparingDouble(Nearby::distanceKm));
+        return results.size() > limit ? new ArrayList<>(results.subList(0, limit)) : results;
+    }
+
+    public static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLon / 2)
+                        * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private static double[] unitVector(double latitude, double longitude) {
+        double lat = Math.toRadians(latitude);
+        double lon = Math.toRadians(longitude);
+        double cosLat = Math.cos(lat);
+        return new double[] { cosLat * Math.cos(lon), cosLat * Math.sin(lon), Math.sin(lat) };
+    }
+
+    public record Nearby(Airport airport, double distanceKm) {
+    }
+
+    private static final class Tree {
+        static final Tree EMPTY = new Tree(new Airport[0], new double[3][0]);
+
+        final Airport[] airports;
+        // coordinates[axis][i] for axis x, y, z
+        final double[][] coordinates;
+
+        Tree(Airport[] airports, double[][] coordinates) {
+            this.airports = airports;
+            this.coordinates = coordinates;
+        }
+
+        static Tree build(Collection<Airport> source) {
+            List<Airport> located = new ArrayList<>(source.size());
+            for (Airport airport : source) {
+                if (airport.getLatitude() != null && airport.getLongitude() != null) {
+                    located.add(airport);
+                }
+            }
+            Airport[] airports = located.toArray(new Airport[0]);
+            double[][] coordinates = new double[3][airports.length];
+            for (int i = 0; i < airports.length; i++) {
+                double[] point = unitVector(airports[i].getLatitude(), airports[i].getLongitude());
+                for (int axis = 0; axis < 3; axis++) {
+                    coordinates[axis][i] = point[axis];
+                }
+            }
+            Tree tree = new Tree(airports, coordinates);
+            tree.split(0, airports.length, 0);
+            return tree;
+        }
+
+        private void split(int lo, int hi, int depth) {
+            if (hi - lo <= 1) {
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            select(lo, hi - 1, mid, depth % 3);
+            split(lo, mid, depth + 1);
+            split(mid + 1, hi, depth + 1);
+        }
+
+        /** Quickselect: places the k-th smallest point on the axis at index k. */
+        private void select(int left, int right, int k, int axis) {
+            double[] values = coordinates[axis];
+            while (left < right) {
+                double pivot = values[(left + right) >>> 1];
+                int i = left;
+                int j = right;
+                while (i <= j) {
+                    while (values[i] < pivot) {
+                        i++;
+                    }
+                    while (values[j] > pivot) {
+                        j--;
+                    }
+                    if (i <= j) {
+                        swap(i++, j--);
+                    }
+                }
+                if (k <= j) {
+                    right = j;
+                } else if (k >= i) {
+                    left = i;
+                } else {
+                    return;
+                }
+            }
+        }
+
+        private void swap(int a, int b) {
+            Airport airport = airports[a];
+            airports[a] = airports[b];
+            airports[b] = airport;
+            for (double[] values : coordinates) {
+                double value = values[a];
+                values[a] = values[b];
+                values[b] = value;
+            }
+        }
+
+        private double distanceSquared(int index, double[] query) {
+            double dx = coordinates[0][index] - query[0];
+            double dy = coordinates[1][index] - query[1];
+            double dz = coordinates[2][index] - query[2];
+            return dx * dx + dy * dy + dz * dz;
+        }
+
+        void nearest(int lo, int hi, int depth, double[] query, BoundedHeap heap) {
+            if (lo >= hi) {
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            int axis = depth % 3;
+            heap.offer(mid, distanceSquared(mid, query));
+
+            double diff = query[axis] - coordinates[axis][mid];
+            if (diff < 0) {
+                nearest(lo, mid, depth + 1, query, heap);
+                if (diff * diff < heap.worst()) {
+                    nearest(mid + 1, hi, depth + 1, query, heap);
+                }
+            } else {
+                nearest(mid + 1, hi, depth + 1, query, heap);
+                if (diff * diff < heap.worst()) {
+                    nearest(lo, mid, depth + 1, query, heap);
+                }
+            }
+        }
+
+        void within(int lo, int hi, int depth, double[] query, double maxDistanceSquared, List<Integer> hits) {
+            if (lo >= hi) {
+                return;
+            }
+            int mid = (lo + hi) >>> 1;
+            int axis = depth % 3;
+            if (distanceSquared(mid, query) <= maxDistanceSquared) {
+                hits.add(mid);
+            }
+            double diff = query[axis] - coordinates[axis][mid];
+            if (diff < 0 || diff * diff <= maxDistanceSquared) {
+                within(lo, mid, depth + 1, query, maxDistanceSquared, hits);
+            }
+            if (diff >= 0 || diff * diff <= maxDistanceSquared) {
+                within(mid + 1, hi, depth + 1, query, maxDistanceSquared, hits);
+            }
+        }
+    }
+
+    /** Max-heap of the closest {@code capacity} indexes seen so far. */
+    private static final class BoundedHeap {
+        final int[] indexes;
+        final double[] distances;
+        int size;
+
+        BoundedHeap(int capacity) {
+            indexes = new int[capacity];
+            distances = new double[capacity];
+        }
+
+        double worst() {
+            return size < indexes.length ? Double.POSITIVE_INFINITY : distances[0];
+        }
+
+        void offer(int index, double distance) {
+            if (size < indexes.length) {
+                indexes[size] = index;
+                distances[size] = distance;
+                siftUp(size++);
+            } else if (distance < distances[0]) {
+                indexes[0] = index;
+                distances[0] = distance;
+                siftDown(0);
+            }
+        }
+
+        int[] sortedIndexes() {
+            int[] sorted = new int[size];
+            while (size > 0) {
+                sorted[size - 1] = indexes[0];
+                size--;
+                indexes[0] = indexes[size];
+                distances[0] = distances[size];
+                siftDown(0);
+            }
+            return sorted;
+        }
+
+        private void siftUp(int i) {
+            while (i > 0) {
+                int parent = (i - 1) / 2;
+                if (distances[parent] >= distances[i]) {
+                    return;
+                }
+                swap(i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int i) {
+            while (true) {
+                int largest = i;
+                int left = 2 * i + 1;
+                int right = left + 1;
+                if (left < size && distances[left] > distances[largest]) {
+                    largest = left;
+                }
+                if (right < size && distances[right] > distances[largest]) {
+                    largest = right;
+                }
+                if (largest == i) {
+                    return;
+                }
+                swap(i, largest);
+                i = largest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int index = indexes[a];
+            indexes[a] = indexes[b];
+            indexes[b] = index;
+            double distance = distances[a];
+            distances[a] = distances[b];
+            distances[b] = distance;
+        }
+    }
+}
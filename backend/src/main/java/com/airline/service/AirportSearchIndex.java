@@ -0,0 +1,315 @@
+package com.airline.service;
+
+import com.airline.entity.Airport;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory airport lookup used by the autocomplete. Results are ranked in tiers:
+ * exact IATA code, code prefix, name/city prefix, word prefix and finally
+ * substring matches resolved through a trigram index.
+ *
+ * The index is an immutable snapshot swapped on every write, so readers never lock.
+ */
+@Component
+public class AirportSearchIndex {
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern WORD_SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    public boolean isBuilt() {
+        return snapshot != Snapshot.EMPTY;
+    }
+
+    public int size() {
+        return snapshot.airports.length;
+    }
+
+    public void rebuild(Collection<Airport> airports) {
+        snapshot = Snapshot.build(airports);
+    }
+
+    /**
+     * Adds or replaces a single airport. Admin writes are rare, so rebuilding the
+     * snapshot keeps the read path simple.
+     */
+    public synchronized void put(Airport airport) {
+        Map<Object, Airport> merged = new LinkedHashMap<>();
+        for (Airport existing : snapshot.airports) {
+            merged.put(identity(existing), existing);
+        }
+        merged.remove(identity(airport));
+        merged.put(identity(airport), airport);
+        snapshot = Snapshot.build(merged.values());
+    }
+
+    public List<Airport> search(String query, int limit) {
+        String q = normalize(query);
+        if (q.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        return snapshot.search(q, limit);
+    }
+
+    /**
+     * Exact IATA code lookup, case-insensitive. Returns {@code null} if the code is
+     * not indexed.
+     */
+    public Airport findByCode(String code) {
+        Snapshot current = snapshot;
+        Integer index = current.byCode.get(normalize(code));
+        return index != null ? current.airports[index] : null;
+    }
+
+    private static Object identity(Airport airport) {
+        return airport.getId() != null ? airport.getId() : airport.getCode();
+    }
+
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        String stripped = DIACRITICS.matcher(Normalizer.normalize(value.trim(), Normalizer.Form.NFD)).replaceAll("");
+        return stripped.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(new Airport[0], new String[0], Map.of(),
+                new PrefixTable(new String[0], new int[0]),
+                new PrefixTable(new String[0], new int[0]),
+                new PrefixTable(new String[0], new int[0]),
+                Map.of());
+
+        final Airport[] airports;
+        final String[] haystacks;
+        final Map<String, Integer> byCode;
+        final PrefixTable codePrefixes;
+        final PrefixTable fieldPrefixes;
+        final PrefixTable wordPrefixes;
+        final Map<Long, int[]> trigrams;
+
+        Snapshot(Airport[] airports, String[] haystacks, Map<String, Integer> byCode, PrefixTable codePrefixes,
+                PrefixTable fieldPrefixes, PrefixTable wordPrefixes, Map<Long, int[]> trigrams) {
+            this.airports = airports;
+            this.haystacks = haystacks;
+            this.byCode = byCode;
+            this.codePrefixes = codePrefixes;
+            this.fieldPrefixes = fieldPrefixes;
+            this.wordPrefixes = wordPrefixes;
+            this.trigrams = trigrams;
+        }
+
+        static Snapshot build(Collection<Airport> source) {
+            Airport[] airports = source.toArray(new Airport[0]);
+            String[] haystacks = new String[airports.length];
+            Map<String, Integer> byCode = new HashMap<>(airports.length * 2);
+            PrefixTable.Builder codes = new PrefixTable.Builder();
+            PrefixTable.Builder fields = new PrefixTable.Builder();
+            PrefixTable.Builder words = new PrefixTable.Builder();
+            Map<Long, IntList> trigrams = new HashMap<>();
+
+            for (int i = 0; i < airports.length; i++) {
+                Airport airport = airports[i];
+                String code = normalize(airport.getCode());
+                String name = normalize(airport.getName());
+                String city = normalize(airport.getCity());
+
+                if (!code.isEmpty()) {
+                    byCode.putIfAbsent(code, i);
+                    codes.add(code, i);
+                }
+                fields.add(name, i);
+                fields.add(city, i);
+                for (String word : WORD_SEPARATORS.split(name + " " + city)) {
+                    words.add(word, i);
+                }
+
+                String haystack = code + '\u0000' + name + '\u0000' + city;
+                haystacks[i] = haystack;
+                for (int p = 0; p + 3 <= haystack.length(); p++) {
+                    long key = trigram(haystack, p);
+                    IntList postings = trigrams.computeIfAbsent(key, k -> new IntList());
+                    postings.addDistinct(i);
+                }
+            }
+
+            Map<Long, int[]> frozen = new HashMap<>(trigrams.size() * 2);
+            trigrams.forEach((key, postings) -> frozen.put(key, postings.toArray()));
+
+            return new Snapshot(airports, haystacks, byCode, codes.build(), fields.build(), words.build(), frozen);
+        }
+
+        List<Airport> search(String q, int limit) {
+            Collector collector = new Collector(limit);
+
+            Integer exact = byCode.get(q);
+            if (exact != null) {
+                collector.offer(exact);
+            }
+            if (q.length() <= 3) {
+                codePrefixes.collect(q, collector);
+            }
+            fieldPrefixes.collect(q, collector);
+            wordPrefixes.collect(q, collector);
+            if (!collector.isFull() && q.length() >= 3) {
+                collectSubstrings(q, collector);
+            }
+
+            List<Airport> result = new ArrayList<>(collector.size);
+            for (int i = 0; i < collector.size; i++) {
+                result.add(airports[collector.hits[i]]);
+            }
+            return result;
+        }
+
+        private void collectSubstrings(String q, Collector collector) {
+            int[] candidates = null;
+            for (int p = 0; p + 3 <= q.length(); p++) {
+                int[] postings = trigrams.get(trigram(q, p));
+                if (postings == null) {
+                    return;
+                }
+                if (candidates == null || postings.length < candidates.length) {
+                    candidates = postings;
+                }
+            }
+            for (int candidate : candidates) {
+                if (collector.isFull()) {
+                    return;
+                }
+                if (haystacks[candidate].contains(q)) {
+                    collector.offer(candidate);
+                }
+            }
+        }
+
+        private static long trigram(String s, int offset) {
+            return ((long) s.charAt(offset) << 32) | ((long) s.charAt(offset + 1) << 16) | s.charAt(offset + 2);
+        }
+    }
+
+    /**
+     * Sorted keys with the airport index each key came from; prefix lookups are a
+     * binary search followed by a forward scan.
+     */
+    private static final class PrefixTable {
+        final String[] keys;
+        final int[] refs;
+
+        PrefixTable(String[] keys, int[] refs) {
+            this.keys = keys;
+            this.refs = refs;
+        }
+
+        void collect(String prefix, Collector collector) {
+            int lo = 0;
+            int hi = keys.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (keys[mid].compareTo(prefix) < 0) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            for (int i = lo; i < keys.length && !collector.isFull() && keys[i].startsWith(prefix); i++) {
+                collector.offer(refs[i]);
+            }
+        }
+
+        static final class Builder {
+            private final List<String> keys = new ArrayList<>();
+            private final IntList refs = new IntList();
+
+            void add(String key, int ref) {
+                if (!key.isEmpty()) {
+                    keys.add(key);
+                    refs.add(ref);
+                }
+            }
+
+            PrefixTable build() {
+                Integer[] order = new Integer[keys.size()];
+                for (int i = 0; i < order.length; i++) {
+                    order[i] = i;
+                }
+                Arrays.sort(order, (a, b) -> {
+                    int cmp = keys.get(a).compareTo(keys.get(b));
+                    return cmp != 0 ? cmp : Integer.compare(refs.get(a), refs.get(b));
+                });
+                String[] sortedKeys = new String[order.length];
+                int[] sortedRefs = new int[order.length];
+                for (int i = 0; i < order.length; i++) {
+                    sortedKeys[i] = keys.get(order[i]);
+                    sortedRefs[i] = refs.get(order[i]);
+                }
+                return new PrefixTable(sortedKeys, sortedRefs);
+            }
+        }
+    }
+
+    /** Ordered, de-duplicated result buffer capped at the requested limit. */
+    private static final class Collector {
+        final int[] hits;
+        int size;
+
+        Collector(int limit) {
+            this.hits = new int[limit];
+        }
+
+        boolean isFull() {
+            return size == hits.length;
+        }
+
+        void offer(int ref) {
+            if (isFull()) {
+                return;
+            }
+            for (int i = 0; i < size; i++) {
+                if (hits[i] == ref) {
+                    return;
+                }
+            }
+            hits[size++] = ref;
+        }
+    }
+
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void addDistinct(int value) {
+            if (size == 0 || values[size - 1] != value) {
+                add(value);
+            }
+        }
+
+        int get(int index) {
+            return values[index];
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -1,126 +1,238 @@
 package com.airline.service;
 
 import com.airline.entity.Airport;
+import com.airline.entity.DatasetVersion;
 import com.airline.repository.AirportRepository;
-import jakarta.annotation.PostConstruct;
+import com.airline.repository.DatasetVersionRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
-import java.util.ArrayList;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Service
 @Slf4j
 public class AirportService {
 
+    private static final int DEFAULT_SEARCH_LIMIT = 10;
+    private static final int MAX_SEARCH_LIMIT = 50;
+    private static final int MAX_RADIUS_LIMIT = 500;
+    private static final String DATASET_NAME = "airports";
+
     @Autowired
     AirportRepository airportRepository;
 
-    public List<Airport> getAllAirports() {
-        return airportRepository.findAll();
+    @Autowired
+    AirportSearchIndex airportSearchIndex;
+
+    @Autowired
+    AirportGeoIndex airportGeoIndex;
+
+    @Autowired
+    AirportCsvImporter airportCsvImporter;
+
+    @Autowired
+    DatasetVersionRepository datasetVersionRepository;
+
+    @Autowired
+    ReferenceDataCache referenceDataCache;
+
+    @Value("${airport.import.resource:data/airports.csv}")
+    private String datasetResource;
+
+    // Guards index rebuilds against concurrent writes; a lock rather than a monitor because
+    // it is held across database calls, which would pin a virtual thread's carrier
+    private final ReentrantLock indexLock = new ReentrantLock();
+
+    private volatile DataState dataState = DataState.LOADING;
+
+    private volatile String datasetChecksum;
+
+    public List<Airport> getAirports(long afterId, int limit) {
+        return airportRepository.findByIdGreaterThanOrderById(afterId, Limit.of(limit));
     }
 
     public List<Airport> searchAirports(String query) {
-        return airportRepository
-                .findTop10ByNameContainingIgnoreCaseOrCityContainingIgnoreCaseOrCodeContainingIgnoreCase(query, query,
-                        query);
+        return searchAirports(query, DEFAULT_SEARCH_LIMIT);
     }
 
-    @PostConstruct
-    public void importAirports() {
-        // Check if we have a significant number of airports and a known major one (MAA)
-        boolean hasData = airportRepository.count() > 10000;
-        boolean hasMaa = airportRepository.findByCode("MAA").isPresent();
+    public List<Airport> searchAirports(String query, int limit) {
+        int cappedLimit = Math.max(1, Math.min(limit, MAX_SEARCH_LIMIT));
+        if (!airportSearchIndex.isBuilt()) {
+            return airportRepository
+                    .findByNameContainingIgnoreCaseOrCityContainingIgnoreCaseOrCodeContainingIgnoreCase(query,
+                            query, query, Limit.of(cappedLimit));
+        }
+        return airportSearchIndex.search(query, cappedLimit);
+    }
 
-        if (hasData && hasMaa) {
-            log.info("Airports already imported (count: {}, MAA present). Skipping.", airportRepository.count());
-            return;
+    /**
+     * Resolves an IATA code from the search index, falling back to the database
+     * while the index is still loading.
+     */
+    public Airport findByCode(String code) {
+        Airport airport = airportSearchIndex.findByCode(code);
+        if (airport != null || code == null) {
+            return airport;
         }
+        return airportRepository.findByCode(code.trim().toUpperCase(Locale.ROOT)).orElse(null);
+    }
 
-        log.info("Airport data missing or incomplete. Starting additive import...");
+    /**
+     * Airports nearest to the point. When {@code nearCode} is given the point is that
+     * airport's location and the airport itself is left out, for suggesting
+     * alternatives. Returns {@code null} if the code is unknown or has no location.
+     */
+    public List<AirportGeoIndex.Nearby> findNearest(Double latitude, Double longitude, String nearCode, int limit) {
+        int cappedLimit = Math.max(1, Math.min(limit, MAX_SEARCH_LIMIT));
+        if (nearCode == null) {
+            return airportGeoIndex.nearest(latitude, longitude, cappedLimit, null);
+        }
+        Airport origin = findByCode(nearCode);
+        if (origin == null || origin.getLatitude() == null || origin.getLongitude() == null) {
+            return null;
+        }
+        return airportGeoIndex.nearest(origin.getLatitude(), origin.getLongitude(), cappedLimit, origin.getId());
+    }
 
-        // Load existing codes to avoid duplicates
-        java.util.Set<String> existingCodes = new java.util.HashSet<>(airportRepository.findAllCodes());
-
-        try (BufferedReader br = new BufferedReader(new InputStreamReader(
-                new ClassPathResource("data/airports.csv").getInputStream(), StandardCharsets.UTF_8))) {
-
-            String line;
-            List<Airport> airports = new ArrayList<>();
-            boolean isHeader = true;
-
-            while ((line = br.readLine()) != null) {
-                if (isHeader) {
-                    isHeader = false;
-                    continue;
-                }
-
-                String[] columns = line.split(",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)", -1);
-                if (columns.length < 14)
-                    continue;
-
-                String type = clean(columns[2]);
-                if ("closed".equalsIgnoreCase(type) || "balloonport".equalsIgnoreCase(type)) {
-                    continue;
-                }
-
-                String name = clean(columns[3]);
-                String isoCountry = clean(columns[8]);
-                String municipality = clean(columns[10]);
-                String iata = clean(columns[13]);
-                String latitude = clean(columns[4]);
-                String longitude = clean(columns[5]);
-
-                if (name.isBlank() || municipality.isBlank() || isoCountry.isBlank() || iata.isBlank()) {
-                    continue;
-                }
-
-                // Skip if already exists
-                if (existingCodes.contains(iata)) {
-                    continue;
-                }
-
-                try {
-                    Airport airport = new Airport();
-                    airport.setName(name);
-                    airport.setCity(municipality);
-                    airport.setCountry(isoCountry);
-                    airport.setCode(iata);
-                    airport.setLatitude(Double.parseDouble(latitude));
-                    airport.setLongitude(Double.parseDouble(longitude));
-
-                    airports.add(airport);
-                    existingCodes.add(iata); // prevent duplicates within the file itself
-                } catch (NumberFormatException e) {
-                    log.warn("Skipping invalid coordinate data for airport: " + name);
-                }
-
-                if (airports.size() >= 1000) {
-                    airportRepository.saveAll(airports);
-                    airports.clear();
-                }
-            }
+    public List<AirportGeoIndex.Nearby> findWithin(double latitude, double longitude, double radiusKm, int limit) {
+        return airportGeoIndex.within(latitude, longitude, radiusKm, Math.max(1, Math.min(limit, MAX_RADIUS_LIMIT)));
+    }
 
-            if (!airports.isEmpty()) {
-                airportRepository.saveAll(airports);
-            }
+    public Airport createAirport(Airport airport) {
+        // Hold the index lock so a concurrent rebuild cannot drop this write
+        indexLock.lock();
+        try {
+            Airport saved = airportRepository.save(airport);
+            airportSearchIndex.put(saved);
+            airportGeoIndex.put(saved);
+            return saved;
+        } finally {
+            indexLock.unlock();
+        }
+    }
 
-            log.info("Airport data import completed successfully. Total records: {}", airportRepository.count());
+    public void refreshSearchIndex() {
+        long start = System.nanoTime();
+        indexLock.lock();
+        try {
+            List<Airport> airports = airportRepository.findAll();
+            airportSearchIndex.rebuild(airports);
+            airportGeoIndex.rebuild(airports);
+        } finally {
+            indexLock.unlock();
+        }
+        log.info("Airport search index built with {} airports in {} ms", airportSearchIndex.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
 
+    public DataState getDataState() {
+        return dataState;
+    }
+
+    public Map<String, Object> getDataStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("state", dataState);
+        status.put("indexedAirports", airportSearchIndex.size());
+        status.put("datasetChecksum", datasetChecksum);
+        return status;
+    }
+
+    /**
+     * Runs the airport import as a background job once the application is ready to
+     * serve traffic. Until it completes, search answers from whatever is already in
+     * the database and {@link #getDataState()} reports {@code LOADING}.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startImportJob() {
+        Thread job = new Thread(this::runImportJob, "airport-import");
+        job.setDaemon(true);
+        job.start();
+    }
+
+    void runImportJob() {
+        try {
+            // Serve what the database already holds while the dataset is checked and imported
+            refreshSearchIndex();
+            if (importAirports()) {
+                refreshSearchIndex();
+            }
+            dataState = DataState.READY;
         } catch (Exception e) {
-            log.error("Failed to import airport data", e);
+            log.error("Airport import job failed", e);
+            dataState = DataState.DEGRADED;
         }
     }
 
-    private String clean(String input) {
-        if (input != null && input.length() >= 2 && input.startsWith("\"") && input.endsWith("\"")) {
-            return input.substring(1, input.length() - 1);
+    /**
+     * Imports the bundled dataset unless its checksum matches the last import.
+     * Returns whether any airports were added.
+     */
+    public boolean importAirports() throws IOException {
+        ClassPathResource resource = new ClassPathResource(datasetResource);
+        if (!resource.exists()) {
+            throw new IOException("Airport dataset " + datasetResource + " not found on the classpath");
+        }
+
+        String checksum = checksum(resource);
+        datasetChecksum = checksum;
+        DatasetVersion stored = datasetVersionRepository.findById(DATASET_NAME).orElse(null);
+        if (stored != null && checksum.equals(stored.getChecksum())) {
+            log.info("Airport dataset unchanged (checksum {}), skipping import.", checksum);
+            return false;
         }
-        return input == null ? "" : input.trim();
+
+        log.info("Airport dataset is new or changed. Starting additive import...");
+
+        // Load existing codes to avoid duplicates
+        Set<String> existingCodes = new HashSet<>(airportRepository.findAllCodes());
+
+        AirportCsvImporter.ImportResult result;
+        try (InputStream input = resource.getInputStream()) {
+            result = airportCsvImporter.importCsv(input, existingCodes);
+        }
+        // The import writes through JDBC, so cached lookups such as a missed findByCode are now stale
+        referenceDataCache.evictAirports();
+
+        datasetVersionRepository.save(new DatasetVersion(DATASET_NAME, checksum, result.inserted(),
+                LocalDateTime.now()));
+        return result.inserted() > 0;
+    }
+
+    private static String checksum(ClassPathResource resource) throws IOException {
+        try (InputStream input = resource.getInputStream()) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public enum DataState {
+        LOADING,
+        READY,
+        DEGRADED
     }
 }
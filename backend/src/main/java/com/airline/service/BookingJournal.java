@@ -0,0 +1,173 @@
+package com.airline.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Append-only file of bookings acknowledged by {@link BookingWriteBehind} before they
+ * reach the database. A booking line is forced to disk before the booking is
+ * acknowledged, and a commit line records that every booking up to a sequence number
+ * is in the database. Syncs are shared: one {@code force} covers every line appended
+ * before it, so concurrent bookings wait for a single disk flush between them.
+ */
+@Slf4j
+class BookingJournal implements Closeable {
+
+    private static final String BOOKING = "B";
+    private static final String COMMIT = "C";
+
+    private final FileChannel channel;
+    // Locks rather than monitors: both are held across file I/O
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock syncLock = new ReentrantLock();
+
+    private long written;
+    private volatile long synced;
+
+    BookingJournal(Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        written = channel.size();
+        synced = written;
+        channel.position(written);
+    }
+
+    /**
+     * Reads the journal from the start, returning the bookings after the last commit
+     * line and the highest sequence number seen. A torn last line from a crash
+     * mid-append is skipped; its booking was never acknowledged.
+     */
+    Recovery recover() throws IOException {
+        List<PendingBooking> bookings = new ArrayList<>();
+        long committed = 0;
+        long lastSequence = 0;
+        ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+        channel.read(buffer, 0);
+        String content = new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8);
+        for (String line : content.split("\n")) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            String[] fields = line.split("\t", -1);
+            try {
+                if (COMMIT.equals(fields[0]) && fields.length == 2) {
+                    committed = Math.max(committed, Long.parseLong(fields[1]));
+                    lastSequence = Math.max(lastSequence, committed);
+                } else if (BOOKING.equals(fields[0]) && fields.length == 8) {
+                    PendingBooking booking = new PendingBooking(Long.parseLong(fields[1]), Long.parseLong(fields[2]),
+                            Long.parseLong(fields[3]), fields[4].isEmpty() ? null : Long.valueOf(fields[4]),
+                            fields[5], fields[6].isEmpty() ? null : Double.valueOf(fields[6]),
+                            LocalDateTime.parse(fields[7]), true);
+                    bookings.add(booking);
+                    lastSequence = Math.max(lastSequence, booking.sequence());
+                } else {
+                    log.warn("Skipping malformed booking journal line: {}", line);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Skipping malformed booking journal line: {}", line);
+            }
+        }
+        long lastCommitted = committed;
+        bookings.removeIf(booking -> booking.sequence() <= lastCommitted);
+        return new Recovery(bookings, lastSequence);
+    }
+
+    /** Appends the booking and returns the position {@link #sync} must reach for it to be durable. */
+    long append(PendingBooking booking) throws IOException {
+        return write(String.join("\t", BOOKING, Long.toString(booking.sequence()), Long.toString(booking.userId()),
+                Long.toString(booking.flightId()), booking.seatId() != null ? booking.seatId().toString() : "",
+                booking.ticketNumber(), booking.amount() != null ? booking.amount().toString() : "",
+                booking.bookingTime().toString()));
+    }
+
+    /**
+     * Records that every booking up to {@code sequence} is in the database. Not
+     * forced: if the line is lost, recovery replays bookings that are then skipped
+     * as already written.
+     */
+    void commit(long sequence) throws IOException {
+        write(COMMIT + "\t" + sequence);
+    }
+
+    void sync(long position) throws IOException {
+        if (synced >= position) {
+            return;
+        }
+        syncLock.lock();
+        try {
+            // A sync that ran while we waited may already cover our line
+            if (synced >= position) {
+                return;
+            }
+            long target = writtenPosition();
+            channel.force(false);
+            synced = target;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /** Empties the journal, for use once nothing in it is outstanding. */
+    void truncate() throws IOException {
+        appendLock.lock();
+        try {
+            channel.truncate(0);
+            channel.position(0);
+            written = 0;
+            synced = 0;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    long size() {
+        return writtenPosition();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private long write(String line) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.UTF_8));
+        appendLock.lock();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            written += buffer.limit();
+            return written;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private long writtenPosition() {
+        appendLock.lock();
+        try {
+            return written;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    record Recovery(List<PendingBooking> bookings, long lastSequence) {
+    }
+}
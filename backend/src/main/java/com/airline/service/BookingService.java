@@ -0,0 +1,99 @@
+package com.airline.service;
+
+import com.airline.entity.Booking;
+import com.airline.entity.EBookingStatus;
+import com.airline.entity.EPaymentStatus;
+import com.airline.entity.Flight;
+import com.airline.entity.Payment;
+import com.airline.entity.Seat;
+import com.airline.entity.Ticket;
+import com.airline.entity.User;
+import com.airline.payload.response.BookingConfirmation;
+import com.airline.repository.BookingRepository;
+import com.airline.repository.FlightRepository;
+import com.airline.repository.PaymentRepository;
+import com.airline.repository.TicketRepository;
+import com.airline.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * The booking pipeline: seat claim, booking, payment record and ticket, written in
+ * one transaction so a booking never exists without its payment and ticket.
+ */
+@Service
+public class BookingService {
+
+    @Autowired
+    BookingRepository bookingRepository;
+
+    @Autowired
+    SeatReservationService seatReservationService;
+
+    @Autowired
+    SeatHoldService seatHoldService;
+
+    @Autowired
+    FlightRepository flightRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    PaymentRepository paymentRepository;
+
+    @Autowired
+    TicketRepository ticketRepository;
+
+    @Autowired
+    TicketNumberGenerator ticketNumberGenerator;
+
+    /**
+     * Books the flight, and the seat if given, for the user. The seat is claimed
+     * before anything is written so a taken seat is rejected up front; if a later
+     * step fails the transaction rolls back and the claim is released.
+     *
+     * @throws FlightNotFoundException if the flight does not exist
+     * @throws SeatUnavailableException if the seat is taken
+     */
+    @Transactional
+    public BookingConfirmation book(Long userId, Long flightId, Long seatId) {
+        Flight flight = flightRepository.findById(flightId).orElseThrow(() -> new FlightNotFoundException(flightId));
+        Seat seat = seatId != null ? seatReservationService.claim(flightId, seatId) : null;
+        // The id is all the insert needs, and it comes from the authenticated principal
+        return record(userRepository.getReferenceById(userId), flight, seat);
+    }
+
+    /**
+     * Converts a seat hold into a confirmed booking. The hold is consumed first so it
+     * cannot expire underneath us, and the seat is persisted straight away so that
+     * from then on a rollback of this transaction is what releases it.
+     * <p>
+     * No payment provider is integrated yet: the client's confirm stands in for the
+     * payment step, and the payment is recorded as successful.
+     */
+    @Transactional
+    public BookingConfirmation confirmHold(String holdId, Long userId) {
+        SeatHold hold = seatHoldService.take(holdId, userId);
+        Seat seat = seatReservationService.confirmHold(hold.getFlightId(), hold.getSeatId());
+        Flight flight = flightRepository.findWithDetailsById(hold.getFlightId())
+                .orElseThrow(() -> new FlightNotFoundException(hold.getFlightId()));
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new SeatUnavailableException("User " + userId + " not found"));
+        return record(user, flight, seat);
+    }
+
+    private BookingConfirmation record(User user, Flight flight, Seat seat) {
+        LocalDateTime now = LocalDateTime.now();
+        Booking booking = bookingRepository.save(new Booking(null, user, flight, seat, EBookingStatus.CONFIRMED, now));
+        Payment payment = paymentRepository.save(
+                new Payment(null, booking, flight.getPrice(), EPaymentStatus.SUCCESS));
+        Ticket ticket = ticketRepository.save(new Ticket(null, booking, ticketNumberGenerator.next(), now));
+        return new BookingConfirmation(booking.getId(), flight.getId(), flight.getFlightNumber(),
+                seat != null ? seat.getId() : null, seat != null ? seat.getSeatNumber() : null,
+                booking.getStatus(), now, payment.getAmount(), payment.getStatus(), ticket.getTicketNumber());
+    }
+}
@@ -0,0 +1,439 @@
+package com.airline.service;
+
+import com.airline.entity.Booking;
+import com.airline.entity.EBookingStatus;
+import com.airline.entity.EPaymentStatus;
+import com.airline.entity.Flight;
+import com.airline.entity.Payment;
+import com.airline.entity.Seat;
+import com.airline.entity.Ticket;
+import com.airline.payload.response.BookingConfirmation;
+import com.airline.repository.BookingRepository;
+import com.airline.repository.FlightRepository;
+import com.airline.repository.PaymentRepository;
+import com.airline.repository.SeatRepository;
+import com.airline.repository.TicketRepository;
+import com.airline.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Optional write-behind mode for bookings during sale spikes. A booking is
+ * acknowledged once its seat is claimed in the in-memory seat map and the booking is
+ * forced to a local {@link BookingJournal}; a single writer then inserts the queued
+ * bookings, with their payments and tickets, in micro-batches that each commit as one
+ * transaction. After a crash the journal replays bookings not yet known to be
+ * committed. The queue is bounded: when it is full bookings are rejected, not
+ * buffered. A booking that fails for a reason other than a database outage is
+ * logged with its ticket number and dropped, since it has already been
+ * acknowledged, and its seat is freed again unless the database shows it sold.
+ * <p>
+ * Seats are checked only against this instance's seat map before acknowledging, so
+ * the mode requires a single application instance: a seat sold by another instance
+ * would be acknowledged here and then dropped when written.
+ */
+@Service
+@Slf4j
+public class BookingWriteBehind {
+
+    @Autowired
+    SeatReservationService seatReservationService;
+
+    @Autowired
+    TicketNumberGenerator ticketNumberGenerator;
+
+    @Autowired
+    FlightRepository flightRepository;
+
+    @Autowired
+    SeatRepository seatRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    BookingRepository bookingRepository;
+
+    @Autowired
+    PaymentRepository paymentRepository;
+
+    @Autowired
+    TicketRepository ticketRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Value("${booking.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${booking.write-behind.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${booking.write-behind.batch-size:200}")
+    private int batchSize;
+
+    // How long the writer waits for more bookings to share a transaction
+    @Value("${booking.write-behind.max-delay-ms:20}")
+    private long maxDelayMs;
+
+    @Value("${booking.write-behind.retry-delay-ms:1000}")
+    private long retryDelayMs;
+
+    @Value("${booking.write-behind.journal-path:data/booking-journal.log}")
+    private String journalPath;
+
+    // The journal is emptied once it passes this size with nothing outstanding
+    @Value("${booking.write-behind.journal-max-bytes:67108864}")
+    private long journalMaxBytes;
+
+    @Value("${booking.write-behind.shutdown-timeout-seconds:30}")
+    private long shutdownTimeoutSeconds;
+
+    private final LinkedBlockingQueue<PendingBooking> queue = new LinkedBlockingQueue<>();
+    private final ConcurrentHashMap<Long, Fare> fares = new ConcurrentHashMap<>();
+    // Keeps journal order and queue order the same as sequence order
+    private final ReentrantLock submitLock = new ReentrantLock();
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder skippedDuplicates = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+
+    private Semaphore capacity;
+    private BookingJournal journal;
+    private TransactionTemplate transactionTemplate;
+    private Thread writer;
+    private volatile boolean running;
+    private long lastSequence;
+    private volatile long committedSequence;
+
+    @PostConstruct
+    void init() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        capacity = new Semaphore(queueCapacity);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        journal = new BookingJournal(Path.of(journalPath));
+
+        BookingJournal.Recovery recovery = journal.recover();
+        lastSequence = recovery.lastSequence();
+        committedSequence = recovery.bookings().isEmpty() ? lastSequence : recovery.bookings().get(0).sequence() - 1;
+        for (PendingBooking booking : recovery.bookings()) {
+            if (booking.seatId() != null) {
+                try {
+                    // Keep the seat from being sold again before the booking is written
+                    seatReservationService.hold(booking.flightId(), booking.seatId());
+                } catch (SeatUnavailableException e) {
+                    // Already booked, most likely by this booking before the crash
+                }
+            }
+            queue.add(booking);
+        }
+        if (!recovery.bookings().isEmpty()) {
+            log.warn("Replaying {} bookings from the write-behind journal", recovery.bookings().size());
+        }
+
+        running = true;
+        writer = new Thread(this::runWriter, "booking-write-behind");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    void shutdown() throws IOException, InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(shutdownTimeoutSeconds));
+        if (!queue.isEmpty()) {
+            log.warn("{} bookings left unwritten at shutdown; they will be replayed from the journal", queue.size());
+        }
+        journal.close();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Claims the seat, journals the booking and acknowledges it without waiting for
+     * the database.
+     *
+     * @throws FlightNotFoundException if the flight does not exist
+     * @throws SeatUnavailableException if the seat is taken
+     * @throws RejectedExecutionException if the write queue is full
+     */
+    public BookingConfirmation submit(Long userId, Long flightId, Long seatId) {
+        if (!capacity.tryAcquire()) {
+            rejected.increment();
+            throw new RejectedExecutionException("Booking write queue is full");
+        }
+        boolean queued = false;
+        boolean seatHeld = false;
+        try {
+            Fare fare = fare(flightId);
+            String seatNumber = null;
+            if (seatId != null) {
+                seatReservationService.hold(flightId, seatId);
+                seatHeld = true;
+                seatNumber = seatReservationService.seatNumber(flightId, seatId);
+            }
+            String ticketNumber = ticketNumberGenerator.next();
+            LocalDateTime now = LocalDateTime.now();
+
+            long position;
+            submitLock.lock();
+            try {
+                PendingBooking booking = new PendingBooking(lastSequence + 1, userId, flightId, seatId, ticketNumber,
+                        fare.price(), now, false);
+                position = journal.append(booking);
+                lastSequence = booking.sequence();
+                queue.add(booking);
+                queued = true;
+            } finally {
+                submitLock.unlock();
+            }
+            journal.sync(position);
+            accepted.increment();
+
+            return new BookingConfirmation(null, flightId, fare.flightNumber(), seatId, seatNumber,
+                    EBookingStatus.CONFIRMED, now, fare.price(), EPaymentStatus.SUCCESS, ticketNumber);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Booking journal write failed", e);
+        } finally {
+            if (!queued) {
+                capacity.release();
+                if (seatHeld) {
+                    seatReservationService.releaseHold(flightId, seatId);
+                }
+            }
+        }
+    }
+
+    /** Drops the cached flight number and price after the flight is changed. */
+    public void onFlightSaved(Flight flight) {
+        if (flight.getId() != null) {
+            fares.remove(flight.getId());
+        }
+    }
+
+    public Map<String, Long> getStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled ? 1L : 0L);
+        stats.put("accepted", accepted.sum());
+        stats.put("rejected", rejected.sum());
+        stats.put("queued", (long) queue.size());
+        stats.put("written", written.sum());
+        stats.put("batches", batches.sum());
+        stats.put("skippedDuplicates", skippedDuplicates.sum());
+        stats.put("failed", failed.sum());
+        stats.put("retries", retries.sum());
+        stats.put("journalBytes", journal != null ? journal.size() : 0L);
+        return stats;
+    }
+
+    private Fare fare(Long flightId) {
+        Fare fare = fares.get(flightId);
+        if (fare == null) {
+            // Loaded outside computeIfAbsent so no map lock is held across the query
+            Flight flight = flightRepository.findById(flightId)
+                    .orElseThrow(() -> new FlightNotFoundException(flightId));
+            fare = new Fare(flight.getFlightNumber(), flight.getPrice());
+            fares.putIfAbsent(flightId, fare);
+        }
+        return fare;
+    }
+
+    private void runWriter() {
+        List<PendingBooking> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingBooking first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - batch.size());
+                // Group commit: give concurrent bookings a moment to join this transaction
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxDelayMs);
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingBooking next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                    queue.drainTo(batch, batchSize - batch.size());
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException | IOException e) {
+                log.error("Booking write-behind failed", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    void flush(List<PendingBooking> batch) throws InterruptedException, IOException {
+        try {
+            try {
+                writeWithRetry(batch);
+            } catch (RuntimeException e) {
+                // One bad booking must not fail the rest; write them one by one to find it
+                log.warn("Booking batch of {} failed, writing individually: {}", batch.size(), e.getMessage());
+                for (PendingBooking booking : batch) {
+                    try {
+                        writeWithRetry(List.of(booking));
+                    } catch (RuntimeException single) {
+                        drop(booking, single);
+                    }
+                }
+            }
+
+            long sequence = batch.get(batch.size() - 1).sequence();
+            journal.commit(sequence);
+            committedSequence = sequence;
+        } finally {
+            // Recovered bookings took no permit
+            capacity.release((int) batch.stream().filter(booking -> !booking.recovered()).count());
+        }
+        truncateJournalIfIdle();
+    }
+
+    private void drop(PendingBooking booking, RuntimeException cause) {
+        // A seat sold in the database stays claimed; any other failure leaves it free to sell again
+        if (booking.seatId() != null && !(cause instanceof SeatUnavailableException)) {
+            seatReservationService.releaseHold(booking.flightId(), booking.seatId());
+        }
+        log.error("Dropping acknowledged booking with ticket {} (user {}, flight {}, seat {})",
+                booking.ticketNumber(), booking.userId(), booking.flightId(), booking.seatId(), cause);
+        // Counted last, so a reader that sees the count also sees the seat released
+        failed.increment();
+    }
+
+    /** Retries while the database is unreachable, so an outage delays bookings rather than dropping them. */
+    private void writeWithRetry(List<PendingBooking> bookings) throws InterruptedException {
+        while (true) {
+            try {
+                Integer count = transactionTemplate.execute(status -> write(bookings));
+                written.add(count);
+                batches.increment();
+                return;
+            } catch (TransientDataAccessException | DataAccessResourceFailureException
+                    | RecoverableDataAccessException | CannotCreateTransactionException e) {
+                retries.increment();
+                log.warn("Database unavailable for booking writes, retrying in {} ms: {}", retryDelayMs,
+                        e.getMessage());
+                Thread.sleep(retryDelayMs);
+            }
+        }
+    }
+
+    private int write(List<PendingBooking> bookings) {
+        Set<String> alreadyWritten = new HashSet<>();
+        List<String> recoveredTickets = new ArrayList<>();
+        for (PendingBooking booking : bookings) {
+            if (booking.recovered()) {
+                recoveredTickets.add(booking.ticketNumber());
+            }
+        }
+        if (!recoveredTickets.isEmpty()) {
+            alreadyWritten.addAll(ticketRepository.findExistingTicketNumbers(recoveredTickets));
+        }
+
+        List<Long> seatIds = new ArrayList<>();
+        for (PendingBooking booking : bookings) {
+            if (booking.seatId() != null && !alreadyWritten.contains(booking.ticketNumber())) {
+                seatIds.add(booking.seatId());
+            }
+        }
+        Map<Long, Seat> seats = new HashMap<>();
+        for (Seat seat : seatRepository.findAllById(seatIds)) {
+            seats.put(seat.getId(), seat);
+        }
+
+        List<Booking> newBookings = new ArrayList<>(bookings.size());
+        List<Payment> payments = new ArrayList<>(bookings.size());
+        List<Ticket> tickets = new ArrayList<>(bookings.size());
+        for (PendingBooking pending : bookings) {
+            if (alreadyWritten.contains(pending.ticketNumber())) {
+                skippedDuplicates.increment();
+                continue;
+            }
+            Seat seat = null;
+            if (pending.seatId() != null) {
+                seat = seats.get(pending.seatId());
+                if (seat == null || Boolean.TRUE.equals(seat.getIsBooked())) {
+                    throw new SeatUnavailableException("Seat " + pending.seatId() + " is no longer available");
+                }
+                // Flushed with the inserts; the version column catches writers on other instances
+                seat.setIsBooked(true);
+            }
+            Booking booking = new Booking(null, userRepository.getReferenceById(pending.userId()),
+                    flightRepository.getReferenceById(pending.flightId()), seat, EBookingStatus.CONFIRMED,
+                    pending.bookingTime());
+            newBookings.add(booking);
+            payments.add(new Payment(null, booking, pending.amount(), EPaymentStatus.SUCCESS));
+            tickets.add(new Ticket(null, booking, pending.ticketNumber(), pending.bookingTime()));
+        }
+        bookingRepository.saveAll(newBookings);
+        paymentRepository.saveAll(payments);
+        ticketRepository.saveAll(tickets);
+        return newBookings.size();
+    }
+
+    private void truncateJournalIfIdle() throws IOException {
+        if (journal.size() < journalMaxBytes) {
+            return;
+        }
+        submitLock.lock();
+        try {
+            // Nothing can be appended while we hold the lock, so nothing outstanding is lost
+            if (lastSequence == committedSequence) {
+                journal.truncate();
+            }
+        } finally {
+            submitLock.unlock();
+        }
+    }
+
+    private record Fare(String flightNumber, Double price) {
+    }
+}
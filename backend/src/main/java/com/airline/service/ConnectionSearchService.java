@@ -0,0 +1,177 @@
+package com.airline.service;
+
+import com.airline.entity.Airport;
+import com.airline.entity.EFlightStatus;
+import com.airline.entity.Flight;
+import com.airline.payload.response.ItineraryResponse;
+import com.airline.repository.FlightRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Multi-leg itineraries between two airports, searched over an in-memory
+ * {@link RouteGraph} that is loaded once from the flights table and kept current as
+ * flights are created. Departed flights are left out, dropped when saved and swept
+ * out of the graph periodically as they depart.
+ */
+@Service
+@Slf4j
+public class ConnectionSearchService {
+
+    @Autowired
+    FlightRepository flightRepository;
+
+    @Autowired
+    AirportService airportService;
+
+    @Value("${connections.min-connection-minutes:60}")
+    private int minConnectionMinutes;
+
+    @Value("${connections.max-connection-minutes:1440}")
+    private int maxConnectionMinutes;
+
+    @Value("${connections.max-legs:3}")
+    private int maxLegs;
+
+    @Value("${connections.max-results:20}")
+    private int maxResults;
+
+    @Value("${connections.max-expansions:200000}")
+    private int maxExpansions;
+
+    @Value("${connections.sweep-interval-seconds:60}")
+    private long sweepIntervalSeconds;
+
+    private final RouteGraph routeGraph = new RouteGraph();
+    // A lock rather than a monitor, so a virtual thread waiting out the load does not pin its carrier
+    private final ReentrantLock loadLock = new ReentrantLock();
+    private volatile boolean loaded;
+    private final AtomicLong nextSweep = new AtomicLong(System.nanoTime());
+
+    public List<ItineraryResponse> search(String origin, String destination, LocalDate date, RouteGraph.Sort sort,
+            int limit, int maxStops) {
+        Airport from = airportService.findByCode(origin);
+        Airport to = airportService.findByCode(destination);
+        if (from == null || to == null) {
+            return List.of();
+        }
+        ensureLoaded();
+        sweepDeparted();
+
+        RouteGraph.Query query = new RouteGraph.Query(from.getId(), to.getId(), minute(date.atStartOfDay()),
+                minute(date.plusDays(1).atStartOfDay()) - 1, sort, Math.max(1, Math.min(limit, maxResults)),
+                Math.max(1, Math.min(maxStops + 1, maxLegs)), minConnectionMinutes, maxConnectionMinutes,
+                maxExpansions);
+        List<ItineraryResponse> itineraries = new ArrayList<>();
+        for (RouteGraph.Itinerary itinerary : routeGraph.search(query)) {
+            itineraries.add(toResponse(itinerary));
+        }
+        return itineraries;
+    }
+
+    /**
+     * Adds or replaces the flight's leg. Flights without both airports and times, or
+     * that are cancelled or have departed, are removed from the graph instead.
+     */
+    public void onFlightSaved(Flight flight) {
+        if (!loaded) {
+            // A load in progress may have read the table before this flight committed
+            loadLock.lock();
+            try {
+                if (!loaded) {
+                    return;
+                }
+            } finally {
+                loadLock.unlock();
+            }
+        }
+        RouteGraph.Leg leg = toLeg(flight);
+        if (leg != null) {
+            routeGraph.add(leg);
+        } else if (flight.getId() != null) {
+            routeGraph.remove(flight.getId());
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loadLock.lock();
+        try {
+            if (!loaded) {
+                long started = System.currentTimeMillis();
+                List<RouteGraph.Leg> legs = new ArrayList<>();
+                for (Flight flight : flightRepository.findAllWithDetails()) {
+                    RouteGraph.Leg leg = toLeg(flight);
+                    if (leg != null) {
+                        legs.add(leg);
+                    }
+                }
+                routeGraph.addAll(legs);
+                loaded = true;
+                log.info("Route graph built with {} flights in {} ms", legs.size(),
+                        System.currentTimeMillis() - started);
+            }
+        } finally {
+            loadLock.unlock();
+        }
+    }
+
+    private void sweepDeparted() {
+        long now = System.nanoTime();
+        long next = nextSweep.get();
+        if (now - next < 0
+                || !nextSweep.compareAndSet(next, now + TimeUnit.SECONDS.toNanos(sweepIntervalSeconds))) {
+            return;
+        }
+        int removed = routeGraph.removeDepartedBefore(minute(LocalDateTime.now()));
+        if (removed > 0) {
+            log.debug("Swept {} departed flights from the route graph", removed);
+        }
+    }
+
+    private static RouteGraph.Leg toLeg(Flight flight) {
+        if (flight.getId() == null || flight.getDepartureAirport() == null || flight.getArrivalAirport() == null
+                || flight.getDepartureTime() == null || flight.getArrivalTime() == null
+                || flight.getStatus() == EFlightStatus.CANCELLED
+                || flight.getDepartureTime().isBefore(LocalDateTime.now())) {
+            return null;
+        }
+        return new RouteGraph.Leg(flight.getId(), flight.getFlightNumber(),
+                flight.getDepartureAirport().getId(), flight.getArrivalAirport().getId(),
+                flight.getDepartureAirport().getCode(), flight.getArrivalAirport().getCode(),
+                minute(flight.getDepartureTime()), minute(flight.getArrivalTime()),
+                flight.getPrice() != null ? flight.getPrice() : 0.0);
+    }
+
+    private static ItineraryResponse toResponse(RouteGraph.Itinerary itinerary) {
+        List<ItineraryResponse.Leg> legs = new ArrayList<>(itinerary.legs().size());
+        for (RouteGraph.Leg leg : itinerary.legs()) {
+            legs.add(new ItineraryResponse.Leg(leg.flightId(), leg.flightNumber(), leg.fromCode(), leg.toCode(),
+                    time(leg.departure()), time(leg.arrival()), leg.price()));
+        }
+        return new ItineraryResponse(time(itinerary.first().departure()), time(itinerary.last().arrival()),
+                itinerary.last().arrival() - itinerary.first().departure(), legs.size() - 1, itinerary.price(),
+                legs);
+    }
+
+    static int minute(LocalDateTime time) {
+        return (int) (time.toEpochSecond(ZoneOffset.UTC) / 60);
+    }
+
+    static LocalDateTime time(int minute) {
+        return LocalDateTime.ofEpochSecond(minute * 60L, 0, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,111 @@
+package com.airline.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal streaming RFC 4180 reader: comma separated, double-quote escaped, quoted
+ * fields may contain commas, doubled quotes and line breaks. Reads through a fixed
+ * char buffer and reuses the field list between records.
+ */
+public class CsvReader implements Closeable {
+
+    private static final int EOF = -1;
+
+    private final Reader reader;
+    private final char[] buffer = new char[64 * 1024];
+    private int position;
+    private int limit;
+
+    private final List<String> fields = new ArrayList<>(32);
+    private final StringBuilder field = new StringBuilder(64);
+    private long recordNumber;
+
+    public CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Advances to the next record. Returns {@code false} once the input is exhausted.
+     */
+    public boolean next() throws IOException {
+        fields.clear();
+        int c = read();
+        if (c == EOF) {
+            return false;
+        }
+
+        field.setLength(0);
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == EOF) {
+                    throw new IOException("Unterminated quoted field in record " + (recordNumber + 1));
+                }
+                if (c == '"') {
+                    int peek = read();
+                    if (peek == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        c = peek;
+                        continue;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == EOF) {
+                break;
+            } else if (c == '\r') {
+                int peek = read();
+                if (peek != '\n' && peek != EOF) {
+                    position--;
+                }
+                break;
+            } else {
+                field.append((char) c);
+            }
+            c = read();
+        }
+        fields.add(field.toString());
+        recordNumber++;
+        return true;
+    }
+
+    public int size() {
+        return fields.size();
+    }
+
+    public String get(int index) {
+        return fields.get(index);
+    }
+
+    public long getRecordNumber() {
+        return recordNumber;
+    }
+
+    private int read() throws IOException {
+        if (position == limit) {
+            limit = reader.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return EOF;
+            }
+        }
+        return buffer[position++];
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -3,26 +3,35 @@ package com.airline.service;
 import com.airline.entity.ERiskLevel;
 import org.springframework.stereotype.Service;
 
-import java.util.Map;
-
 @Service
 public class DelayPredictionService {
 
-    public ERiskLevel predictDelayRisk(Map<String, Object> weatherData) {
-        if (weatherData == null || !weatherData.containsKey("current_weather")) {
-            return ERiskLevel.LOW; // Default
-        }
+    private static final ERiskLevel[] LEVELS = ERiskLevel.values();
 
-        Map<String, Object> current = (Map<String, Object>) weatherData.get("current_weather");
+    // Risk contributed by each WMO weather interpretation code (WW), indexed by code
+    private static final byte[] WEATHER_CODE_RISK = new byte[100];
 
-        Double windSpeed = 0.0;
-        if (current.get("windspeed") instanceof Number) {
-            windSpeed = ((Number) current.get("windspeed")).doubleValue();
+    static {
+        // 51, 53, 55: Drizzle
+        // 61, 63, 65: Rain
+        // 66, 67: Freezing Rain
+        // 80, 81, 82: Rain showers
+        for (int code = 51; code <= 67; code++) {
+            WEATHER_CODE_RISK[code] = (byte) ERiskLevel.MEDIUM.ordinal();
         }
+        for (int code = 80; code <= 82; code++) {
+            WEATHER_CODE_RISK[code] = (byte) ERiskLevel.MEDIUM.ordinal();
+        }
+        // 95: Thunderstorm: Slight or moderate
+        // 96, 99: Thunderstorm with slight and heavy hail
+        WEATHER_CODE_RISK[95] = (byte) ERiskLevel.HIGH.ordinal();
+        WEATHER_CODE_RISK[96] = (byte) ERiskLevel.HIGH.ordinal();
+        WEATHER_CODE_RISK[99] = (byte) ERiskLevel.HIGH.ordinal();
+    }
 
-        Integer weatherCode = 0;
-        if (current.get("weathercode") instanceof Number) {
-            weatherCode = ((Number) current.get("weathercode")).intValue();
+    public ERiskLevel predictDelayRisk(WeatherSnapshot weather) {
+        if (weather == null) {
+            return ERiskLevel.LOW; // Default
         }
 
         // Rules
@@ -31,38 +40,20 @@ public class DelayPredictionService {
         // Wind 25-40 -> MEDIUM
         // Rain (weatherCode 51-67, 80-82) -> MEDIUM
         // Else -> LOW
+        return LEVELS[Math.max(windRisk(weather.windSpeed()), weatherCodeRisk(weather.weatherCode()))];
+    }
 
+    private static int windRisk(double windSpeed) {
         if (windSpeed > 40) {
-            return ERiskLevel.HIGH;
+            return ERiskLevel.HIGH.ordinal();
         }
-
-        if (isStorm(weatherCode)) {
-            return ERiskLevel.HIGH;
-        }
-
         if (windSpeed >= 25) {
-            return ERiskLevel.MEDIUM;
-        }
-
-        if (isRain(weatherCode)) {
-            return ERiskLevel.MEDIUM;
+            return ERiskLevel.MEDIUM.ordinal();
         }
-
-        return ERiskLevel.LOW;
+        return ERiskLevel.LOW.ordinal();
     }
 
-    private boolean isStorm(int code) {
-        // WMO Weather interpretation codes (WW)
-        // 95: Thunderstorm: Slight or moderate
-        // 96, 99: Thunderstorm with slight and heavy hail
-        return code == 95 || code == 96 || code == 99;
-    }
-
-    private boolean isRain(int code) {
-        // 51, 53, 55: Drizzle
-        // 61, 63, 65: Rain
-        // 66, 67: Freezing Rain
-        // 80, 81, 82: Rain showers
-        return (code >= 51 && code <= 67) || (code >= 80 && code <= 82);
+    private static int weatherCodeRisk(int code) {
+        return code >= 0 && code < WEATHER_CODE_RISK.length ? WEATHER_CODE_RISK[code] : ERiskLevel.LOW.ordinal();
     }
 }
@@ -0,0 +1,115 @@
+package com.airline.service;
+
+import com.airline.entity.Airport;
+import com.airline.entity.ERiskLevel;
+import com.airline.entity.Flight;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Scores delay risk for many flights at once. Flights are grouped by departure
+ * airport so each airport's weather is fetched once, all lookups run in parallel,
+ * and each group is emitted as soon as its weather arrives.
+ */
+@Service
+@Slf4j
+public class DelayRiskBatchService {
+
+    @Autowired
+    WeatherService weatherService;
+
+    @Autowired
+    DelayPredictionService delayPredictionService;
+
+    @Value("${delay-risk.batch.budget-ms:10000}")
+    private long budgetMs;
+
+    public void scoreFlights(List<Flight> flights, Consumer<Map<String, Object>> sink) {
+        Map<Long, AirportGroup> groups = new LinkedHashMap<>();
+        List<Flight> withoutAirport = new ArrayList<>();
+        for (Flight flight : flights) {
+            Airport airport = flight.getDepartureAirport();
+            if (airport == null) {
+                withoutAirport.add(flight);
+                continue;
+            }
+            groups.computeIfAbsent(airport.getId(), id -> new AirportGroup(airport)).flights.add(flight);
+        }
+
+        BlockingQueue<AirportGroup> completed = new LinkedBlockingQueue<>();
+        for (AirportGroup group : groups.values()) {
+            group.weather = weatherService.getWeatherAsync(group.airport);
+            group.weather.whenComplete((weather, error) -> completed.add(group));
+        }
+
+        withoutAirport.forEach(flight -> sink.accept(result(flight, null)));
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budgetMs);
+        int remaining = groups.size();
+        try {
+            while (remaining > 0) {
+                AirportGroup group = completed.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (group == null) {
+                    break;
+                }
+                emit(group, group.weather.getNow(null), sink);
+                group.emitted = true;
+                remaining--;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (remaining > 0) {
+            log.warn("Delay risk batch exceeded {} ms budget, {} airports scored without weather", budgetMs,
+                    remaining);
+            for (AirportGroup group : groups.values()) {
+                if (!group.emitted) {
+                    emit(group, null, sink);
+                }
+            }
+        }
+    }
+
+    private void emit(AirportGroup group, WeatherSnapshot weather, Consumer<Map<String, Object>> sink) {
+        for (Flight flight : group.flights) {
+            sink.accept(result(flight, weather));
+        }
+    }
+
+    private Map<String, Object> result(Flight flight, WeatherSnapshot weather) {
+        ERiskLevel riskLevel = delayPredictionService.predictDelayRisk(weather);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("flightId", flight.getId());
+        result.put("flightNumber", flight.getFlightNumber());
+        result.put("departureAirport",
+                flight.getDepartureAirport() != null ? flight.getDepartureAirport().getCode() : null);
+        result.put("departureTime", flight.getDepartureTime());
+        result.put("riskLevel", riskLevel);
+        result.put("weatherAvailable", weather != null);
+        return result;
+    }
+
+    private static final class AirportGroup {
+        final Airport airport;
+        final List<Flight> flights = new ArrayList<>();
+        CompletableFuture<WeatherSnapshot> weather;
+        boolean emitted;
+
+        AirportGroup(Airport airport) {
+            this.airport = airport;
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package com.airline.service;
+
+import com.airline.entity.Airport;
+import com.airline.entity.Flight;
+import com.airline.payload.response.FareCalendarResponse;
+import com.airline.repository.FareDayView;
+import com.airline.repository.FlightRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cheapest fare per day for a route. Each route caches the daily aggregate for the
+ * span of dates loaded so far; a window inside the span is served from it, and one
+ * that runs past it loads only the missing days with a GROUP BY query bounded to
+ * them. The span is dropped when a flight on the route is saved or it expires.
+ */
+@Service
+public class FareCalendarService {
+
+    @Autowired
+    FlightRepository flightRepository;
+
+    @Autowired
+    AirportService airportService;
+
+    @Value("${fare-calendar.max-days:30}")
+    private int maxDays;
+
+    @Value("${fare-calendar.cache.max-routes:5000}")
+    private int maxRoutes;
+
+    @Value("${fare-calendar.cache.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    private Map<Route, Entry> cache;
+    // Bumped on every invalidation; a load that raced one is returned but not cached
+    private final AtomicLong invalidations = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Route, Entry> eldest) {
+                return size() > maxRoutes;
+            }
+        };
+    }
+
+    /**
+     * Returns {@code null} if either airport code is unknown.
+     */
+    public FareCalendarResponse getCalendar(String origin, String destination, LocalDate date, int days) {
+        Airport from = airportService.findByCode(origin);
+        Airport to = airportService.findByCode(destination);
+        if (from == null || to == null) {
+            return null;
+        }
+
+        int window = Math.max(0, Math.min(days, maxDays));
+        LocalDate first = date.minusDays(window);
+        LocalDate last = date.plusDays(window);
+        NavigableMap<LocalDate, FareDayView> fares = fareDays(new Route(from.getId(), to.getId()), first, last);
+
+        List<FareCalendarResponse.Day> calendar = new ArrayList<>(2 * window + 1);
+        for (LocalDate day = first; !day.isAfter(last); day = day.plusDays(1)) {
+            FareDayView fare = fares.get(day);
+            calendar.add(fare != null
+                    ? new FareCalendarResponse.Day(day, fare.getMinPrice(), fare.getFlights())
+                    : new FareCalendarResponse.Day(day, null, 0));
+        }
+        return new FareCalendarResponse(from.getCode(), to.getCode(), first, last, calendar);
+    }
+
+    /**
+     * Drops the cached days of the route the flight was on before the save as well
+     * as the one it is on now, so moving a flight to another route refreshes both.
+     */
+    public void onFlightSaved(Flight previous, Flight flight) {
+        Set<Route> routes = new HashSet<>(2);
+        for (Flight version : new Flight[] {previous, flight}) {
+            if (version != null && version.getDepartureAirport() != null && version.getArrivalAirport() != null) {
+                routes.add(new Route(version.getDepartureAirport().getId(), version.getArrivalAirport().getId()));
+            }
+        }
+        if (routes.isEmpty()) {
+            return;
+        }
+        invalidations.incrementAndGet();
+        synchronized (cache) {
+            cache.keySet().removeAll(routes);
+        }
+    }
+
+    private NavigableMap<LocalDate, FareDayView> fareDays(Route route, LocalDate first, LocalDate last) {
+        long now = System.nanoTime();
+        Entry base;
+        synchronized (cache) {
+            base = cache.get(route);
+        }
+        if (base != null && now >= base.expiresAt) {
+            base = null;
+        }
+        if (base != null && !first.isBefore(base.first) && !last.isAfter(base.last)) {
+            return base.days.subMap(first, true, last, true);
+        }
+
+        long generation = invalidations.get();
+        Entry loaded;
+        if (base == null || first.isAfter(base.last.plusDays(1)) || last.isBefore(base.first.minusDays(1))) {
+            // Nothing cached next to the window, so it replaces the span rather than bridging a gap
+            loaded = new Entry(first, last, load(route, first, last), now + TimeUnit.SECONDS.toNanos(ttlSeconds));
+        } else {
+            // Keeps the span's expiry, so its oldest days are never served past the TTL
+            NavigableMap<LocalDate, FareDayView> days = new TreeMap<>(base.days);
+            if (first.isBefore(base.first)) {
+                days.putAll(load(route, first, base.first.minusDays(1)));
+            }
+            if (last.isAfter(base.last)) {
+                days.putAll(load(route, base.last.plusDays(1), last));
+            }
+            loaded = new Entry(first.isBefore(base.first) ? first : base.first,
+                    last.isAfter(base.last) ? last : base.last,
+                    Collections.unmodifiableNavigableMap(days), base.expiresAt);
+        }
+
+        synchronized (cache) {
+            // Skipped if the route was invalidated or the extended span was replaced meanwhile
+            if (invalidations.get() == generation && (base == null || cache.get(route) == base)) {
+                cache.put(route, loaded);
+            }
+        }
+        return loaded.days.subMap(first, true, last, true);
+    }
+
+    private NavigableMap<LocalDate, FareDayView> load(Route route, LocalDate first, LocalDate last) {
+        NavigableMap<LocalDate, FareDayView> days = new TreeMap<>();
+        for (FareDayView day : flightRepository.findFareDays(route.originId(), route.destinationId(),
+                first.atStartOfDay(), last.plusDays(1).atStartOfDay())) {
+            days.put(day.getDay(), day);
+        }
+        return Collections.unmodifiableNavigableMap(days);
+    }
+
+    private record Route(long originId, long destinationId) {
+    }
+
+    /** The route's days from {@code first} to {@code last} inclusive; days without flights are absent. */
+    private record Entry(LocalDate first, LocalDate last, NavigableMap<LocalDate, FareDayView> days,
+            long expiresAt) {
+    }
+}
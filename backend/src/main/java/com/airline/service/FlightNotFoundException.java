@@ -0,0 +1,7 @@
+package com.airline.service;
+
+public class FlightNotFoundException extends RuntimeException {
+    public FlightNotFoundException(Long flightId) {
+        super("Flight " + flightId + " not found");
+    }
+}
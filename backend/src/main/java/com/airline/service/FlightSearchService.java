@@ -0,0 +1,42 @@
+package com.airline.service;
+
+import com.airline.entity.Airport;
+import com.airline.entity.Flight;
+import com.airline.repository.FlightRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * Route search by IATA codes. Codes are resolved to airport ids in memory, so the
+ * flight query is a plain range scan on the (departure, arrival, time) index and
+ * never joins the airports table.
+ */
+@Service
+public class FlightSearchService {
+
+    @Autowired
+    AirportService airportService;
+
+    @Autowired
+    FlightRepository flightRepository;
+
+    public List<Flight> search(String origin, String destination, LocalDate date) {
+        Airport from = airportService.findByCode(origin);
+        Airport to = airportService.findByCode(destination);
+        if (from == null || to == null) {
+            return List.of();
+        }
+
+        List<Flight> flights = flightRepository.findRoute(from.getId(), to.getId(), date.atStartOfDay(),
+                date.atTime(LocalTime.MAX));
+        for (Flight flight : flights) {
+            flight.setDepartureAirport(from);
+            flight.setArrivalAirport(to);
+        }
+        return flights;
+    }
+}
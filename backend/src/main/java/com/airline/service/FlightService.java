@@ -0,0 +1,45 @@
+package com.airline.service;
+
+import com.airline.entity.Flight;
+import com.airline.repository.FlightRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+@Service
+public class FlightService {
+
+    @Autowired
+    FlightRepository flightRepository;
+
+    @Autowired
+    ConnectionSearchService connectionSearchService;
+
+    @Autowired
+    FareCalendarService fareCalendarService;
+
+    @Autowired
+    FlightStatusEventBus flightStatusEventBus;
+
+    @Autowired
+    BookingWriteBehind bookingWriteBehind;
+
+    @Autowired
+    SeatReservationService seatReservationService;
+
+    /**
+     * Saves the flight and returns it reloaded with its airports and aircraft, so
+     * in-memory views built from it see the full graph rather than id-only references.
+     */
+    public Flight saveFlight(Flight flight) {
+        // Status and times as they were, to tell subscribers what changed
+        Flight previous = flight.getId() != null ? flightRepository.findById(flight.getId()).orElse(null) : null;
+        Flight saved = flightRepository.save(flight);
+        Flight loaded = flightRepository.findWithDetailsById(saved.getId()).orElse(saved);
+        connectionSearchService.onFlightSaved(loaded);
+        fareCalendarService.onFlightSaved(previous, loaded);
+        flightStatusEventBus.onFlightSaved(previous, loaded);
+        bookingWriteBehind.onFlightSaved(loaded);
+        seatReservationService.onFlightSaved(loaded);
+        return loaded;
+    }
+}
@@ -0,0 +1,454 @@
+package com.airline.service;
+
+import com.airline.config.WorkerThreads;
+import com.airline.entity.Flight;
+import com.airline.payload.response.FlightStatusEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Publishes flight status and schedule changes to subscribers of a flight or an
+ * airport topic. Each topic keeps its latest events in a ring buffer so a
+ * reconnecting client can resume from its last event id. Each subscriber has a
+ * bounded queue drained by a small shared dispatcher pool, so an idle subscriber
+ * holds no thread. A subscriber whose queue fills up is too slow to keep up and is
+ * disconnected rather than allowed to hold back the others or grow without bound.
+ * Sends block, so a send that outlasts the send timeout is abandoned: the
+ * subscriber is disconnected and the pool gets a thread in place of the stuck one
+ * until it returns.
+ */
+@Service
+@Slf4j
+public class FlightStatusEventBus {
+
+    private static final Object HEARTBEAT = new Object();
+
+    @Autowired
+    private WorkerThreads workerThreads;
+
+    @Value("${flight-status.ring-size:64}")
+    private int ringSize;
+
+    @Value("${flight-status.subscriber-queue-capacity:256}")
+    private int queueCapacity;
+
+    @Value("${flight-status.max-subscribers:20000}")
+    private int maxSubscribers;
+
+    @Value("${flight-status.max-topics:50000}")
+    private int maxTopics;
+
+    @Value("${flight-status.dispatcher.threads:8}")
+    private int dispatcherThreads;
+
+    @Value("${flight-status.heartbeat-seconds:20}")
+    private long heartbeatSeconds;
+
+    @Value("${flight-status.send-timeout-ms:10000}")
+    private long sendTimeoutMs;
+
+    private final ConcurrentHashMap<String, Topic> topics = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final LongAdder published = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder droppedSlow = new LongAdder();
+    private final LongAdder timedOutSends = new LongAdder();
+    private final Set<Subscription> sending = ConcurrentHashMap.newKeySet();
+    // Dispatcher threads still blocked in a send that was abandoned
+    private final AtomicInteger stuckWorkers = new AtomicInteger();
+
+    private ThreadPoolExecutor dispatcher;
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    void init() {
+        // Writes to a slow client block, which is cheap on a virtual thread
+        dispatcher = new ThreadPoolExecutor(dispatcherThreads, dispatcherThreads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), workerThreads.factory("flight-status-"));
+        dispatcher.allowCoreThreadTimeOut(true);
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "flight-status-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (heartbeatSeconds > 0) {
+            scheduler.scheduleAtFixedRate(this::sendHeartbeats, heartbeatSeconds, heartbeatSeconds,
+                    TimeUnit.SECONDS);
+        }
+        long checkMs = Math.max(10, sendTimeoutMs / 4);
+        scheduler.scheduleWithFixedDelay(this::abandonStuckSends, checkMs, checkMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+        dispatcher.shutdownNow();
+    }
+
+    public static String flightTopic(long flightId) {
+        return "flight:" + flightId;
+    }
+
+    public static String airportTopic(String code) {
+        return "airport:" + code.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Publishes an event if the save changed the status or either scheduled time.
+     * New flights ({@code previous == null}) are not status changes.
+     */
+    public void onFlightSaved(Flight previous, Flight saved) {
+        if (previous == null || Objects.equals(previous.getStatus(), saved.getStatus())
+                && Objects.equals(previous.getDepartureTime(), saved.getDepartureTime())
+                && Objects.equals(previous.getArrivalTime(), saved.getArrivalTime())) {
+            return;
+        }
+        String origin = saved.getDepartureAirport() != null ? saved.getDepartureAirport().getCode() : null;
+        String destination = saved.getArrivalAirport() != null ? saved.getArrivalAirport().getCode() : null;
+        FlightStatusEvent event = new FlightStatusEvent(0, saved.getId(), saved.getFlightNumber(), origin,
+                destination, previous.getStatus(), saved.getStatus(), saved.getDepartureTime(),
+                saved.getArrivalTime());
+
+        List<String> targets = new ArrayList<>(3);
+        targets.add(flightTopic(saved.getId()));
+        if (origin != null) {
+            targets.add(airportTopic(origin));
+        }
+        if (destination != null && !destination.equals(origin)) {
+            targets.add(airportTopic(destination));
+        }
+        publish(event, targets);
+    }
+
+    // Serialised so every topic's ring holds its events in id order
+    synchronized void publish(FlightStatusEvent event, List<String> targets) {
+        event.setId(sequence.incrementAndGet());
+        published.increment();
+        for (String name : targets) {
+            Subscription[] recipients;
+            while (true) {
+                Topic topic = topic(name);
+                // Appending and reading the subscribers together means a concurrent subscriber
+                // gets this event either from the ring or live, never both or neither
+                synchronized (topic) {
+                    if (topic.removed) {
+                        continue;
+                    }
+                    topic.ring.add(event);
+                    recipients = topic.subscribers;
+                    break;
+                }
+            }
+            for (Subscription subscription : recipients) {
+                offer(subscription, event);
+            }
+        }
+    }
+
+    /**
+     * Subscribes to a topic, first replaying buffered events newer than
+     * {@code lastEventId} if given. Returns {@code null} when the bus is at its
+     * subscriber limit.
+     */
+    public Subscription subscribe(String name, Long lastEventId, EventSink sink) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            return null;
+        }
+        Subscription subscription = new Subscription(name, sink, new ArrayBlockingQueue<>(queueCapacity));
+        while (true) {
+            Topic topic = topic(name);
+            synchronized (topic) {
+                if (topic.removed) {
+                    continue;
+                }
+                Subscription[] current = topic.subscribers;
+                Subscription[] updated = Arrays.copyOf(current, current.length + 1);
+                updated[current.length] = subscription;
+                topic.subscribers = updated;
+                if (lastEventId != null) {
+                    for (FlightStatusEvent missed : topic.ring.since(lastEventId)) {
+                        offer(subscription, missed);
+                    }
+                }
+                return subscription;
+            }
+        }
+    }
+
+    public void unsubscribe(Subscription subscription) {
+        if (!subscription.closed.compareAndSet(false, true)) {
+            return;
+        }
+        subscriberCount.decrementAndGet();
+        Topic topic = topics.get(subscription.topic);
+        if (topic == null) {
+            return;
+        }
+        synchronized (topic) {
+            Subscription[] current = topic.subscribers;
+            for (int i = 0; i < current.length; i++) {
+                if (current[i] == subscription) {
+                    Subscription[] updated = new Subscription[current.length - 1];
+                    System.arraycopy(current, 0, updated, 0, i);
+                    System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                    topic.subscribers = updated;
+                    break;
+                }
+            }
+        }
+    }
+
+    public Map<String, Long> getStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("subscribers", (long) subscriberCount.get());
+        stats.put("topics", (long) topics.size());
+        stats.put("published", published.sum());
+        stats.put("delivered", delivered.sum());
+        stats.put("droppedSlowSubscribers", droppedSlow.sum());
+        stats.put("timedOutSends", timedOutSends.sum());
+        stats.put("stuckDispatcherThreads", (long) stuckWorkers.get());
+        return stats;
+    }
+
+    private Topic topic(String name) {
+        Topic topic = topics.get(name);
+        if (topic != null) {
+            return topic;
+        }
+        if (topics.size() >= maxTopics) {
+            // Only replay history is lost; topics with live subscribers are kept
+            topics.forEach((key, existing) -> {
+                synchronized (existing) {
+                    if (existing.subscribers.length == 0) {
+                        existing.removed = true;
+                        topics.remove(key, existing);
+                    }
+                }
+            });
+        }
+        return topics.computeIfAbsent(name, key -> new Topic(ringSize));
+    }
+
+    private void sendHeartbeats() {
+        for (Topic topic : topics.values()) {
+            for (Subscription subscription : topic.subscribers) {
+                offer(subscription, HEARTBEAT);
+            }
+        }
+    }
+
+    private void offer(Subscription subscription, Object item) {
+        if (subscription.closed.get()) {
+            return;
+        }
+        if (!subscription.queue.offer(item)) {
+            droppedSlow.increment();
+            log.debug("Dropping slow flight status subscriber on {}", subscription.topic);
+            close(subscription);
+            return;
+        }
+        if (subscription.scheduled.compareAndSet(false, true)) {
+            dispatcher.execute(() -> drain(subscription));
+        }
+    }
+
+    private void drain(Subscription subscription) {
+        try {
+            Object item;
+            while (!subscription.closed.get() && (item = subscription.queue.poll()) != null) {
+                beginSend(subscription);
+                try {
+                    if (item == HEARTBEAT) {
+                        subscription.sink.heartbeat();
+                    } else {
+                        subscription.sink.send((FlightStatusEvent) item);
+                        delivered.increment();
+                    }
+                } finally {
+                    endSend(subscription);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // The client has gone away, or the send was abandoned and closes below
+            if (!subscription.timedOut) {
+                close(subscription);
+            }
+        } finally {
+            subscription.scheduled.set(false);
+            if (subscription.timedOut) {
+                // Back from the abandoned send; the sink is ours again to close
+                close(subscription);
+                stuckWorkers.decrementAndGet();
+                resizeDispatcher();
+            } else if (!subscription.queue.isEmpty() && !subscription.closed.get()
+                    && subscription.scheduled.compareAndSet(false, true)) {
+                // Picks up anything offered after the loop saw an empty queue
+                dispatcher.execute(() -> drain(subscription));
+            }
+        }
+    }
+
+    private void beginSend(Subscription subscription) {
+        synchronized (subscription) {
+            subscription.sender = Thread.currentThread();
+            subscription.sendStartedNanos = System.nanoTime();
+        }
+        sending.add(subscription);
+    }
+
+    private void endSend(Subscription subscription) {
+        sending.remove(subscription);
+        synchronized (subscription) {
+            subscription.sender = null;
+            if (subscription.timedOut) {
+                // The interrupt was meant for the abandoned send, not whatever this thread runs next
+                Thread.interrupted();
+            }
+        }
+    }
+
+    /**
+     * Disconnects subscribers whose send has blocked past the timeout and lets the
+     * pool start a thread in place of each stuck one, up to twice its size. The sink
+     * is not touched here, since a send is still in progress on it; the stuck thread
+     * closes it when the send returns.
+     */
+    private void abandonStuckSends() {
+        long now = System.nanoTime();
+        long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        for (Subscription subscription : sending) {
+            synchronized (subscription) {
+                if (subscription.sender == null || subscription.timedOut
+                        || now - subscription.sendStartedNanos < timeoutNanos) {
+                    continue;
+                }
+                subscription.timedOut = true;
+                subscription.sender.interrupt();
+            }
+            timedOutSends.increment();
+            log.debug("Abandoning blocked send to flight status subscriber on {}", subscription.topic);
+            unsubscribe(subscription);
+            subscription.queue.clear();
+            stuckWorkers.incrementAndGet();
+            resizeDispatcher();
+        }
+    }
+
+    private synchronized void resizeDispatcher() {
+        int size = dispatcherThreads + Math.min(stuckWorkers.get(), dispatcherThreads);
+        // Grow the maximum first and shrink it last, so core never exceeds it
+        if (size > dispatcher.getMaximumPoolSize()) {
+            dispatcher.setMaximumPoolSize(size);
+            dispatcher.setCorePoolSize(size);
+        } else if (size < dispatcher.getMaximumPoolSize()) {
+            dispatcher.setCorePoolSize(size);
+            dispatcher.setMaximumPoolSize(size);
+        }
+    }
+
+    private void close(Subscription subscription) {
+        unsubscribe(subscription);
+        subscription.queue.clear();
+        try {
+            subscription.sink.close();
+        } catch (RuntimeException e) {
+            log.debug("Closing flight status subscriber failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Where a subscription's events are written, typically an SSE connection.
+     * Calls for one subscription never overlap.
+     */
+    public interface EventSink {
+        void send(FlightStatusEvent event) throws IOException;
+
+        void heartbeat() throws IOException;
+
+        void close();
+    }
+
+    public static final class Subscription {
+        private final String topic;
+        private final EventSink sink;
+        private final ArrayBlockingQueue<Object> queue;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        // Guarded by the subscription's monitor
+        private Thread sender;
+        private long sendStartedNanos;
+        private volatile boolean timedOut;
+
+        private Subscription(String topic, EventSink sink, ArrayBlockingQueue<Object> queue) {
+            this.topic = topic;
+            this.sink = sink;
+            this.queue = queue;
+        }
+    }
+
+    private static final class Topic {
+        final EventRing ring;
+        volatile Subscription[] subscribers = new Subscription[0];
+        // Set once evicted, under the topic's lock; callers holding it look the topic up again
+        boolean removed;
+
+        Topic(int ringSize) {
+            this.ring = new EventRing(ringSize);
+        }
+    }
+
+    /** Fixed-size buffer of a topic's latest events, oldest overwritten first. */
+    private static final class EventRing {
+        private final FlightStatusEvent[] events;
+        private int next;
+        private int size;
+
+        EventRing(int capacity) {
+            this.events = new FlightStatusEvent[capacity];
+        }
+
+        void add(FlightStatusEvent event) {
+            events[next] = event;
+            next = (next + 1) % events.length;
+            size = Math.min(size + 1, events.length);
+        }
+
+        List<FlightStatusEvent> since(long lastEventId) {
+            List<FlightStatusEvent> missed = new ArrayList<>();
+            for (int i = 0; i < size; i++) {
+                FlightStatusEvent event = events[(next - size + i + events.length) % events.length];
+                if (event.getId() > lastEventId) {
+                    missed.add(event);
+                }
+            }
+            return missed;
+        }
+    }
+}
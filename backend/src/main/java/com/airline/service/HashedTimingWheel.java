@@ -0,0 +1,159 @@
+package com.airline.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hashed timing wheel for large numbers of coarse timeouts. Scheduling and
+ * cancelling are O(1) and lock-free; a single worker thread advances the wheel one
+ * bucket per tick and runs whatever expired, so a timeout fires up to one tick late.
+ * Tasks run on the worker thread and must be short.
+ */
+@Slf4j
+public class HashedTimingWheel implements AutoCloseable {
+
+    private final long tickNanos;
+    private final int mask;
+    private final ArrayList<Timeout>[] buckets;
+    private final Queue<Timeout> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger active = new AtomicInteger();
+    private final Thread worker;
+    private final long startNanos;
+    private volatile boolean running = true;
+    private long tick;
+
+    @SuppressWarnings("unchecked")
+    public HashedTimingWheel(Duration tickDuration, int wheelSize, String threadName) {
+        if (Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("wheelSize must be a power of two: " + wheelSize);
+        }
+        this.tickNanos = tickDuration.toNanos();
+        this.mask = wheelSize - 1;
+        this.buckets = new ArrayList[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new ArrayList<>();
+        }
+        this.startNanos = System.nanoTime();
+        this.worker = new Thread(this::run, threadName);
+        this.worker.setDaemon(true);
+        this.worker.start();
+    }
+
+    public Timeout schedule(Runnable task, Duration delay) {
+        Timeout timeout = new Timeout(task, System.nanoTime() + delay.toNanos());
+        active.incrementAndGet();
+        pending.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Number of scheduled timeouts that have neither fired nor been cancelled.
+     */
+    public int size() {
+        return active.get();
+    }
+
+    private void run() {
+        while (running) {
+            long deadline = startNanos + (tick + 1) * tickNanos;
+            long sleep;
+            while ((sleep = deadline - System.nanoTime()) > 0 && running) {
+                LockSupport.parkNanos(this, sleep);
+            }
+            transferPending();
+            expire(buckets[(int) (tick & mask)]);
+            tick++;
+        }
+    }
+
+    private void transferPending() {
+        Timeout timeout;
+        while ((timeout = pending.poll()) != null) {
+            if (timeout.isCancelled()) {
+                continue;
+            }
+            long dueTick = Math.max((timeout.deadline - startNanos) / tickNanos, tick);
+            timeout.remainingRounds = (dueTick - tick) / buckets.length;
+            buckets[(int) (dueTick & mask)].add(timeout);
+        }
+    }
+
+    private void expire(ArrayList<Timeout> bucket) {
+        int i = 0;
+        while (i < bucket.size()) {
+            Timeout timeout = bucket.get(i);
+            if (timeout.isCancelled()) {
+                removeAt(bucket, i);
+            } else if (timeout.remainingRounds <= 0) {
+                removeAt(bucket, i);
+                if (timeout.markExpired()) {
+                    try {
+                        timeout.task.run();
+                    } catch (RuntimeException e) {
+                        log.error("Timing wheel task failed", e);
+                    }
+                }
+            } else {
+                timeout.remainingRounds--;
+                i++;
+            }
+        }
+    }
+
+    private static void removeAt(ArrayList<Timeout> bucket, int index) {
+        int last = bucket.size() - 1;
+        bucket.set(index, bucket.get(last));
+        bucket.remove(last);
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(worker);
+    }
+
+    public final class Timeout {
+        private static final int PENDING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final Runnable task;
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(PENDING);
+        private long remainingRounds;
+
+        private Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Returns {@code true} if the timeout was still pending and will not fire.
+         */
+        public boolean cancel() {
+            if (state.compareAndSet(PENDING, CANCELLED)) {
+                active.decrementAndGet();
+                return true;
+            }
+            return false;
+        }
+
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        private boolean markExpired() {
+            if (state.compareAndSet(PENDING, EXPIRED)) {
+                active.decrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    }
+}
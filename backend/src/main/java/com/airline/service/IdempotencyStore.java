@@ -0,0 +1,153 @@
+package com.airline.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Remembers the response to each {@code Idempotency-Key} so a retried request is
+ * answered with the original result instead of being executed again. Keys are kept
+ * for a fixed time and the store is capped, dropping the oldest keys first. Entries
+ * live in this instance only, so retries must reach the same instance to be
+ * deduplicated; the seat claim still prevents a double booking of the same seat.
+ */
+@Component
+public class IdempotencyStore {
+
+    public enum State {
+        /** The caller owns the key and must {@link #complete} or {@link #abandon} it. */
+        ACQUIRED,
+        /** The key has a stored response. */
+        REPLAY,
+        /** Another request with the key is still running. */
+        IN_PROGRESS,
+        /** The key was first used with a different request. */
+        MISMATCH
+    }
+
+    @Value("${booking.idempotency.ttl-seconds:86400}")
+    private long ttlSeconds;
+
+    @Value("${booking.idempotency.max-entries:100000}")
+    private int maxEntries;
+
+    // Every entry lives for the same TTL from creation, so insertion order is expiry order
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder replayed = new LongAdder();
+    private final LongAdder inProgress = new LongAdder();
+    private final LongAdder mismatched = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+
+    /**
+     * Claims {@code key} for a request identified by {@code fingerprint}, or reports
+     * why it cannot be claimed.
+     */
+    public Claim begin(String key, String fingerprint) {
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            purgeExpired(now);
+            Entry existing = entries.get(key);
+            if (existing == null) {
+                Entry entry = new Entry(fingerprint, now + TimeUnit.SECONDS.toMillis(ttlSeconds));
+                entries.put(key, entry);
+                while (entries.size() > maxEntries) {
+                    Iterator<Entry> eldest = entries.values().iterator();
+                    eldest.next();
+                    eldest.remove();
+                    evicted.increment();
+                }
+                acquired.increment();
+                return new Claim(State.ACQUIRED, key, entry, null);
+            }
+            if (!existing.fingerprint.equals(fingerprint)) {
+                mismatched.increment();
+                return new Claim(State.MISMATCH, key, null, null);
+            }
+            if (existing.response == null) {
+                inProgress.increment();
+                return new Claim(State.IN_PROGRESS, key, null, null);
+            }
+            replayed.increment();
+            return new Claim(State.REPLAY, key, null, existing.response);
+        }
+    }
+
+    /** Stores the response for replay to later requests with the same key. */
+    public void complete(Claim claim, ResponseEntity<?> response) {
+        synchronized (entries) {
+            if (entries.get(claim.key) == claim.entry) {
+                claim.entry.response = response;
+            }
+        }
+    }
+
+    /** Releases the key without a response, so a retry executes again. */
+    public void abandon(Claim claim) {
+        synchronized (entries) {
+            entries.remove(claim.key, claim.entry);
+        }
+    }
+
+    public Map<String, Long> getStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        synchronized (entries) {
+            stats.put("entries", (long) entries.size());
+        }
+        stats.put("acquired", acquired.sum());
+        stats.put("replayed", replayed.sum());
+        stats.put("inProgress", inProgress.sum());
+        stats.put("mismatched", mismatched.sum());
+        stats.put("evicted", evicted.sum());
+        return stats;
+    }
+
+    private void purgeExpired(long now) {
+        Iterator<Entry> oldest = entries.values().iterator();
+        while (oldest.hasNext() && oldest.next().expiresAtMillis <= now) {
+            oldest.remove();
+        }
+    }
+
+    public static final class Claim {
+        private final State state;
+        private final String key;
+        private final Entry entry;
+        private final ResponseEntity<?> response;
+
+        private Claim(State state, String key, Entry entry, ResponseEntity<?> response) {
+            this.state = state;
+            this.key = key;
+            this.entry = entry;
+            this.response = response;
+        }
+
+        public State getState() {
+            return state;
+        }
+
+        /** The stored response when the state is {@link State#REPLAY}. */
+        public ResponseEntity<?> getResponse() {
+            return response;
+        }
+    }
+
+    private static final class Entry {
+        final String fingerprint;
+        final long expiresAtMillis;
+        // Null while the first request is running; guarded by the store's lock
+        ResponseEntity<?> response;
+
+        Entry(String fingerprint, long expiresAtMillis) {
+            this.fingerprint = fingerprint;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
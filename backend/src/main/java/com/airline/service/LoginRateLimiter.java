@@ -0,0 +1,76 @@
+package com.airline.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Brute-force guard for sign-in: one token bucket per client address and one per
+ * username, both checked before any password is verified.
+ */
+@Component
+public class LoginRateLimiter {
+
+    @Value("${signin.rate-limit.ip.capacity:20}")
+    private int ipCapacity;
+
+    @Value("${signin.rate-limit.ip.refill-per-minute:60}")
+    private double ipRefillPerMinute;
+
+    @Value("${signin.rate-limit.username.capacity:5}")
+    private int usernameCapacity;
+
+    @Value("${signin.rate-limit.username.refill-per-minute:5}")
+    private double usernameRefillPerMinute;
+
+    @Value("${signin.rate-limit.stripes:64}")
+    private int stripes;
+
+    @Value("${signin.rate-limit.max-keys-per-stripe:2048}")
+    private int maxKeysPerStripe;
+
+    private TokenBucketLimiter byIp;
+    private TokenBucketLimiter byUsername;
+
+    private final LongAdder rejectedByIp = new LongAdder();
+    private final LongAdder rejectedByUsername = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        byIp = new TokenBucketLimiter(ipCapacity, ipRefillPerMinute, stripes, maxKeysPerStripe);
+        byUsername = new TokenBucketLimiter(usernameCapacity, usernameRefillPerMinute, stripes, maxKeysPerStripe);
+    }
+
+    /**
+     * Returns 0 if the attempt may proceed, otherwise the nanoseconds the client
+     * should wait. A request refused by address does not use up the username's
+     * allowance.
+     */
+    public long tryAcquire(String username, String remoteAddress) {
+        long wait = byIp.tryAcquire(remoteAddress);
+        if (wait > 0) {
+            rejectedByIp.increment();
+            return wait;
+        }
+        // Case variants of a username are the same target
+        wait = byUsername.tryAcquire(username.toLowerCase(Locale.ROOT));
+        if (wait > 0) {
+            rejectedByUsername.increment();
+        }
+        return wait;
+    }
+
+    public Map<String, Long> getStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("rejectedByIp", rejectedByIp.sum());
+        stats.put("rejectedByUsername", rejectedByUsername.sum());
+        stats.put("trackedIps", (long) byIp.size());
+        stats.put("trackedUsernames", (long) byUsername.size());
+        return stats;
+    }
+}
@@ -0,0 +1,29 @@
+package com.airline.service;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * The subset of the Open-Meteo forecast payload we read when requesting
+ * {@code current_weather=true}.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record OpenMeteoResponse(@JsonProperty("current_weather") CurrentWeather currentWeather) {
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record CurrentWeather(
+            @JsonProperty("temperature") double temperature,
+            @JsonProperty("windspeed") double windSpeed,
+            @JsonProperty("winddirection") double windDirection,
+            @JsonProperty("weathercode") int weatherCode,
+            @JsonProperty("is_day") int isDay) {
+    }
+
+    public WeatherSnapshot toSnapshot() {
+        if (currentWeather == null) {
+            return null;
+        }
+        return new WeatherSnapshot(currentWeather.temperature(), currentWeather.windSpeed(),
+                currentWeather.windDirection(), currentWeather.weatherCode(), currentWeather.isDay() == 1);
+    }
+}
@@ -0,0 +1,94 @@
+package com.airline.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs password encoding on a small dedicated pool so a burst of sign-ups is limited
+ * to a few cores instead of every request thread. When the queue is full new work
+ * is rejected immediately rather than queued without bound.
+ */
+@Service
+@Slf4j
+public class PasswordHashingService {
+
+    @Autowired
+    private PasswordEncoder encoder;
+
+    // 0 uses half the available processors
+    @Value("${password-hashing.threads:0}")
+    private int threads;
+
+    @Value("${password-hashing.queue-capacity:64}")
+    private int queueCapacity;
+
+    private ThreadPoolExecutor executor;
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+
+    @PostConstruct
+    void init() {
+        int size = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(size, size, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    void shutdownExecutor() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Encodes on the hashing pool. The future fails with
+     * {@link RejectedExecutionException} when the pool is saturated.
+     */
+    public CompletableFuture<String> encode(CharSequence rawPassword) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                long start = System.nanoTime();
+                String hash = encoder.encode(rawPassword);
+                hashNanos.add(System.nanoTime() - start);
+                completed.increment();
+                return hash;
+            }, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            log.warn("Password hashing pool saturated, rejecting request");
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    public Map<String, Long> getStats() {
+        long done = completed.sum();
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("completed", done);
+        stats.put("rejected", rejected.sum());
+        stats.put("active", (long) executor.getActiveCount());
+        stats.put("queued", (long) executor.getQueue().size());
+        stats.put("avgHashMicros", done == 0 ? 0 : hashNanos.sum() / done / 1000);
+        return stats;
+    }
+}
@@ -0,0 +1,12 @@
+package com.airline.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * A booking acknowledged by {@link BookingWriteBehind} and waiting to be written.
+ * {@code recovered} marks bookings replayed from the journal after a restart, which
+ * may already have been written before it.
+ */
+public record PendingBooking(long sequence, long userId, long flightId, Long seatId, String ticketNumber,
+        Double amount, LocalDateTime bookingTime, boolean recovered) {
+}
@@ -0,0 +1,61 @@
+package com.airline.service;
+
+import com.airline.config.SecondLevelCacheConfig;
+import com.airline.entity.Airport;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Eviction and statistics for the second-level cache regions. Writes made through
+ * Hibernate keep the cache consistent on their own; this is for writes that bypass
+ * it, such as the JDBC batch import of airports.
+ */
+@Service
+public class ReferenceDataCache {
+
+    private static final List<String> REGIONS = List.of(SecondLevelCacheConfig.AIRPORTS_REGION,
+            SecondLevelCacheConfig.AIRCRAFT_REGION, SecondLevelCacheConfig.ROLES_REGION,
+            SecondLevelCacheConfig.QUERY_RESULTS_REGION);
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    CacheManager secondLevelCacheManager;
+
+    public void evictAirports() {
+        org.hibernate.Cache cache = entityManagerFactory.getCache().unwrap(org.hibernate.Cache.class);
+        cache.evictEntityData(Airport.class);
+        // Cached query results only hold ids, but may be missing rows written behind Hibernate's back
+        cache.evictDefaultQueryRegion();
+    }
+
+    public Map<String, Map<String, Object>> getStats() {
+        Map<String, Map<String, Object>> stats = new LinkedHashMap<>();
+        for (String region : REGIONS) {
+            Cache<Object, Object> cache = secondLevelCacheManager.getCache(region);
+            if (cache == null) {
+                continue;
+            }
+            com.github.benmanes.caffeine.cache.Cache<?, ?> caffeine = cache
+                    .unwrap(com.github.benmanes.caffeine.cache.Cache.class);
+            CacheStats regionStats = caffeine.stats();
+            Map<String, Object> values = new LinkedHashMap<>();
+            values.put("hits", regionStats.hitCount());
+            values.put("misses", regionStats.missCount());
+            values.put("hitRatio", regionStats.requestCount() == 0 ? 0.0 : regionStats.hitRate());
+            values.put("evictions", regionStats.evictionCount());
+            values.put("size", caffeine.estimatedSize());
+            stats.put(region, values);
+        }
+        return stats;
+    }
+}
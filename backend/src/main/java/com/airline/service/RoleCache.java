@@ -0,0 +1,53 @@
+package com.airline.service;
+
+import com.airline.entity.ERole;
+import com.airline.entity.Role;
+import com.airline.repository.RoleRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Role rows are seeded once and never change, so they are read into an immutable
+ * snapshot on first use instead of being queried on every sign-up.
+ */
+@Component
+public class RoleCache {
+    @Autowired
+    RoleRepository roleRepository;
+
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    private volatile Map<ERole, Role> roles = Collections.emptyMap();
+
+    public Role get(ERole name) {
+        Role role = roles.get(name);
+        if (role == null) {
+            // Not loaded yet, or loaded before the roles were seeded
+            role = reload().get(name);
+            if (role == null) {
+                throw new RuntimeException("Error: Role is not found.");
+            }
+        }
+        return role;
+    }
+
+    public Map<ERole, Role> reload() {
+        // Not synchronized: a monitor held across the query would pin a virtual thread
+        reloadLock.lock();
+        try {
+            Map<ERole, Role> loaded = new EnumMap<>(ERole.class);
+            for (Role role : roleRepository.findAll()) {
+                loaded.put(role.getName(), role);
+            }
+            roles = Collections.unmodifiableMap(loaded);
+            return roles;
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+}
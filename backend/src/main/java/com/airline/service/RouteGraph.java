@@ -0,0 +1,291 @@
+package com.airline.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Time-expanded flight schedule held in memory: for every airport id, the legs that
+ * depart from it sorted by departure minute. Connections are found by a best-first
+ * search over partial itineraries, so the first K itineraries that reach the
+ * destination are the K best by the chosen order.
+ * <p>
+ * Adding or removing a flight copies only its departure airport's array, so searches
+ * always see a consistent adjacency list without locking. Writers also keep an index
+ * of each flight's departure airport, so a removal finds its array directly.
+ */
+public class RouteGraph {
+
+    public enum Sort {
+        ARRIVAL, PRICE
+    }
+
+    private static final Comparator<Leg> BY_DEPARTURE = Comparator.comparingInt(Leg::departure)
+            .thenComparingLong(Leg::flightId);
+
+    private final ConcurrentHashMap<Long, Leg[]> departures = new ConcurrentHashMap<>();
+    // Guarded by this; only writers read it
+    private final Map<Long, Long> originByFlight = new HashMap<>();
+
+    /**
+     * Bulk load. Unlike {@link #add(Leg)} this does not check for flights that are
+     * already present.
+     */
+    public synchronized void addAll(Collection<Leg> legs) {
+        Map<Long, List<Leg>> byOrigin = new HashMap<>();
+        for (Leg leg : legs) {
+            byOrigin.computeIfAbsent(leg.from(), id -> new ArrayList<>()).add(leg);
+            originByFlight.put(leg.flightId(), leg.from());
+        }
+        byOrigin.forEach((origin, added) -> {
+            Leg[] sorted = added.toArray(new Leg[0]);
+            Arrays.sort(sorted, BY_DEPARTURE);
+            departures.merge(origin, sorted, (current, more) -> {
+                Leg[] merged = Arrays.copyOf(current, current.length + more.length);
+                System.arraycopy(more, 0, merged, current.length, more.length);
+                Arrays.sort(merged, BY_DEPARTURE);
+                return merged;
+            });
+        });
+    }
+
+    /**
+     * Inserts or replaces a single leg, keyed by flight id.
+     */
+    public synchronized void add(Leg leg) {
+        remove(leg.flightId());
+        originByFlight.put(leg.flightId(), leg.from());
+        departures.compute(leg.from(), (origin, current) -> {
+            if (current == null) {
+                return new Leg[] { leg };
+            }
+            int at = -Arrays.binarySearch(current, leg, BY_DEPARTURE) - 1;
+            Leg[] updated = new Leg[current.length + 1];
+            System.arraycopy(current, 0, updated, 0, at);
+            updated[at] = leg;
+            System.arraycopy(current, at, updated, at + 1, current.length - at);
+            return updated;
+        });
+    }
+
+    public synchronized void remove(long flightId) {
+        Long origin = originByFlight.remove(flightId);
+        if (origin == null) {
+            return;
+        }
+        departures.computeIfPresent(origin, (id, current) -> {
+            for (int i = 0; i < current.length; i++) {
+                if (current[i].flightId() == flightId) {
+                    Leg[] updated = new Leg[current.length - 1];
+                    System.arraycopy(current, 0, updated, 0, i);
+                    System.arraycopy(current, i + 1, updated, i, current.length - i - 1);
+                    return updated.length == 0 ? null : updated;
+                }
+            }
+            return current;
+        });
+    }
+
+    /**
+     * Drops the legs that depart before {@code minute}. Each array is sorted by
+     * departure, so only its departed head is cut off.
+     *
+     * @return the number of legs dropped
+     */
+    public synchronized int removeDepartedBefore(int minute) {
+        int removed = 0;
+        for (Long origin : departures.keySet()) {
+            Leg[] current = departures.get(origin);
+            int departed = firstAtOrAfter(current, minute);
+            if (departed == 0) {
+                continue;
+            }
+            for (int i = 0; i < departed; i++) {
+                originByFlight.remove(current[i].flightId());
+            }
+            if (departed == current.length) {
+                departures.remove(origin);
+            } else {
+                departures.put(origin, Arrays.copyOfRange(current, departed, current.length));
+            }
+            removed += departed;
+        }
+        return removed;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Leg[] legs : departures.values()) {
+            size += legs.length;
+        }
+        return size;
+    }
+
+    public List<Itinerary> search(Query query) {
+        if (query.origin() == query.destination()) {
+            return Collections.emptyList();
+        }
+
+        Comparator<Label> order = query.sort() == Sort.PRICE
+                ? Comparator.comparingDouble(Label::price).thenComparingInt(Label::arrival)
+                : Comparator.comparingInt(Label::arrival).thenComparingDouble(Label::price);
+        PriorityQueue<Label> queue = new PriorityQueue<>(order);
+
+        Leg[] first = departures.get(query.origin());
+        if (first == null) {
+            return Collections.emptyList();
+        }
+        for (int i = firstAtOrAfter(first, query.earliestDeparture()); i < first.length; i++) {
+            Leg leg = first[i];
+            if (leg.departure() > query.latestDeparture()) {
+                break;
+            }
+            queue.add(new Label(leg, null, 1, leg.price()));
+        }
+
+        List<Itinerary> results = new ArrayList<>(query.limit());
+        Map<Stop, int[]> settled = new HashMap<>();
+        int expansions = 0;
+        Label label;
+        while ((label = queue.poll()) != null && results.size() < query.limit()) {
+            long airport = label.leg.to();
+            if (airport == query.destination()) {
+                results.add(label.toItinerary());
+                continue;
+            }
+            if (label.legs == query.maxLegs()) {
+                continue;
+            }
+            if (isDominated(settled, label, query) || ++expansions > query.maxExpansions()) {
+                continue;
+            }
+
+            Leg[] onward = departures.get(airport);
+            if (onward == null) {
+                continue;
+            }
+            int earliest = label.arrival() + query.minConnectionMinutes();
+            int latest = label.arrival() + query.maxConnectionMinutes();
+            for (int i = firstAtOrAfter(onward, earliest); i < onward.length; i++) {
+                Leg next = onward[i];
+                if (next.departure() > latest) {
+                    break;
+                }
+                if (next.to() == query.origin() || label.visits(next.to())) {
+                    continue;
+                }
+                queue.add(new Label(next, label, label.legs + 1, label.price + next.price()));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Labels at the same airport and arrival minute have the same onward flights to
+     * choose from. Any label expanded there earlier is no dearer, since the queue
+     * pops the cheapest first among equal arrivals in either order. If K of them used
+     * no more legs, they lead to K itineraries at least as good as this label can, so
+     * it is pruned. Labels arriving at other times are not comparable: the
+     * connection window moves with the arrival.
+     */
+    private static boolean isDominated(Map<Stop, int[]> settled, Label label, Query query) {
+        int[] byLegs = settled.computeIfAbsent(new Stop(label.leg.to(), label.arrival()),
+                stop -> new int[query.maxLegs() + 1]);
+        int atMostAsMany = 0;
+        for (int legs = 1; legs <= label.legs; legs++) {
+            atMostAsMany += byLegs[legs];
+        }
+        if (atMostAsMany >= query.limit()) {
+            return true;
+        }
+        byLegs[label.legs]++;
+        return false;
+    }
+
+    private static int firstAtOrAfter(Leg[] legs, int minute) {
+        int low = 0;
+        int high = legs.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (legs[mid].departure() < minute) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * One scheduled flight. Times are minutes since the epoch in the schedule's local
+     * time, as stored on {@code Flight}.
+     */
+    public record Leg(long flightId, String flightNumber, long from, long to, String fromCode, String toCode,
+            int departure, int arrival, double price) {
+    }
+
+    public record Query(long origin, long destination, int earliestDeparture, int latestDeparture, Sort sort,
+            int limit, int maxLegs, int minConnectionMinutes, int maxConnectionMinutes, int maxExpansions) {
+    }
+
+    public record Itinerary(List<Leg> legs, double price) {
+
+        public Leg first() {
+            return legs.get(0);
+        }
+
+        public Leg last() {
+            return legs.get(legs.size() - 1);
+        }
+    }
+
+    private record Stop(long airport, int arrival) {
+    }
+
+    private static final class Label {
+        final Leg leg;
+        final Label previous;
+        final int legs;
+        final double price;
+
+        Label(Leg leg, Label previous, int legs, double price) {
+            this.leg = leg;
+            this.previous = previous;
+            this.legs = legs;
+            this.price = price;
+        }
+
+        int arrival() {
+            return leg.arrival();
+        }
+
+        double price() {
+            return price;
+        }
+
+        boolean visits(long airport) {
+            for (Label l = this; l != null; l = l.previous) {
+                if (l.leg.to() == airport) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        Itinerary toItinerary() {
+            Leg[] path = new Leg[legs];
+            int i = legs;
+            for (Label l = this; l != null; l = l.previous) {
+                path[--i] = l.leg;
+            }
+            return new Itinerary(List.of(path), price);
+        }
+    }
+}
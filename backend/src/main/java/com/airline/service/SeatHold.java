@@ -0,0 +1,33 @@
+package com.airline.service;
+
+import lombok.Getter;
+
+import java.time.Instant;
+
+@Getter
+public class SeatHold {
+    private final String id;
+    private final Long flightId;
+    private final Long seatId;
+    private final Long userId;
+    private final Instant expiresAt;
+
+    @Getter(lombok.AccessLevel.NONE)
+    volatile HashedTimingWheel.Timeout timeout;
+
+    SeatHold(String id, Long flightId, Long seatId, Long userId, Instant expiresAt) {
+        this.id = id;
+        this.flightId = flightId;
+        this.seatId = seatId;
+        this.userId = userId;
+        this.expiresAt = expiresAt;
+    }
+
+    // Null only while the hold is being created; expiry then finds it gone from the map
+    void cancelTimeout() {
+        HashedTimingWheel.Timeout scheduled = timeout;
+        if (scheduled != null) {
+            scheduled.cancel();
+        }
+    }
+}
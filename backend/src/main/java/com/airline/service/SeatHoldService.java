@@ -0,0 +1,105 @@
+package com.airline.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Temporary seat holds taken during checkout. A hold claims the seat in the
+ * in-memory seat map without writing anything to the database and expires through
+ * a hashed timing wheel unless it is converted into a booking first.
+ */
+@Service
+@Slf4j
+public class SeatHoldService {
+
+    @Autowired
+    SeatReservationService seatReservationService;
+
+    @Value("${seat-hold.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Value("${seat-hold.wheel.tick-ms:500}")
+    private long tickMs;
+
+    @Value("${seat-hold.wheel.size:1024}")
+    private int wheelSize;
+
+    private final ConcurrentHashMap<String, SeatHold> holds = new ConcurrentHashMap<>();
+
+    private HashedTimingWheel timingWheel;
+
+    @PostConstruct
+    void init() {
+        timingWheel = new HashedTimingWheel(Duration.ofMillis(tickMs), wheelSize, "seat-hold-expiry");
+    }
+
+    @PreDestroy
+    void shutdown() {
+        timingWheel.close();
+    }
+
+    /**
+     * @throws SeatUnavailableException if the seat is booked or held by someone else
+     */
+    public SeatHold hold(Long flightId, Long seatId, Long userId) {
+        seatReservationService.hold(flightId, seatId);
+
+        Duration ttl = Duration.ofSeconds(ttlSeconds);
+        SeatHold hold = new SeatHold(UUID.randomUUID().toString(), flightId, seatId, userId, Instant.now().plus(ttl));
+        // In the map before the timeout can fire, or expiry would find nothing to remove
+        holds.put(hold.getId(), hold);
+        hold.timeout = timingWheel.schedule(() -> expire(hold), ttl);
+        return hold;
+    }
+
+    public SeatHold get(String holdId) {
+        return holds.get(holdId);
+    }
+
+    /**
+     * Removes the hold so it can be converted into a booking. Exactly one of
+     * {@code take}, {@link #release} or expiry wins for a given hold; the seat bit
+     * stays claimed and now belongs to the caller.
+     *
+     * @throws SeatUnavailableException if the hold does not exist, expired or belongs to another user
+     */
+    public SeatHold take(String holdId, Long userId) {
+        SeatHold hold = holds.get(holdId);
+        if (hold == null || !hold.getUserId().equals(userId) || !holds.remove(holdId, hold)) {
+            throw new SeatUnavailableException("Seat hold " + holdId + " has expired or does not exist");
+        }
+        hold.cancelTimeout();
+        return hold;
+    }
+
+    public boolean release(String holdId, Long userId) {
+        SeatHold hold = holds.get(holdId);
+        if (hold == null || !hold.getUserId().equals(userId) || !holds.remove(holdId, hold)) {
+            return false;
+        }
+        hold.cancelTimeout();
+        seatReservationService.releaseHold(hold.getFlightId(), hold.getSeatId());
+        return true;
+    }
+
+    public int activeHolds() {
+        return holds.size();
+    }
+
+    private void expire(SeatHold hold) {
+        if (holds.remove(hold.getId(), hold)) {
+            seatReservationService.releaseHold(hold.getFlightId(), hold.getSeatId());
+            log.debug("Seat hold {} expired for seat {} on flight {}", hold.getId(), hold.getSeatId(),
+                    hold.getFlightId());
+        }
+    }
+}
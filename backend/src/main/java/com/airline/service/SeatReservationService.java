@@ -0,0 +1,486 @@
+package com.airline.service;
+
+import com.airline.entity.ESeatType;
+import com.airline.entity.Flight;
+import com.airline.entity.Seat;
+import com.airline.payload.response.SeatAvailabilityResponse;
+import com.airline.repository.FlightRepository;
+import com.airline.repository.SeatRepository;
+import com.airline.repository.SeatView;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Guards seat sales with an in-memory bitmap per flight. A seat is first claimed
+ * with a CAS on its bit, so concurrent requests for the same seat are rejected
+ * without touching the database; only the winner writes the seat row, and the
+ * {@code @Version} column on {@link Seat} catches writers outside this JVM.
+ * <p>
+ * Only flights that exist, have seats and have not departed get a cached seat map;
+ * departed flights are swept out. A map is rebuilt when its flight is saved or a
+ * seat turns up that it does not know, keeping the claims held only in memory.
+ */
+@Service
+@Slf4j
+public class SeatReservationService {
+
+    @Autowired
+    SeatRepository seatRepository;
+
+    @Autowired
+    FlightRepository flightRepository;
+
+    @Value("${seat-map.sweep-interval-seconds:60}")
+    private long sweepIntervalSeconds;
+
+    private final ConcurrentHashMap<Long, SeatMap> seatMaps = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweep = new AtomicLong(System.nanoTime());
+
+    /**
+     * Claims and persists the seat for the flight. Must be called inside the
+     * transaction that writes the booking; if that transaction rolls back the
+     * claim is released again.
+     *
+     * @throws SeatUnavailableException if the seat does not belong to the flight, is
+     *         already taken or the flight has departed
+     */
+    public Seat claim(Long flightId, Long seatId) {
+        claimBit(flightId, seatId);
+        return persist(flightId, seatId);
+    }
+
+    /**
+     * Claims the seat in memory only, without writing the seat row. The caller owns
+     * the claim until it calls {@link #confirmHold} or {@link #releaseHold}.
+     *
+     * @throws SeatUnavailableException if the seat does not belong to the flight, is
+     *         already taken or the flight has departed
+     */
+    public void hold(Long flightId, Long seatId) {
+        claimBit(flightId, seatId);
+    }
+
+    /**
+     * Persists a seat previously claimed through {@link #hold}. Must be called inside
+     * the transaction that writes the booking, before anything else in it can fail:
+     * from here on the claim is released only by that transaction rolling back.
+     */
+    public Seat confirmHold(Long flightId, Long seatId) {
+        SeatMap seatMap = seatMapFor(flightId);
+        int index = seatMap.indexOf(seatId);
+        if (index < 0 || !seatMap.isSet(index)) {
+            throw new SeatUnavailableException("Seat " + seatId + " is not held on flight " + flightId);
+        }
+        return persist(flightId, seatId);
+    }
+
+    public void releaseHold(Long flightId, Long seatId) {
+        while (true) {
+            SeatMap seatMap = seatMaps.get(flightId);
+            if (seatMap == null) {
+                return;
+            }
+            Lock lock = seatMap.claimLock.readLock();
+            lock.lock();
+            try {
+                if (seatMap.retired) {
+                    // Its claims were copied to the replacement; release it there
+                    continue;
+                }
+                int index = seatMap.indexOf(seatId);
+                if (index >= 0) {
+                    seatMap.release(index);
+                }
+                return;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /** Rebuilds the flight's seat map from the database, since its seats or departure may have changed. */
+    public void onFlightSaved(Flight flight) {
+        if (flight.getId() != null) {
+            reload(flight.getId());
+        }
+    }
+
+    private void claimBit(Long flightId, Long seatId) {
+        boolean reloaded = false;
+        while (true) {
+            SeatMap seatMap = seatMapFor(flightId);
+            if (!seatMap.isCacheable()) {
+                // Unknown, seatless or departed; an uncached map is not shared either, so
+                // a claim on it would guard nothing
+                throw new SeatUnavailableException("Flight " + flightId + " is not open for booking");
+            }
+            int index = seatMap.indexOf(seatId);
+            if (index < 0) {
+                if (!reloaded && seatRepository.existsByIdAndFlightId(seatId, flightId)) {
+                    // Added after the map was built
+                    reload(flightId);
+                    reloaded = true;
+                    continue;
+                }
+                throw new SeatUnavailableException("Seat " + seatId + " does not exist on flight " + flightId);
+            }
+            Lock lock = seatMap.claimLock.readLock();
+            lock.lock();
+            try {
+                if (seatMap.retired) {
+                    continue;
+                }
+                if (!seatMap.tryClaim(index)) {
+                    throw new SeatUnavailableException("Seat " + seatId + " is already booked");
+                }
+                return;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private Seat persist(Long flightId, Long seatId) {
+        SeatClaim claim = new SeatClaim(flightId, seatId);
+        boolean releasedByRollback = releaseOnRollback(claim);
+        try {
+            Optional<Seat> row = seatRepository.findById(seatId);
+            if (row.isEmpty()) {
+                reload(flightId);
+                throw new SeatUnavailableException("Seat " + seatId + " no longer exists");
+            }
+            Seat seat = row.get();
+            if (Boolean.TRUE.equals(seat.getIsBooked())) {
+                // Booked outside this instance; the bit stays set
+                claim.disown();
+                throw new SeatUnavailableException("Seat " + seatId + " is already booked");
+            }
+            seat.setIsBooked(true);
+            return seatRepository.saveAndFlush(seat);
+        } catch (OptimisticLockingFailureException e) {
+            // Someone else wrote the row concurrently; the bit stays set
+            claim.disown();
+            throw new SeatUnavailableException("Seat " + seatId + " is already booked");
+        } catch (RuntimeException e) {
+            if (!releasedByRollback) {
+                claim.release();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Frees a previously booked seat, e.g. when a booking is cancelled.
+     *
+     * @throws SeatUnavailableException if the seat does not belong to the flight
+     */
+    public void release(Long flightId, Long seatId) {
+        if (!seatRepository.existsByIdAndFlightId(seatId, flightId)) {
+            throw new SeatUnavailableException("Seat " + seatId + " does not exist on flight " + flightId);
+        }
+        seatRepository.findById(seatId).ifPresent(seat -> {
+            seat.setIsBooked(false);
+            seatRepository.saveAndFlush(seat);
+        });
+        releaseHold(flightId, seatId);
+    }
+
+    /** The seat's number from the in-memory seat map, or {@code null} if it is not on the flight. */
+    public String seatNumber(Long flightId, Long seatId) {
+        SeatMap seatMap = seatMapFor(flightId);
+        int index = seatMap.indexOf(seatId);
+        return index >= 0 ? seatMap.seatNumbers[index] : null;
+    }
+
+    public boolean isBooked(Long flightId, Long seatId) {
+        SeatMap seatMap = seatMapFor(flightId);
+        int index = seatMap.indexOf(seatId);
+        return index >= 0 && seatMap.isSet(index);
+    }
+
+    public int cachedFlights() {
+        return seatMaps.size();
+    }
+
+    /**
+     * The cached seat map, or a throwaway one for flights that are not cached
+     * (unknown, without seats or departed) so their ids cannot grow the cache.
+     */
+    private SeatMap seatMapFor(Long flightId) {
+        SeatMap seatMap = seatMaps.get(flightId);
+        if (seatMap != null) {
+            if (!seatMap.hasDeparted()) {
+                return seatMap;
+            }
+            seatMaps.remove(flightId, seatMap);
+        }
+        sweepDeparted();
+        SeatMap[] loaded = new SeatMap[1];
+        SeatMap cached = seatMaps.computeIfAbsent(flightId, id -> {
+            loaded[0] = load(id);
+            return loaded[0].isCacheable() ? loaded[0] : null;
+        });
+        return cached != null ? cached : loaded[0];
+    }
+
+    private SeatMap load(Long flightId) {
+        Optional<Flight> flight = flightRepository.findById(flightId);
+        if (flight.isEmpty()) {
+            return SeatMap.of(List.of(), null);
+        }
+        return SeatMap.of(seatRepository.findByFlightIdOrderById(flightId), flight.get().getDepartureTime());
+    }
+
+    /**
+     * Swaps in a freshly loaded map. The old one is retired under its write lock, so
+     * no claim lands on it after its bits are copied; claimers that find it retired
+     * go round again and claim on the replacement.
+     */
+    private void reload(Long flightId) {
+        SeatMap current = seatMaps.get(flightId);
+        if (current == null) {
+            return;
+        }
+        SeatMap fresh = load(flightId);
+        Lock lock = current.claimLock.writeLock();
+        lock.lock();
+        try {
+            if (current.retired) {
+                return;
+            }
+            fresh.copyClaims(current);
+            current.retired = true;
+            if (fresh.isCacheable()) {
+                seatMaps.replace(flightId, current, fresh);
+            } else {
+                seatMaps.remove(flightId, current);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void sweepDeparted() {
+        long now = System.nanoTime();
+        long next = nextSweep.get();
+        if (now - next < 0
+                || !nextSweep.compareAndSet(next, now + TimeUnit.SECONDS.toNanos(sweepIntervalSeconds))) {
+            return;
+        }
+        seatMaps.values().removeIf(SeatMap::hasDeparted);
+    }
+
+    /** Registers the claim's release for rollback; {@code false} if there is no transaction to hook. */
+    private static boolean releaseOnRollback(SeatClaim claim) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return false;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    claim.release();
+                }
+            }
+        });
+        return true;
+    }
+
+    /**
+     * A transaction's ownership of a seat bit. Released at most once, and not at all
+     * once the seat turns out to be booked by someone else.
+     */
+    private final class SeatClaim {
+        private final Long flightId;
+        private final Long seatId;
+        private final AtomicBoolean owned = new AtomicBoolean(true);
+
+        SeatClaim(Long flightId, Long seatId) {
+            this.flightId = flightId;
+            this.seatId = seatId;
+        }
+
+        void disown() {
+            owned.set(false);
+        }
+
+        void release() {
+            if (owned.compareAndSet(true, false)) {
+                releaseHold(flightId, seatId);
+            }
+        }
+    }
+
+    /**
+     * Returns the flight's seat map in its compact wire form. The encoded snapshot is
+     * cached on the seat map and rebuilt only after a seat changes state.
+     */
+    public SeatAvailabilityResponse getAvailability(Long flightId) {
+        SeatMap seatMap = seatMapFor(flightId);
+        long version = seatMap.version.get();
+        SeatAvailabilityResponse cached = seatMap.availability;
+        if (cached != null && seatMap.availabilityVersion == version) {
+            return cached;
+        }
+        SeatAvailabilityResponse availability = seatMap.encode(flightId, version);
+        seatMap.availabilityVersion = version;
+        seatMap.availability = availability;
+        return availability;
+    }
+
+    /**
+     * Seat ids sorted ascending with one booked bit per seat, plus the seat numbers
+     * and types needed to render the seat map.
+     */
+    static final class SeatMap {
+        private final long[] seatIds;
+        private final String[] seatNumbers;
+        private final ESeatType[] seatTypes;
+        private final AtomicLongArray bits;
+        private final LocalDateTime departureTime;
+        private final AtomicLong version = new AtomicLong();
+        // Claims take the read lock, so they still run concurrently; a reload takes the write lock
+        private final ReentrantReadWriteLock claimLock = new ReentrantReadWriteLock();
+        private volatile boolean retired;
+        // Distinguishes versions across restarts so stale ETags never match
+        private final long epoch = System.currentTimeMillis();
+
+        private volatile SeatAvailabilityResponse availability;
+        private volatile long availabilityVersion = -1;
+
+        private SeatMap(long[] seatIds, String[] seatNumbers, ESeatType[] seatTypes, LocalDateTime departureTime) {
+            this.seatIds = seatIds;
+            this.seatNumbers = seatNumbers;
+            this.seatTypes = seatTypes;
+            this.departureTime = departureTime;
+            this.bits = new AtomicLongArray((seatIds.length + 63) >>> 6);
+        }
+
+        static SeatMap of(List<SeatView> seats, LocalDateTime departureTime) {
+            long[] ids = new long[seats.size()];
+            String[] numbers = new String[ids.length];
+            ESeatType[] types = new ESeatType[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                SeatView seat = seats.get(i);
+                ids[i] = seat.getId();
+                numbers[i] = seat.getSeatNumber();
+                types[i] = seat.getSeatType() != null ? seat.getSeatType() : ESeatType.ECONOMY;
+            }
+            SeatMap seatMap = new SeatMap(ids, numbers, types, departureTime);
+            for (int i = 0; i < ids.length; i++) {
+                if (Boolean.TRUE.equals(seats.get(i).getIsBooked())) {
+                    seatMap.tryClaim(i);
+                }
+            }
+            return seatMap;
+        }
+
+        boolean hasDeparted() {
+            return departureTime != null && departureTime.isBefore(LocalDateTime.now());
+        }
+
+        boolean isCacheable() {
+            return seatIds.length > 0 && !hasDeparted();
+        }
+
+        /** Sets the bits of seats claimed in {@code previous}, which may include claims not yet in the database. */
+        void copyClaims(SeatMap previous) {
+            for (int i = 0; i < previous.seatIds.length; i++) {
+                if (previous.isSet(i)) {
+                    int index = indexOf(previous.seatIds[i]);
+                    if (index >= 0) {
+                        tryClaim(index);
+                    }
+                }
+            }
+        }
+
+        int indexOf(Long seatId) {
+            if (seatId == null) {
+                return -1;
+            }
+            int index = Arrays.binarySearch(seatIds, seatId);
+            return index >= 0 ? index : -1;
+        }
+
+        boolean isSet(int index) {
+            return (bits.get(index >>> 6) & (1L << index)) != 0;
+        }
+
+        boolean tryClaim(int index) {
+            int word = index >>> 6;
+            long mask = 1L << index;
+            while (true) {
+                long current = bits.get(word);
+                if ((current & mask) != 0) {
+                    return false;
+                }
+                if (bits.compareAndSet(word, current, current | mask)) {
+                    version.incrementAndGet();
+                    return true;
+                }
+            }
+        }
+
+        void release(int index) {
+            long mask = 1L << index;
+            if ((bits.getAndUpdate(index >>> 6, current -> current & ~mask) & mask) != 0) {
+                version.incrementAndGet();
+            }
+        }
+
+        SeatAvailabilityResponse encode(Long flightId, long snapshotVersion) {
+            List<SeatAvailabilityResponse.Cabin> cabins = new ArrayList<>();
+            for (ESeatType type : ESeatType.values()) {
+                int total = 0;
+                for (ESeatType seatType : seatTypes) {
+                    if (seatType == type) {
+                        total++;
+                    }
+                }
+                if (total == 0) {
+                    continue;
+                }
+
+                long[] ids = new long[total];
+                List<String> numbers = new ArrayList<>(total);
+                BitSet taken = new BitSet(total);
+                int position = 0;
+                for (int i = 0; i < seatIds.length; i++) {
+                    if (seatTypes[i] != type) {
+                        continue;
+                    }
+                    ids[position] = seatIds[i];
+                    numbers.add(seatNumbers[i]);
+                    if (isSet(i)) {
+                        taken.set(position);
+                    }
+                    position++;
+                }
+                cabins.add(new SeatAvailabilityResponse.Cabin(type, total, total - taken.cardinality(), ids,
+                        numbers, Base64.getEncoder().encodeToString(taken.toByteArray())));
+            }
+            return new SeatAvailabilityResponse(flightId, epoch + "-" + snapshotVersion, cabins);
+        }
+    }
+}
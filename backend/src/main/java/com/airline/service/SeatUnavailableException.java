@@ -0,0 +1,7 @@
+package com.airline.service;
+
+public class SeatUnavailableException extends RuntimeException {
+    public SeatUnavailableException(String message) {
+        super(message);
+    }
+}
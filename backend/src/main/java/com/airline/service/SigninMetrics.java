@@ -0,0 +1,56 @@
+package com.airline.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Sign-in latency split by outcome, so cheap rejections do not hide the cost of
+ * password verification in a single average.
+ */
+@Component
+public class SigninMetrics {
+
+    public enum Outcome {
+        SUCCESS, BAD_CREDENTIALS, RATE_LIMITED, ERROR
+    }
+
+    private final Map<Outcome, Latency> latencies = new EnumMap<>(Outcome.class);
+
+    public SigninMetrics() {
+        for (Outcome outcome : Outcome.values()) {
+            latencies.put(outcome, new Latency());
+        }
+    }
+
+    public void record(Outcome outcome, long nanos) {
+        Latency latency = latencies.get(outcome);
+        latency.count.increment();
+        latency.totalNanos.add(nanos);
+        latency.maxNanos.accumulate(nanos);
+    }
+
+    public Map<String, Map<String, Long>> getStats() {
+        Map<String, Map<String, Long>> stats = new LinkedHashMap<>();
+        latencies.forEach((outcome, latency) -> {
+            long count = latency.count.sum();
+            Map<String, Long> values = new LinkedHashMap<>();
+            values.put("count", count);
+            values.put("avgMicros", count == 0 ? 0 : latency.totalNanos.sum() / count / 1000);
+            values.put("maxMicros", latency.maxNanos.get() / 1000);
+            stats.put(outcome.name().toLowerCase(Locale.ROOT), values);
+        });
+        return stats;
+    }
+
+    private static final class Latency {
+        final LongAdder count = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    }
+}
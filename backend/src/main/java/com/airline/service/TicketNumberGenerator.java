@@ -0,0 +1,109 @@
+package com.airline.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Issues ticket numbers from blocks reserved on {@code ticket_number_seq}. The
+ * sequence increments by the block size and each value is the first serial of a
+ * block, handed out with an atomic increment, so only one ticket per block pays for a
+ * database round trip. The configured size must match the sequence's increment, which
+ * is checked once the application is ready and before the first block is reserved.
+ * Serials left in a block when the application stops are skipped, never reused.
+ */
+@Component
+public class TicketNumberGenerator {
+
+    static final String NEXT_BLOCK_SQL = "SELECT nextval('ticket_number_seq')";
+    static final String INCREMENT_SQL = "SELECT CAST(increment AS BIGINT) FROM information_schema.sequences "
+            + "WHERE LOWER(sequence_name) = 'ticket_number_seq'";
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    // Airline designator prefix of the 13-digit ticket number
+    @Value("${ticket.number-prefix:999}")
+    private String prefix;
+
+    @Value("${ticket.number-block-size:1000}")
+    private int blockSize;
+
+    private final ReentrantLock refillLock = new ReentrantLock();
+    private final LongAdder issued = new LongAdder();
+    private final LongAdder blocks = new LongAdder();
+
+    private volatile Block block = new Block(0, 0);
+    private volatile boolean incrementChecked;
+
+    public String next() {
+        while (true) {
+            Block current = block;
+            long serial = current.next.getAndIncrement();
+            if (serial < current.limit) {
+                issued.increment();
+                return prefix + String.format("%010d", serial);
+            }
+            refill(current);
+        }
+    }
+
+    private void refill(Block exhausted) {
+        refillLock.lock();
+        try {
+            // Another thread may have refilled while we waited
+            if (block == exhausted) {
+                checkIncrement();
+                long first = jdbcTemplate.queryForObject(NEXT_BLOCK_SQL, Long.class);
+                block = new Block(first, first + blockSize);
+                blocks.increment();
+            }
+        } finally {
+            refillLock.unlock();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkIncrement() {
+        if (incrementChecked) {
+            return;
+        }
+        List<Long> increment = jdbcTemplate.queryForList(INCREMENT_SQL, Long.class);
+        if (increment.size() != 1 || increment.get(0) != blockSize) {
+            throw new IllegalStateException("ticket.number-block-size is " + blockSize
+                    + " but ticket_number_seq increments by " + (increment.isEmpty() ? "nothing" : increment.get(0))
+                    + "; change the sequence with a migration, not the setting");
+        }
+        incrementChecked = true;
+    }
+
+    public Map<String, Long> getStats() {
+        Block current = block;
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("issued", issued.sum());
+        stats.put("blocksAllocated", blocks.sum());
+        stats.put("blockSize", (long) blockSize);
+        stats.put("remainingInBlock", Math.max(0, current.limit - current.next.get()));
+        return stats;
+    }
+
+    private static final class Block {
+        final AtomicLong next;
+        final long limit;
+
+        Block(long first, long limit) {
+            this.next = new AtomicLong(first);
+            this.limit = limit;
+        }
+    }
+}
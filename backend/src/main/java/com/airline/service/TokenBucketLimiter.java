@@ -0,0 +1,90 @@
+package com.airline.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-key token buckets kept in memory. Keys are spread over independently locked
+ * stripes so concurrent callers with different keys rarely contend, and each stripe
+ * keeps at most a fixed number of keys, evicting the least recently used. An
+ * evicted key has been idle longest and would have mostly refilled anyway.
+ */
+public class TokenBucketLimiter {
+
+    private final int capacity;
+    private final double tokensPerNano;
+    private final int mask;
+    private final Stripe[] stripes;
+
+    public TokenBucketLimiter(int capacity, double refillPerMinute, int stripes, int maxKeysPerStripe) {
+        if (Integer.bitCount(stripes) != 1) {
+            throw new IllegalArgumentException("stripes must be a power of two: " + stripes);
+        }
+        this.capacity = capacity;
+        this.tokensPerNano = refillPerMinute / 60e9;
+        this.mask = stripes - 1;
+        this.stripes = new Stripe[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new Stripe(maxKeysPerStripe);
+        }
+    }
+
+    /**
+     * Takes one token for the key. Returns 0 if one was available, otherwise the
+     * nanoseconds until the next token.
+     */
+    public long tryAcquire(String key) {
+        long now = System.nanoTime();
+        int hash = key.hashCode();
+        Stripe stripe = stripes[(hash ^ (hash >>> 16)) & mask];
+        synchronized (stripe) {
+            Bucket bucket = stripe.get(key);
+            if (bucket == null) {
+                bucket = new Bucket(capacity, now);
+                stripe.put(key, bucket);
+            } else {
+                bucket.tokens = Math.min(capacity, bucket.tokens + (now - bucket.refilledAt) * tokensPerNano);
+                bucket.refilledAt = now;
+            }
+            if (bucket.tokens >= 1) {
+                bucket.tokens -= 1;
+                return 0;
+            }
+            return tokensPerNano > 0 ? (long) Math.ceil((1 - bucket.tokens) / tokensPerNano) : Long.MAX_VALUE;
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    private static final class Bucket {
+        double tokens;
+        long refilledAt;
+
+        Bucket(double tokens, long refilledAt) {
+            this.tokens = tokens;
+            this.refilledAt = refilledAt;
+        }
+    }
+
+    private static final class Stripe extends LinkedHashMap<String, Bucket> {
+        private final int maxKeys;
+
+        Stripe(int maxKeys) {
+            super(16, 0.75f, true);
+            this.maxKeys = maxKeys;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Bucket> eldest) {
+            return size() > maxKeys;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.airline.service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU cache for weather lookups keyed by coordinates rounded to two decimals
+ * (roughly 1 km). Concurrent misses for the same key share one upstream call, the
+ * number of upstream calls in flight is capped, and expired entries are kept around
+ * so they can be served when the upstream fails, is throttled, is already busy
+ * refreshing the same key or does not answer within the fetch budget.
+ */
+public class WeatherCache<V> {
+
+    private final long ttlNanos;
+    private final Semaphore upstreamPermits;
+    private final long permitWaitMillis;
+    private final long fetchBudgetMillis;
+    private final Executor fetchExecutor;
+    private final Map<Key, Entry<V>> entries;
+    private final ConcurrentHashMap<Key, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder staleServed = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder throttled = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+
+    /**
+     * Upstream calls run on {@code fetchExecutor} so callers can give up after
+     * {@code fetchBudget}; a call that overruns still completes in the background and
+     * refreshes the entry for later lookups.
+     */
+    public WeatherCache(Duration ttl, int maxEntries, int maxConcurrentFetches, Duration permitWait,
+                        Duration fetchBudget, Executor fetchExecutor) {
+        this.ttlNanos = ttl.toNanos();
+        this.upstreamPermits = new Semaphore(maxConcurrentFetches);
+        this.permitWaitMillis = permitWait.toMillis();
+        this.fetchBudgetMillis = fetchBudget.toMillis();
+        this.fetchExecutor = fetchExecutor;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry<V>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached value for the coordinates, loading it through {@code loader}
+     * when missing or expired. A loader that throws, returns {@code null} or misses the
+     * fetch budget counts as an upstream failure; the stale value (or {@code null}) is
+     * returned instead. Callers coalesced onto another caller's load wait for at most
+     * the same budget.
+     */
+    public V get(double latitude, double longitude, Supplier<V> loader) {
+        Key key = Key.of(latitude, longitude);
+        Entry<V> cached = lookup(key);
+        if (cached != null && !cached.isExpired(System.nanoTime())) {
+            hits.increment();
+            return cached.value;
+        }
+        V stale = cached != null ? cached.value : null;
+
+        CompletableFuture<V> pending = new CompletableFuture<>();
+        CompletableFuture<V> leader = inFlight.putIfAbsent(key, pending);
+        if (leader != null) {
+            coalesced.increment();
+            if (stale != null) {
+                staleServed.increment();
+                return stale;
+            }
+            return await(leader, null);
+        }
+
+        misses.increment();
+        fetch(key, loader, pending, stale);
+        return await(pending, stale);
+    }
+
+    /**
+     * Returns whatever is cached for the coordinates, expired or not, without loading.
+     */
+    public V peek(double latitude, double longitude) {
+        Entry<V> cached = lookup(Key.of(latitude, longitude));
+        if (cached == null) {
+            return null;
+        }
+        if (cached.isExpired(System.nanoTime())) {
+            staleServed.increment();
+        }
+        return cached.value;
+    }
+
+    private V await(CompletableFuture<V> load, V stale) {
+        V result;
+        try {
+            result = load.get(fetchBudgetMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            timedOut.increment();
+            result = stale;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result = stale;
+        } catch (ExecutionException e) {
+            result = stale;
+        }
+        if (result != null && result == stale) {
+            staleServed.increment();
+        }
+        return result;
+    }
+
+    private void fetch(Key key, Supplier<V> loader, CompletableFuture<V> pending, V stale) {
+        boolean acquired;
+        try {
+            acquired = upstreamPermits.tryAcquire(permitWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            throttled.increment();
+            finish(key, pending, stale);
+            return;
+        }
+
+        try {
+            fetchExecutor.execute(() -> {
+                V value = null;
+                try {
+                    value = load(key, loader);
+                } finally {
+                    upstreamPermits.release();
+                    finish(key, pending, value != null ? value : stale);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            upstreamPermits.release();
+            throttled.increment();
+            finish(key, pending, stale);
+        }
+    }
+
+    private V load(Key key, Supplier<V> loader) {
+        try {
+            V value = loader.get();
+            if (value == null) {
+                errors.increment();
+                return null;
+            }
+            store(key, new Entry<>(value, System.nanoTime() + ttlNanos));
+            return value;
+        } catch (RuntimeException e) {
+            errors.increment();
+            return null;
+        }
+    }
+
+    private void finish(Key key, CompletableFuture<V> pending, V result) {
+        inFlight.remove(key, pending);
+        pending.complete(result);
+    }
+
+    private synchronized Entry<V> lookup(Key key) {
+        return entries.get(key);
+    }
+
+    private synchronized void store(Key key, Entry<V> entry) {
+        entries.put(key, entry);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public Map<String, Long> stats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("hits", hits.sum());
+        stats.put("misses", misses.sum());
+        stats.put("coalesced", coalesced.sum());
+        stats.put("staleServed", staleServed.sum());
+        stats.put("errors", errors.sum());
+        stats.put("throttled", throttled.sum());
+        stats.put("timedOut", timedOut.sum());
+        stats.put("size", (long) size());
+        return stats;
+    }
+
+    private record Key(long latitude, long longitude) {
+        static Key of(double latitude, double longitude) {
+            return new Key(Math.round(latitude * 100), Math.round(longitude * 100));
+        }
+    }
+
+    private record Entry<V>(V value, long expiresAtNanos) {
+        boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+    }
+}
@@ -1,33 +1,150 @@
 package com.airline.service;
 
+import com.airline.config.WorkerThreads;
 import com.airline.entity.Airport;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Service
+@Slf4j
 public class WeatherService {
 
     @Autowired
     private RestTemplate restTemplate;
 
-    private final String API_URL = "https://api.open-meteo.com/v1/forecast?latitude={lat}&longitude={lon}&current_weather=true";
+    @Autowired
+    private WorkerThreads workerThreads;
+
+    @Value("${weather.api-url:https://api.open-meteo.com/v1/forecast?latitude={lat}&longitude={lon}&current_weather=true}")
+    private String apiUrl;
+
+    @Value("${weather.cache.ttl-seconds:600}")
+    private long cacheTtlSeconds;
+
+    @Value("${weather.cache.max-entries:2000}")
+    private int cacheMaxEntries;
+
+    @Value("${weather.max-concurrent-requests:16}")
+    private int maxConcurrentRequests;
+
+    @Value("${weather.throttle-wait-ms:250}")
+    private long throttleWaitMs;
+
+    @Value("${weather.call-timeout-ms:3500}")
+    private long callTimeoutMs;
+
+    @Value("${weather.request-budget-ms:4000}")
+    private long requestBudgetMs;
+
+    @Value("${weather.executor.threads:16}")
+    private int executorThreads;
+
+    @Value("${weather.executor.queue-capacity:256}")
+    private int executorQueueCapacity;
+
+    private WeatherCache<WeatherSnapshot> cache;
+
+    private ThreadPoolExecutor executor;
+
+    // Runs the upstream calls themselves; the cache's permits keep at most
+    // maxConcurrentRequests of them queued or running
+    private ThreadPoolExecutor fetchExecutor;
+
+    @PostConstruct
+    void init() {
+        fetchExecutor = new ThreadPoolExecutor(maxConcurrentRequests, maxConcurrentRequests, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), workerThreads.factory("weather-fetch-"));
+        fetchExecutor.allowCoreThreadTimeOut(true);
+        cache = new WeatherCache<>(Duration.ofSeconds(cacheTtlSeconds), cacheMaxEntries, maxConcurrentRequests,
+                Duration.ofMillis(throttleWaitMs), Duration.ofMillis(callTimeoutMs), fetchExecutor);
+
+        executor = new ThreadPoolExecutor(executorThreads, executorThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(executorQueueCapacity), workerThreads.factory("weather-"));
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    void shutdownExecutor() {
+        executor.shutdownNow();
+        fetchExecutor.shutdownNow();
+    }
 
-    public Map<String, Object> getWeather(Airport airport) {
+    public WeatherSnapshot getWeather(Airport airport) {
         if (airport.getLatitude() == null || airport.getLongitude() == null) {
             return null;
         }
 
+        return cache.get(airport.getLatitude(), airport.getLongitude(), () -> fetchWeather(airport));
+    }
+
+    /**
+     * Fetches weather on the bounded weather pool. The future completes with the
+     * last cached snapshot, however old, or {@code null} when the call misses its
+     * deadline or the pool is saturated.
+     */
+    public CompletableFuture<WeatherSnapshot> getWeatherAsync(Airport airport) {
+        try {
+            return CompletableFuture.supplyAsync(() -> getWeather(airport), executor)
+                    .orTimeout(callTimeoutMs, TimeUnit.MILLISECONDS)
+                    .exceptionally(e -> cachedWeather(airport));
+        } catch (RejectedExecutionException e) {
+            log.warn("Weather pool saturated, skipping lookup for {}", airport.getCode());
+            return CompletableFuture.completedFuture(cachedWeather(airport));
+        }
+    }
+
+    /**
+     * Waits for the given lookups for at most the per-request budget. Callers read
+     * the futures with {@code getNow(null)} afterwards so late results degrade to
+     * "unavailable" instead of blocking the request thread.
+     */
+    public void awaitWithinBudget(CompletableFuture<?>... lookups) {
+        try {
+            CompletableFuture.allOf(lookups).get(requestBudgetMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            log.warn("Weather lookups exceeded the {} ms request budget", requestBudgetMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private WeatherSnapshot cachedWeather(Airport airport) {
+        if (airport.getLatitude() == null || airport.getLongitude() == null) {
+            return null;
+        }
+        return cache.peek(airport.getLatitude(), airport.getLongitude());
+    }
+
+    public Map<String, Long> getCacheStats() {
+        return cache.stats();
+    }
+
+    private WeatherSnapshot fetchWeather(Airport airport) {
         try {
-            return restTemplate.getForObject(
-                    API_URL,
-                    Map.class,
+            OpenMeteoResponse response = restTemplate.getForObject(
+                    apiUrl,
+                    OpenMeteoResponse.class,
                     airport.getLatitude(),
                     airport.getLongitude());
+            return response != null ? response.toSnapshot() : null;
         } catch (Exception e) {
-            System.err.println("Error fetching weather for " + airport.getName() + ": " + e.getMessage());
+            log.warn("Error fetching weather for {}: {}", airport.getName(), e.getMessage());
             return null;
         }
     }
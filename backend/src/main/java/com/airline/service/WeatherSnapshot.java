@@ -0,0 +1,18 @@
+package com.airline.service;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Current conditions decoded once from the Open-Meteo response, as primitives so they
+ * can be cached and scored without boxing. Serialized back in the Open-Meteo
+ * {@code current_weather} shape so API clients keep seeing the upstream field names.
+ */
+public record WeatherSnapshot(double temperature, double windSpeed, double windDirection, int weatherCode,
+        boolean day) {
+
+    @JsonValue
+    OpenMeteoResponse toOpenMeteo() {
+        return new OpenMeteoResponse(new OpenMeteoResponse.CurrentWeather(temperature, windSpeed, windDirection,
+                weatherCode, day ? 1 : 0));
+    }
+}
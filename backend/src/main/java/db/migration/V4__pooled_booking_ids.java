@@ -0,0 +1,33 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Sequences for the pooled ids of bookings, payments and tickets. Each sequence
+ * starts one allocation block above the table's highest id, since Hibernate's pooled
+ * optimizer hands out the 50 ids up to each value it reads. A Java migration because
+ * the start depends on existing rows and there is no portable SQL for that.
+ */
+public class V4__pooled_booking_ids extends BaseJavaMigration {
+
+    private static final int ALLOCATION_SIZE = 50;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        try (Statement statement = context.getConnection().createStatement()) {
+            for (String table : new String[] { "bookings", "payments", "tickets" }) {
+                long maxId;
+                try (ResultSet rows = statement.executeQuery("select coalesce(max(id), 0) from " + table)) {
+                    rows.next();
+                    maxId = rows.getLong(1);
+                }
+                statement.execute("create sequence " + table + "_seq start with " + (maxId + ALLOCATION_SIZE)
+                        + " increment by " + ALLOCATION_SIZE);
+            }
+        }
+    }
+}
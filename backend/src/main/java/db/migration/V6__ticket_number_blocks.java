@@ -0,0 +1,33 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Makes each value of {@code ticket_number_seq} the first serial of a ticket number
+ * block rather than a block number, so the block size lives in the sequence and a
+ * changed setting cannot overlap earlier blocks. V3's values were block numbers:
+ * value n reserved serials n * 1000 up to (n + 1) * 1000, so the new sequence starts
+ * above the block of the value read here. A Java migration for the same reason as V4.
+ */
+public class V6__ticket_number_blocks extends BaseJavaMigration {
+
+    private static final int BLOCK_SIZE = 1000;
+
+    @Override
+    public void migrate(Context context) throws Exception {
+        try (Statement statement = context.getConnection().createStatement()) {
+            long lastBlock;
+            try (ResultSet rows = statement.executeQuery("select nextval('ticket_number_seq')")) {
+                rows.next();
+                lastBlock = rows.getLong(1);
+            }
+            statement.execute("drop sequence ticket_number_seq");
+            statement.execute("create sequence ticket_number_seq start with " + (lastBlock + 1) * BLOCK_SIZE
+                    + " increment by " + BLOCK_SIZE);
+        }
+    }
+}
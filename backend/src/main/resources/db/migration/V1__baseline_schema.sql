@@ -0,0 +1,90 @@
+-- Schema as previously generated by Hibernate (ddl-auto=update). Databases created
+-- that way are baselined at this version instead of running it.
+
+create table aircrafts (
+    id bigint generated by default as identity,
+    model varchar(255) not null,
+    total_seats integer,
+    economy_seats integer,
+    business_seats integer,
+    primary key (id)
+);
+
+create table airports (
+    id bigint generated by default as identity,
+    name varchar(255) not null,
+    city varchar(255) not null,
+    country varchar(255) not null,
+    latitude float(53),
+    longitude float(53),
+    code varchar(255) not null unique,
+    primary key (id)
+);
+
+create table roles (
+    id integer generated by default as identity,
+    name varchar(20) check (name in ('ROLE_ADMIN', 'ROLE_STAFF', 'ROLE_CUSTOMER')),
+    primary key (id)
+);
+
+create table users (
+    id bigint generated by default as identity,
+    username varchar(20) not null unique,
+    email varchar(50) not null unique,
+    password varchar(120) not null,
+    primary key (id)
+);
+
+create table user_roles (
+    user_id bigint not null references users,
+    role_id integer not null references roles,
+    primary key (role_id, user_id)
+);
+
+create table flights (
+    id bigint generated by default as identity,
+    flight_number varchar(255) unique,
+    departure_airport_id bigint references airports,
+    arrival_airport_id bigint references airports,
+    departure_time timestamp(6),
+    arrival_time timestamp(6),
+    aircraft_id bigint references aircrafts,
+    status varchar(255) check (status in ('SCHEDULED', 'CANCELLED', 'DELAYED', 'COMPLETED')),
+    price float(53),
+    primary key (id)
+);
+
+create table seats (
+    id bigint generated by default as identity,
+    seat_number varchar(255),
+    seat_type varchar(255) check (seat_type in ('ECONOMY', 'BUSINESS')),
+    is_booked boolean,
+    flight_id bigint references flights,
+    primary key (id)
+);
+
+create table bookings (
+    id bigint generated by default as identity,
+    user_id bigint references users,
+    flight_id bigint references flights,
+    seat_id bigint unique references seats,
+    status varchar(255) check (status in ('CONFIRMED', 'CANCELLED')),
+    booking_time timestamp(6),
+    primary key (id)
+);
+
+create table payments (
+    id bigint generated by default as identity,
+    booking_id bigint unique references bookings,
+    amount float(53),
+    status varchar(255) check (status in ('SUCCESS', 'FAILED')),
+    primary key (id)
+);
+
+create table tickets (
+    id bigint generated by default as identity,
+    booking_id bigint unique references bookings,
+    ticket_number varchar(255) unique,
+    issued_at timestamp(6),
+    primary key (id)
+);
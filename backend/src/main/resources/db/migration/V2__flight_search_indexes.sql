@@ -0,0 +1,14 @@
+-- Route search: equality on both airports, range on departure time
+create index if not exists idx_flights_route_departure
+    on flights (departure_airport_id, arrival_airport_id, departure_time);
+
+-- Departure boards and delay-risk batches for one airport
+create index if not exists idx_flights_origin_departure
+    on flights (departure_airport_id, departure_time);
+
+-- Keyset listing ordered by departure time
+create index if not exists idx_flights_departure_id
+    on flights (departure_time, id);
+
+create index if not exists idx_seats_flight on seats (flight_id);
+create index if not exists idx_bookings_user on bookings (user_id);
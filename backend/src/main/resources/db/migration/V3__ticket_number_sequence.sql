@@ -0,0 +1,2 @@
+-- Each value reserves one block of ticket numbers (see TicketNumberGenerator)
+create sequence if not exists ticket_number_seq start with 1 increment by 1;
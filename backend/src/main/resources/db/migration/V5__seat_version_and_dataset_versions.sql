@@ -0,0 +1,11 @@
+-- Added after the baseline, so databases baselined at V1 get them here. The
+-- guards cover databases that were created from an earlier V1 that included them.
+alter table seats add column if not exists version bigint default 0 not null;
+
+create table if not exists dataset_versions (
+    name varchar(50) not null,
+    checksum varchar(64),
+    row_count bigint,
+    imported_at timestamp(6),
+    primary key (name)
+);
@@ -0,0 +1,78 @@
+package com.airline.benchmark;
+
+import com.airline.entity.Airport;
+import com.airline.service.AirportGeoIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nearest-5 airports through the k-d tree against a haversine scan of every airport.
+ *
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main AirportGeoIndexBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AirportGeoIndexBenchmark {
+
+    @Param({ "80000" })
+    private int airports;
+
+    private final AirportGeoIndex index = new AirportGeoIndex();
+    private final SplittableRandom random = new SplittableRandom(13);
+    private Airport[] all;
+
+    @Setup
+    public void build() {
+        List<Airport> list = new ArrayList<>(airports);
+        for (long id = 1; id <= airports; id++) {
+            double latitude = Math.toDegrees(Math.asin(2 * random.nextDouble() - 1));
+            double longitude = random.nextDouble() * 360 - 180;
+            list.add(new Airport(id, "Airport " + id, "City", "Country", latitude, longitude, "A" + id));
+        }
+        index.rebuild(list);
+        all = list.toArray(new Airport[0]);
+    }
+
+    @Benchmark
+    public List<AirportGeoIndex.Nearby> kdTreeNearestFive() {
+        return index.nearest(random.nextDouble() * 180 - 90, random.nextDouble() * 360 - 180, 5, null);
+    }
+
+    @Benchmark
+    public Airport linearScanNearest() {
+        double latitude = random.nextDouble() * 180 - 90;
+        double longitude = random.nextDouble() * 360 - 180;
+        Airport best = null;
+        double bestDistance = Double.MAX_VALUE;
+        for (Airport airport : all) {
+            double distance = AirportGeoIndex.haversineKm(latitude, longitude, airport.getLatitude(),
+                    airport.getLongitude());
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = airport;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,118 @@
+package com.airline.benchmark;
+
+import com.airline.security.jwt.AuthTokenFilter;
+import com.airline.security.jwt.JwtUtils;
+import com.airline.security.services.UserDetailsImpl;
+import com.airline.security.services.UserDetailsServiceImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.io.Encoders;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of {@link AuthTokenFilter} with the user lookup stubbed out:
+ * {@code legacy} rebuilds the key and parser and parses the token twice as before,
+ * {@code parseOnce} uses the cached parser with the verified-token cache disabled,
+ * {@code cached} is the steady state for a client reusing its token.
+ *
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main AuthTokenFilterBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthTokenFilterBenchmark {
+
+    @Param({ "legacy", "parseOnce", "cached" })
+    private String mode;
+
+    private final AuthTokenFilter filter = new AuthTokenFilter();
+    private final FilterChain chain = (request, response) -> {
+    };
+    private String header;
+
+    @Setup
+    public void setUp() {
+        String secret = Encoders.BASE64.encode(Keys.secretKeyFor(SignatureAlgorithm.HS256).getEncoded());
+        JwtUtils jwtUtils = "legacy".equals(mode) ? new LegacyJwtUtils(secret) : new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", secret);
+        ReflectionTestUtils.setField(jwtUtils, "verifiedCacheMaxEntries", "cached".equals(mode) ? 1000 : 0);
+        jwtUtils.init();
+
+        Key key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+        header = "Bearer " + Jwts.builder().setSubject("traveller").setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 3_600_000))
+                .signWith(key, SignatureAlgorithm.HS256).compact();
+
+        UserDetailsImpl user = new UserDetailsImpl(1L, "traveller", "traveller@example.com", "hash",
+                List.of(new SimpleGrantedAuthority("ROLE_CUSTOMER")));
+        ReflectionTestUtils.setField(filter, "jwtUtils", jwtUtils);
+        ReflectionTestUtils.setField(filter, "userDetailsService", new UserDetailsServiceImpl() {
+            @Override
+            public UserDetails loadUserByUsername(String username) {
+                return user;
+            }
+        });
+    }
+
+    @Benchmark
+    public Object filterRequest() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/bookings/user/1");
+        request.addHeader("Authorization", header);
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        SecurityContextHolder.clearContext();
+        return principal;
+    }
+
+    /** Token handling as it was before the key, parser and verified tokens were cached. */
+    private static final class LegacyJwtUtils extends JwtUtils {
+        private final String secret;
+
+        LegacyJwtUtils(String secret) {
+            this.secret = secret;
+        }
+
+        private Key key() {
+            return Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+        }
+
+        @Override
+        public Claims parseValidatedClaims(String token) {
+            Jwts.parserBuilder().setSigningKey(key()).build().parse(token);
+            String subject = Jwts.parserBuilder().setSigningKey(key()).build().parseClaimsJws(token).getBody()
+                    .getSubject();
+            return Jwts.claims().setSubject(subject);
+        }
+    }
+}
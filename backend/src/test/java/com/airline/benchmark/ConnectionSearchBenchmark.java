@@ -0,0 +1,86 @@
+package com.airline.benchmark;
+
+import com.airline.service.RouteGraph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Connection search over a synthetic schedule: hub-heavy random routes across
+ * {@code airports}, {@code flightsPerDay} flights a day for a week, searching a
+ * random origin/destination pair for day three with up to two stops.
+ *
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main ConnectionSearchBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConnectionSearchBenchmark {
+
+    private static final int DAYS = 7;
+    private static final int HUBS = 20;
+
+    @Param({ "500" })
+    private int airports;
+
+    @Param({ "20000" })
+    private int flightsPerDay;
+
+    @Param({ "ARRIVAL", "PRICE" })
+    private RouteGraph.Sort sort;
+
+    private final RouteGraph graph = new RouteGraph();
+    private final SplittableRandom random = new SplittableRandom(11);
+
+    @Setup
+    public void buildSchedule() {
+        List<RouteGraph.Leg> legs = new ArrayList<>(flightsPerDay * DAYS);
+        long id = 0;
+        for (int day = 0; day < DAYS; day++) {
+            for (int i = 0; i < flightsPerDay; i++) {
+                // Most flights touch a hub, as in a real network
+                long from = random.nextInt(4) == 0 ? airport(airports) : airport(HUBS);
+                long to = random.nextBoolean() ? airport(HUBS) : airport(airports);
+                if (from == to) {
+                    continue;
+                }
+                int departure = day * 1440 + random.nextInt(1440);
+                int duration = 60 + random.nextInt(12 * 60);
+                legs.add(new RouteGraph.Leg(++id, "FL" + id, from, to, "A" + from, "A" + to, departure,
+                        departure + duration, 50 + random.nextInt(950)));
+            }
+        }
+        graph.addAll(legs);
+    }
+
+    private long airport(int bound) {
+        return random.nextInt(bound) + 1;
+    }
+
+    @Benchmark
+    public List<RouteGraph.Itinerary> topFiveItineraries() {
+        long origin = airport(airports);
+        long destination = airport(airports);
+        return graph.search(new RouteGraph.Query(origin, destination, 3 * 1440, 4 * 1440 - 1, sort, 5, 3, 60,
+                1440, 200_000));
+    }
+}
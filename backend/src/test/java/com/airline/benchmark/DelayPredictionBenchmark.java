@@ -0,0 +1,127 @@
+package com.airline.benchmark;
+
+import com.airline.entity.ERiskLevel;
+import com.airline.service.DelayPredictionService;
+import com.airline.service.OpenMeteoResponse;
+import com.airline.service.WeatherSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the typed {@link WeatherSnapshot} delay-risk path with the previous
+ * {@code Map<String, Object>} path, both for scoring alone and for decode + score.
+ *
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main DelayPredictionBenchmark -prof gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DelayPredictionBenchmark {
+
+    private static final String[] PAYLOADS = {
+            "{\"latitude\":28.56,\"longitude\":77.1,\"current_weather\":{\"temperature\":31.2,\"windspeed\":12.5,"
+                    + "\"winddirection\":270,\"weathercode\":3,\"is_day\":1,\"time\":\"2026-10-18T12:00\"}}",
+            "{\"latitude\":51.47,\"longitude\":-0.45,\"current_weather\":{\"temperature\":9.8,\"windspeed\":31.0,"
+                    + "\"winddirection\":200,\"weathercode\":63,\"is_day\":0,\"time\":\"2026-10-18T12:00\"}}",
+            "{\"latitude\":25.25,\"longitude\":55.36,\"current_weather\":{\"temperature\":36.0,\"windspeed\":44.2,"
+                    + "\"winddirection\":90,\"weathercode\":95,\"is_day\":1,\"time\":\"2026-10-18T12:00\"}}"
+    };
+
+    private final DelayPredictionService delayPredictionService = new DelayPredictionService();
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+
+    private Map<String, Object>[] maps;
+    private WeatherSnapshot[] snapshots;
+    private int cursor;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        maps = new Map[PAYLOADS.length];
+        snapshots = new WeatherSnapshot[PAYLOADS.length];
+        for (int i = 0; i < PAYLOADS.length; i++) {
+            maps[i] = jsonMapper.readValue(PAYLOADS[i], Map.class);
+            snapshots[i] = jsonMapper.readValue(PAYLOADS[i], OpenMeteoResponse.class).toSnapshot();
+        }
+    }
+
+    private int next() {
+        cursor = cursor + 1 == PAYLOADS.length ? 0 : cursor + 1;
+        return cursor;
+    }
+
+    @Benchmark
+    public ERiskLevel scoreMap() {
+        return legacyPredictDelayRisk(maps[next()]);
+    }
+
+    @Benchmark
+    public ERiskLevel scoreSnapshot() {
+        return delayPredictionService.predictDelayRisk(snapshots[next()]);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public void decodeAndScoreMap(Blackhole blackhole) {
+        blackhole.consume(legacyPredictDelayRisk(jsonMapper.readValue(PAYLOADS[next()], Map.class)));
+    }
+
+    @Benchmark
+    public void decodeAndScoreSnapshot(Blackhole blackhole) {
+        WeatherSnapshot snapshot = jsonMapper.readValue(PAYLOADS[next()], OpenMeteoResponse.class).toSnapshot();
+        blackhole.consume(delayPredictionService.predictDelayRisk(snapshot));
+    }
+
+    /** The map-based scoring as it was before the weather record was introduced. */
+    @SuppressWarnings("unchecked")
+    private static ERiskLevel legacyPredictDelayRisk(Map<String, Object> weatherData) {
+        if (weatherData == null || !weatherData.containsKey("current_weather")) {
+            return ERiskLevel.LOW;
+        }
+
+        Map<String, Object> current = (Map<String, Object>) weatherData.get("current_weather");
+
+        Double windSpeed = 0.0;
+        if (current.get("windspeed") instanceof Number) {
+            windSpeed = ((Number) current.get("windspeed")).doubleValue();
+        }
+
+        Integer weatherCode = 0;
+        if (current.get("weathercode") instanceof Number) {
+            weatherCode = ((Number) current.get("weathercode")).intValue();
+        }
+
+        if (windSpeed > 40) {
+            return ERiskLevel.HIGH;
+        }
+        if (weatherCode == 95 || weatherCode == 96 || weatherCode == 99) {
+            return ERiskLevel.HIGH;
+        }
+        if (windSpeed >= 25) {
+            return ERiskLevel.MEDIUM;
+        }
+        if ((weatherCode >= 51 && weatherCode <= 67) || (weatherCode >= 80 && weatherCode <= 82)) {
+            return ERiskLevel.MEDIUM;
+        }
+        return ERiskLevel.LOW;
+    }
+}
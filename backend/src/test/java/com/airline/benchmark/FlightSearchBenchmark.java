@@ -0,0 +1,145 @@
+package com.airline.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Route search over a seeded in-memory flights table: the previous query that
+ * joins airports to filter by code, against resolving codes from a map and
+ * filtering on the airport ids, each with and without the composite index from
+ * V2__flight_search_indexes.sql.
+ *
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -Xmx4g -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main FlightSearchBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class FlightSearchBenchmark {
+
+    private static final int AIRPORTS = 400;
+    private static final int DAYS = 365;
+    private static final LocalDate FIRST_DAY = LocalDate.of(2026, 1, 1);
+
+    private static final String JOIN_BY_CODE_SQL = "SELECT f.id, f.flight_number, f.departure_time, f.price "
+            + "FROM flights f JOIN airports d ON d.id = f.departure_airport_id "
+            + "JOIN airports a ON a.id = f.arrival_airport_id "
+            + "WHERE d.code = ? AND a.code = ? AND f.departure_time BETWEEN ? AND ?";
+    private static final String BY_IDS_SQL = "SELECT f.id, f.flight_number, f.departure_time, f.price "
+            + "FROM flights f WHERE f.departure_airport_id = ? AND f.arrival_airport_id = ? "
+            + "AND f.departure_time BETWEEN ? AND ? ORDER BY f.departure_time";
+
+    @Param({ "2000000" })
+    private int flights;
+
+    @Param({ "false", "true" })
+    private boolean indexed;
+
+    private Connection connection;
+    private PreparedStatement joinByCode;
+    private PreparedStatement byIds;
+    private final Map<String, Long> airportIds = new HashMap<>();
+    private final SplittableRandom random = new SplittableRandom(7);
+
+    @Setup(Level.Trial)
+    public void seed() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:flight-search-" + indexed + ";DB_CLOSE_DELAY=-1");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE airports (id BIGINT PRIMARY KEY, code VARCHAR(255) NOT NULL UNIQUE)");
+            statement.execute("CREATE TABLE flights (id BIGINT PRIMARY KEY, flight_number VARCHAR(255), "
+                    + "departure_airport_id BIGINT, arrival_airport_id BIGINT, departure_time TIMESTAMP(6), "
+                    + "price FLOAT(53))");
+            statement.execute("INSERT INTO airports SELECT x, 'A' || LPAD(CAST(x AS VARCHAR), 3, '0') "
+                    + "FROM SYSTEM_RANGE(1, " + AIRPORTS + ")");
+            // Routes and times are a deterministic scramble of the row number
+            statement.execute("INSERT INTO flights SELECT x, 'FL' || x, "
+                    + "MOD(x * 7919, " + AIRPORTS + ") + 1, "
+                    + "MOD(x * 7919 + 1 + MOD(x * 104729, " + (AIRPORTS - 1) + "), " + AIRPORTS + ") + 1, "
+                    + "DATEADD(MINUTE, MOD(x * 15485863, " + DAYS * 1440 + "), TIMESTAMP '2026-01-01 00:00:00'), "
+                    + "100 + MOD(x, 900) FROM SYSTEM_RANGE(1, " + flights + ")");
+            if (indexed) {
+                statement.execute("CREATE INDEX idx_flights_route_departure "
+                        + "ON flights (departure_airport_id, arrival_airport_id, departure_time)");
+            }
+            statement.execute("ANALYZE");
+        }
+        try (Statement statement = connection.createStatement();
+                ResultSet rs = statement.executeQuery("SELECT id, code FROM airports")) {
+            while (rs.next()) {
+                airportIds.put(rs.getString(2), rs.getLong(1));
+            }
+        }
+        joinByCode = connection.prepareStatement(JOIN_BY_CODE_SQL);
+        byIds = connection.prepareStatement(BY_IDS_SQL);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public int joinAirportsByCode() throws SQLException {
+        int origin = random.nextInt(AIRPORTS) + 1;
+        joinByCode.setString(1, code(origin));
+        joinByCode.setString(2, code(origin % AIRPORTS + 1));
+        return run(joinByCode);
+    }
+
+    @Benchmark
+    public int resolveCodesThenFilterByIds() throws SQLException {
+        int origin = random.nextInt(AIRPORTS) + 1;
+        byIds.setLong(1, airportIds.get(code(origin)));
+        byIds.setLong(2, airportIds.get(code(origin % AIRPORTS + 1)));
+        return run(byIds);
+    }
+
+    private int run(PreparedStatement statement) throws SQLException {
+        LocalDate day = FIRST_DAY.plusDays(random.nextInt(DAYS));
+        statement.setTimestamp(3, Timestamp.valueOf(day.atStartOfDay()));
+        statement.setTimestamp(4, Timestamp.valueOf(day.atTime(23, 59, 59)));
+        int rows = 0;
+        try (ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                rows++;
+            }
+        }
+        return rows;
+    }
+
+    private static String code(int id) {
+        return String.format("A%03d", id);
+    }
+}
@@ -0,0 +1,180 @@
+package com.airline.benchmark;
+
+import com.airline.BackendApplication;
+import com.airline.service.AirportService;
+import io.jsonwebtoken.io.Encoders;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Throughput of the flight search and booking list endpoints with 256 concurrent
+ * clients, served by Tomcat's platform worker pool or by virtual threads. The
+ * application runs on in-memory H2, so {@code dbLatencyMs} adds a simulated round
+ * trip to every SQL statement to stand in for a networked Postgres; the connection
+ * is held for it, as it would be. The build targets Java 17, where the switch is
+ * ignored, so virtual mode has not been measured on a supported runtime and no
+ * results are recorded here. It needs a Java 21 JVM, and the {@code virtual=true}
+ * trials refuse to run on an older one rather than report platform-thread numbers
+ * under the wrong label. H2 holds monitors that pin virtual threads, so on machines
+ * with one or two cores lower the client count with {@code -t}.
+ *
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/test-classes:target/classes:$(cat target/cp.txt) org.openjdk.jmh.Main ThreadModelBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Threads(256)
+@Fork(1)
+public class ThreadModelBenchmark {
+
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+    private static final Pattern TOKEN = Pattern.compile("\"(?:token|accessToken)\"\\s*:\\s*\"([^\"]+)\"");
+
+    @Param({ "false", "true" })
+    private boolean virtual;
+
+    @Param({ "0", "5" })
+    private long dbLatencyMs;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private URI search;
+    private URI bookings;
+    private String authorization;
+
+    @Setup(Level.Trial)
+    public void start() throws Exception {
+        if (virtual && Runtime.version().feature() < 21) {
+            throw new IllegalStateException("virtual=true needs Java 21, this is " + Runtime.version());
+        }
+        SimulatedLatency.millis = 0;
+        byte[] secret = new byte[64];
+        new SecureRandom().nextBytes(secret);
+        context = new SpringApplicationBuilder(BackendApplication.class)
+                .run(
+                        "--server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtual,
+                        "--spring.datasource.url=jdbc:h2:mem:thread-model;DB_CLOSE_DELAY=-1",
+                        "--spring.datasource.username=sa",
+                        "--spring.datasource.password=",
+                        "--spring.flyway.enabled=false",
+                        "--spring.jpa.hibernate.ddl-auto=create-drop",
+                        "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                        "--spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                                + SimulatedLatency.class.getName(),
+                        "--jwt.secret=" + Encoders.BASE64.encode(secret),
+                        "--signin.rate-limit.ip.capacity=1000",
+                        "--logging.level.root=WARN");
+        AirportService airports = context.getBean(AirportService.class);
+        while (airports.getDataState() == AirportService.DataState.LOADING) {
+            Thread.sleep(100);
+        }
+
+        String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        post(base + "/api/auth/signup",
+                "{\"username\":\"loadtest\",\"email\":\"loadtest@example.com\",\"password\":\"loadtest-pw\"}");
+        String signin = post(base + "/api/auth/signin",
+                "{\"username\":\"loadtest\",\"password\":\"loadtest-pw\"}");
+        authorization = "Bearer " + group(TOKEN, signin);
+        search = URI.create(base + "/api/flights/search?origin=DEL&destination=BOM&date=" + LocalDate.now());
+        bookings = URI.create(base + "/api/bookings/user/" + group(ID, signin));
+        SimulatedLatency.millis = dbLatencyMs;
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        SimulatedLatency.millis = 0;
+        context.close();
+    }
+
+    @Benchmark
+    public int flightSearch() throws Exception {
+        return get(search, null);
+    }
+
+    @Benchmark
+    public int userBookings() throws Exception {
+        return get(bookings, authorization);
+    }
+
+    private int get(URI uri, String auth) throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).GET();
+        if (auth != null) {
+            request.header("Authorization", auth);
+        }
+        HttpResponse<byte[]> response = client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(uri + " returned " + response.statusCode());
+        }
+        return response.body().length;
+    }
+
+    private String post(String uri, String json) throws IOException, InterruptedException {
+        HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(uri))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(uri + " returned " + response.statusCode() + ": " + response.body());
+        }
+        return response.body();
+    }
+
+    private static String group(Pattern pattern, String body) {
+        Matcher matcher = pattern.matcher(body);
+        if (!matcher.find()) {
+            throw new IllegalStateException("Unexpected response: " + body);
+        }
+        return matcher.group(1);
+    }
+
+    /** Sleeps for the configured round trip whenever Hibernate prepares a statement. */
+    public static class SimulatedLatency implements StatementInspector {
+        static volatile long millis;
+
+        @Override
+        public String inspect(String sql) {
+            if (millis > 0) {
+                try {
+                    Thread.sleep(millis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return sql;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.airline.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.ThreadFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WorkerThreadsTest {
+
+	@Test
+	void platformDaemonThreadsByDefault() {
+		WorkerThreads workerThreads = new WorkerThreads();
+		ThreadFactory factory = workerThreads.factory("worker-");
+
+		Thread first = factory.newThread(() -> { });
+		Thread second = factory.newThread(() -> { });
+
+		assertFalse(workerThreads.isVirtual());
+		assertTrue(first.isDaemon());
+		assertEquals("worker-1", first.getName());
+		assertEquals("worker-2", second.getName());
+	}
+
+	@Test
+	void switchOnlyTakesEffectOnJava21() {
+		WorkerThreads workerThreads = new WorkerThreads();
+		ReflectionTestUtils.setField(workerThreads, "virtualEnabled", true);
+
+		assertEquals(Runtime.version().feature() >= 21, workerThreads.isVirtual());
+		Thread thread = workerThreads.factory("worker-").newThread(() -> { });
+		assertTrue(thread.getName().startsWith("worker-"));
+	}
+}
@@ -0,0 +1,157 @@
+package com.airline.controller;
+
+import com.airline.payload.request.LoginRequest;
+import com.airline.security.jwt.JwtUtils;
+import com.airline.security.services.UserDetailsImpl;
+import com.airline.service.LoginRateLimiter;
+import com.airline.service.SigninMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AuthControllerSigninTest {
+
+	private static final int ATTEMPTS = 2000;
+	private static final int USERNAME_CAPACITY = 5;
+	private static final int IP_CAPACITY = 20;
+
+	private final AtomicInteger passwordChecks = new AtomicInteger();
+	private final ExecutorService pool = Executors.newFixedThreadPool(64);
+	private AuthController controller;
+	private SigninMetrics metrics;
+
+	@BeforeEach
+	void setUp() {
+		AuthenticationManager authenticationManager = mock(AuthenticationManager.class);
+		when(authenticationManager.authenticate(any())).thenAnswer(inv -> {
+			passwordChecks.incrementAndGet();
+			Authentication attempt = inv.getArgument(0);
+			if (!"correct".equals(attempt.getCredentials())) {
+				throw new BadCredentialsException("Bad credentials");
+			}
+			UserDetailsImpl user = new UserDetailsImpl(1L, attempt.getName(), attempt.getName() + "@example.com",
+					null, List.of(new SimpleGrantedAuthority("ROLE_CUSTOMER")));
+			return new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+		});
+		JwtUtils jwtUtils = mock(JwtUtils.class);
+		when(jwtUtils.generateJwtToken(any())).thenReturn("token");
+
+		LoginRateLimiter limiter = new LoginRateLimiter();
+		ReflectionTestUtils.setField(limiter, "ipCapacity", IP_CAPACITY);
+		ReflectionTestUtils.setField(limiter, "ipRefillPerMinute", 1.0);
+		ReflectionTestUtils.setField(limiter, "usernameCapacity", USERNAME_CAPACITY);
+		ReflectionTestUtils.setField(limiter, "usernameRefillPerMinute", 1.0);
+		ReflectionTestUtils.setField(limiter, "stripes", 16);
+		ReflectionTestUtils.setField(limiter, "maxKeysPerStripe", 4096);
+		ReflectionTestUtils.invokeMethod(limiter, "init");
+
+		metrics = new SigninMetrics();
+		controller = new AuthController();
+		ReflectionTestUtils.setField(controller, "authenticationManager", authenticationManager);
+		ReflectionTestUtils.setField(controller, "jwtUtils", jwtUtils);
+		ReflectionTestUtils.setField(controller, "loginRateLimiter", limiter);
+		ReflectionTestUtils.setField(controller, "signinMetrics", metrics);
+	}
+
+	@AfterEach
+	void tearDown() {
+		pool.shutdownNow();
+	}
+
+	@Test
+	void credentialStuffingOnOneAccountFromManyAddressesOnlyReachesThePasswordCheckAFewTimes() throws Exception {
+		Map<HttpStatus, Integer> statuses = hammer(i -> new Attempt("victim", "guess" + i, "10.0." + (i / 250) + "." + (i % 250)));
+
+		assertEquals(USERNAME_CAPACITY, passwordChecks.get());
+		assertEquals(USERNAME_CAPACITY, statuses.getOrDefault(HttpStatus.UNAUTHORIZED, 0));
+		assertEquals(ATTEMPTS - USERNAME_CAPACITY, statuses.getOrDefault(HttpStatus.TOO_MANY_REQUESTS, 0));
+		Map<String, Map<String, Long>> stats = metrics.getStats();
+		assertEquals((long) USERNAME_CAPACITY, stats.get("bad_credentials").get("count"));
+		assertEquals((long) ATTEMPTS - USERNAME_CAPACITY, stats.get("rate_limited").get("count"));
+	}
+
+	@Test
+	void sprayingManyAccountsFromOneAddressIsCappedByAddress() throws Exception {
+		Map<HttpStatus, Integer> statuses = hammer(i -> new Attempt("user" + i, i % 2 == 0 ? "correct" : "wrong", "192.0.2.7"));
+
+		assertEquals(IP_CAPACITY, passwordChecks.get());
+		assertEquals(IP_CAPACITY, statuses.getOrDefault(HttpStatus.OK, 0) + statuses.getOrDefault(HttpStatus.UNAUTHORIZED, 0));
+		assertEquals(ATTEMPTS - IP_CAPACITY, statuses.getOrDefault(HttpStatus.TOO_MANY_REQUESTS, 0));
+	}
+
+	@Test
+	void distinctUsersOnDistinctAddressesAreNotThrottled() throws Exception {
+		Map<HttpStatus, Integer> statuses = hammer(i -> new Attempt("user" + i, "correct", "10.1." + (i / 250) + "." + (i % 250)));
+
+		assertEquals(ATTEMPTS, statuses.getOrDefault(HttpStatus.OK, 0));
+		assertEquals((long) ATTEMPTS, metrics.getStats().get("success").get("count"));
+		assertTrue(metrics.getStats().get("success").get("maxMicros") >= 0);
+	}
+
+	private Map<HttpStatus, Integer> hammer(IntFunction<Attempt> attempts) throws InterruptedException {
+		Map<HttpStatus, Integer> statuses = new ConcurrentHashMap<>();
+		CountDownLatch start = new CountDownLatch(1);
+		CountDownLatch done = new CountDownLatch(ATTEMPTS);
+		for (int i = 0; i < ATTEMPTS; i++) {
+			Attempt attempt = attempts.apply(i);
+			pool.execute(() -> {
+				try {
+					start.await();
+					statuses.merge(signin(attempt), 1, Integer::sum);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				} finally {
+					SecurityContextHolder.clearContext();
+					done.countDown();
+				}
+			});
+		}
+		start.countDown();
+		assertTrue(done.await(30, TimeUnit.SECONDS));
+		return statuses;
+	}
+
+	private HttpStatus signin(Attempt attempt) {
+		LoginRequest login = new LoginRequest();
+		login.setUsername(attempt.username);
+		login.setPassword(attempt.password);
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/signin");
+		request.setRemoteAddr(attempt.address);
+		try {
+			ResponseEntity<?> response = controller.authenticateUser(login, request);
+			return HttpStatus.valueOf(response.getStatusCode().value());
+		} catch (BadCredentialsException e) {
+			// Turned into a 401 by the security entry point
+			return HttpStatus.UNAUTHORIZED;
+		}
+	}
+
+	private record Attempt(String username, String password, String address) {
+	}
+}
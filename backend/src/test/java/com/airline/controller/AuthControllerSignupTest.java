@@ -0,0 +1,81 @@
+package com.airline.controller;
+
+import com.airline.entity.ERole;
+import com.airline.entity.Role;
+import com.airline.entity.User;
+import com.airline.payload.request.SignupRequest;
+import com.airline.repository.UserRepository;
+import com.airline.service.PasswordHashingService;
+import com.airline.service.RoleCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AuthControllerSignupTest {
+
+	private final ExecutorService requestPool = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable,
+			"request-io"));
+	private final AtomicReference<String> savedOn = new AtomicReference<>();
+	private PasswordHashingService passwordHashingService;
+	private AuthController controller;
+
+	@BeforeEach
+	void setUp() {
+		PasswordEncoder encoder = mock(PasswordEncoder.class);
+		when(encoder.encode(any())).thenReturn("hash");
+		passwordHashingService = new PasswordHashingService();
+		ReflectionTestUtils.setField(passwordHashingService, "encoder", encoder);
+		ReflectionTestUtils.setField(passwordHashingService, "threads", 1);
+		ReflectionTestUtils.setField(passwordHashingService, "queueCapacity", 4);
+		ReflectionTestUtils.invokeMethod(passwordHashingService, "init");
+
+		UserRepository userRepository = mock(UserRepository.class);
+		when(userRepository.findIdentityConflicts(any(), any())).thenReturn(List.of());
+		when(userRepository.save(any(User.class))).thenAnswer(invocation -> {
+			savedOn.set(Thread.currentThread().getName());
+			return invocation.getArgument(0);
+		});
+		RoleCache roleCache = mock(RoleCache.class);
+		when(roleCache.get(ERole.ROLE_CUSTOMER)).thenReturn(new Role(1, ERole.ROLE_CUSTOMER));
+
+		controller = new AuthController();
+		ReflectionTestUtils.setField(controller, "userRepository", userRepository);
+		ReflectionTestUtils.setField(controller, "roleCache", roleCache);
+		ReflectionTestUtils.setField(controller, "passwordHashingService", passwordHashingService);
+		ReflectionTestUtils.setField(controller, "applicationTaskExecutor", requestPool);
+	}
+
+	@AfterEach
+	void tearDown() {
+		requestPool.shutdownNow();
+		ReflectionTestUtils.invokeMethod(passwordHashingService, "shutdownExecutor");
+	}
+
+	@Test
+	void savesTheUserOffTheHashingPool() throws Exception {
+		SignupRequest request = new SignupRequest();
+		request.setUsername("traveller");
+		request.setEmail("traveller@example.com");
+		request.setPassword("secret-pw");
+
+		ResponseEntity<?> response = controller.registerUser(request).get(5, TimeUnit.SECONDS);
+
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		assertEquals("request-io", savedOn.get());
+	}
+}
@@ -0,0 +1,56 @@
+package com.airline.repository;
+
+import com.airline.entity.Airport;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AirportJdbcRepositoryTest {
+
+	private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+	private final AirportJdbcRepository repository = new AirportJdbcRepository();
+	private final List<Airport> airports = List.of(airport("DEL"), airport("BOM"), airport("MAA"));
+
+	AirportJdbcRepositoryTest() {
+		ReflectionTestUtils.setField(repository, "jdbcTemplate", jdbcTemplate);
+	}
+
+	@Test
+	void rowsSkippedOnConflictAreNotCounted() {
+		when(jdbcTemplate.batchUpdate(anyString(), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+				.thenReturn(new int[][] {{1, 0, 1}});
+
+		assertEquals(2, repository.insertBatch(airports));
+		verify(jdbcTemplate, never()).queryForObject(anyString(), eq(Integer.class), any(Object[].class));
+	}
+
+	@Test
+	void rewrittenBatchesAreCountedByCode() {
+		int noInfo = Statement.SUCCESS_NO_INFO;
+		when(jdbcTemplate.batchUpdate(anyString(), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+				.thenReturn(new int[][] {{noInfo, noInfo, noInfo}});
+		when(jdbcTemplate.queryForObject(eq("SELECT count(*) FROM airports WHERE code IN (?, ?, ?)"),
+				eq(Integer.class), any(Object[].class))).thenReturn(2);
+
+		assertEquals(2, repository.insertBatch(airports));
+	}
+
+	private static Airport airport(String code) {
+		return new Airport(null, code, code, "IN", 20.0, 75.0, code);
+	}
+}
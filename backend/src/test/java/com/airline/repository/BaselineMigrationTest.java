@@ -0,0 +1,59 @@
+package com.airline.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.flyway.autoconfigure.FlywayMigrationStrategy;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Upgrades a database created by Hibernate before Flyway: it is baselined at V1,
+ * the later migrations run, and Hibernate validates the entities against the result.
+ */
+@DataJpaTest
+@TestPropertySource(properties = {
+		"spring.jpa.hibernate.ddl-auto=validate",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+class BaselineMigrationTest {
+
+	@TestConfiguration
+	static class PreFlywaySchema {
+		@Bean
+		FlywayMigrationStrategy createPreFlywaySchemaFirst() {
+			return flyway -> {
+				new ResourceDatabasePopulator(new ClassPathResource("db/pre-flyway-schema.sql"))
+						.execute(flyway.getConfiguration().getDataSource());
+				flyway.migrate();
+			};
+		}
+	}
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void preFlywayDatabaseIsBaselinedAndMigrated() {
+		List<String> applied = jdbcTemplate.queryForList(
+				"SELECT \"type\" || ' ' || \"version\" FROM \"flyway_schema_history\" "
+						+ "WHERE \"version\" IS NOT NULL ORDER BY \"installed_rank\"", String.class);
+
+		// V1 is recorded as the baseline rather than run
+		assertEquals(List.of("BASELINE 1", "SQL 2", "SQL 3", "JDBC 4", "SQL 5", "JDBC 6"), applied);
+		assertEquals(1, jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM information_schema.columns WHERE table_name = 'SEATS' AND column_name = 'VERSION'",
+				Integer.class));
+		// V6 burns V3's first block number and starts after its serials
+		assertEquals(2000L, jdbcTemplate.queryForObject("SELECT nextval('ticket_number_seq')", Long.class));
+		assertEquals(3000L, jdbcTemplate.queryForObject("SELECT nextval('ticket_number_seq')", Long.class));
+	}
+}
@@ -0,0 +1,283 @@
+package com.airline.repository;
+
+import com.airline.entity.Aircraft;
+import com.airline.entity.Airport;
+import com.airline.entity.Booking;
+import com.airline.entity.EBookingStatus;
+import com.airline.entity.EFlightStatus;
+import com.airline.entity.ESeatType;
+import com.airline.entity.Flight;
+import com.airline.entity.Seat;
+import com.airline.entity.User;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.boot.jpa.test.autoconfigure.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.TestPropertySource;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.DoubleSummaryStatistics;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@Import(FlightJdbcRepository.class)
+// Schema from the entities: H2 drops CHECK constraints made on a since-closed connection,
+// so the Flyway migrations are exercised separately in SchemaMigrationTest
+@TestPropertySource(properties = {
+		"spring.flyway.enabled=false",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		"spring.jpa.show-sql=false"
+})
+class FlightRepositoryTest {
+
+	private static final int FLIGHTS = 1000;
+	private static final LocalDate DAY = LocalDate.of(2026, 11, 2);
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private FlightRepository flightRepository;
+
+	@Autowired
+	private BookingRepository bookingRepository;
+
+	@Autowired
+	private FlightJdbcRepository flightJdbcRepository;
+
+	private final JsonMapper jsonMapper = JsonMapper.builder().build();
+
+	private Statistics statistics;
+	private Long userId;
+	private Long flightId;
+	private Long originId;
+	private Long destinationId;
+
+	@BeforeEach
+	void setUp() {
+		Airport[] airports = new Airport[20];
+		for (int i = 0; i < airports.length; i++) {
+			airports[i] = entityManager.persist(new Airport(null, "Airport " + i, "City " + i, "Country", 10.0 + i,
+					20.0 + i, "A" + (char) ('A' + i)));
+		}
+		Aircraft[] aircraft = new Aircraft[10];
+		for (int i = 0; i < aircraft.length; i++) {
+			aircraft[i] = entityManager.persist(new Aircraft(null, "Model " + i, 180, 150, 30));
+		}
+
+		Flight[] flights = new Flight[FLIGHTS];
+		for (int i = 0; i < FLIGHTS; i++) {
+			Airport from = airports[i % airports.length];
+			Airport to = airports[(i + 1 + i / airports.length) % airports.length];
+			if (to == from) {
+				to = airports[(i + 2) % airports.length];
+			}
+			LocalDateTime departure = DAY.atTime(0, 0).plusMinutes(i * 7L % 1440);
+			flights[i] = entityManager.persist(new Flight(null, "FL" + i, from, to, departure,
+					departure.plusHours(2), aircraft[i % aircraft.length], EFlightStatus.SCHEDULED, 100.0 + i));
+		}
+
+		User user = entityManager.persist(new User("traveller", "traveller@example.com", "secret"));
+		for (int i = 0; i < 50; i++) {
+			Flight flight = flights[i * 13];
+			Seat seat = entityManager.persist(new Seat(null, "1A", ESeatType.ECONOMY, true, flight, null));
+			entityManager.persist(new Booking(null, user, flight, seat, EBookingStatus.CONFIRMED, LocalDateTime.now()));
+		}
+		entityManager.flush();
+		entityManager.clear();
+
+		userId = user.getId();
+		originId = airports[0].getId();
+		destinationId = airports[1].getId();
+		flightId = flights[FLIGHTS / 2].getId();
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+
+	@Test
+	void listingAllFlightsIsASingleStatement() {
+		List<Flight> flights = flightRepository.findAllWithDetails();
+		render(flights);
+
+		assertEquals(FLIGHTS, flights.size());
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void routeSearchIsASingleStatementWithoutAirportJoins() {
+		List<Flight> flights = flightRepository.findRoute(originId, destinationId, DAY.atStartOfDay(),
+				DAY.atTime(23, 59));
+
+		assertFalse(flights.isEmpty());
+		flights.forEach(flight -> {
+			assertFalse(Hibernate.isInitialized(flight.getDepartureAirport()));
+			assertEquals(originId, flight.getDepartureAirport().getId());
+			assertEquals(destinationId, flight.getArrivalAirport().getId());
+		});
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void keysetPagesCoverEveryFlightOnceWithOneStatementEach() {
+		Set<Long> seen = new HashSet<>();
+		long afterId = 0;
+		List<Flight> page;
+		int pages = 0;
+		while (!(page = flightRepository.findPageById(afterId, Limit.of(300))).isEmpty()) {
+			render(page);
+			page.forEach(flight -> assertTrue(seen.add(flight.getId())));
+			afterId = page.get(page.size() - 1).getId();
+			pages++;
+		}
+		assertEquals(FLIGHTS, seen.size());
+		assertEquals(pages + 1, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void departureTimePagesAreOrderedAndComplete() {
+		Set<Long> seen = new HashSet<>();
+		LocalDateTime afterTime = LocalDateTime.of(1, 1, 1, 0, 0);
+		long afterId = 0;
+		List<Flight> page;
+		while (!(page = flightRepository.findPageByDepartureTime(afterTime, afterId, Limit.of(128))).isEmpty()) {
+			for (Flight flight : page) {
+				int order = flight.getDepartureTime().compareTo(afterTime);
+				assertTrue(order > 0 || (order == 0 && flight.getId() > afterId));
+				assertTrue(seen.add(flight.getId()));
+				afterTime = flight.getDepartureTime();
+				afterId = flight.getId();
+			}
+		}
+		assertEquals(FLIGHTS, seen.size());
+	}
+
+	@Test
+	void flightsWithoutAirportsAreListedAndPagedLikeTheExport() {
+		Long unrouted = entityManager.persist(new Flight(null, "FL-NONE", null, null, DAY.atTime(12, 0),
+				DAY.atTime(14, 0), null, EFlightStatus.SCHEDULED, 99.0)).getId();
+		entityManager.flush();
+		entityManager.clear();
+
+		Set<Long> byId = new HashSet<>();
+		long afterId = 0;
+		List<Flight> page;
+		while (!(page = flightRepository.findPageById(afterId, Limit.of(300))).isEmpty()) {
+			render(page);
+			page.forEach(flight -> byId.add(flight.getId()));
+			afterId = page.get(page.size() - 1).getId();
+		}
+		Set<Long> byTime = new HashSet<>();
+		LocalDateTime afterTime = LocalDateTime.of(1, 1, 1, 0, 0);
+		afterId = 0;
+		while (!(page = flightRepository.findPageByDepartureTime(afterTime, afterId, Limit.of(128))).isEmpty()) {
+			page.forEach(flight -> byTime.add(flight.getId()));
+			afterTime = page.get(page.size() - 1).getDepartureTime();
+			afterId = page.get(page.size() - 1).getId();
+		}
+		List<Object> exported = new ArrayList<>();
+		flightJdbcRepository.exportAll(row -> exported.add(row.get("id")));
+
+		assertTrue(byId.contains(unrouted));
+		assertTrue(byTime.contains(unrouted));
+		assertEquals(FLIGHTS + 1, byId.size());
+		assertEquals(FLIGHTS + 1, byTime.size());
+		assertEquals(FLIGHTS + 1, exported.size());
+		assertEquals(FLIGHTS + 1, flightRepository.findAllWithDetails().size());
+	}
+
+	@Test
+	void delayRiskLookupKeepsFlightsWithoutADepartureAirport() {
+		Long unrouted = entityManager.persist(new Flight(null, "FL-NONE", null, null, DAY.atTime(12, 0),
+				DAY.atTime(14, 0), null, EFlightStatus.SCHEDULED, 99.0)).getId();
+		entityManager.flush();
+		entityManager.clear();
+		statistics.clear();
+
+		List<Flight> flights = flightRepository.findAllWithDepartureAirportByIdIn(List.of(flightId, unrouted));
+
+		assertEquals(1, statistics.getPrepareStatementCount());
+		assertEquals(Set.of(flightId, unrouted), flights.stream().map(Flight::getId).collect(Collectors.toSet()));
+		assertTrue(flights.stream().anyMatch(flight -> flight.getDepartureAirport() == null));
+	}
+
+	@Test
+	void exportStreamsEveryFlightFromACursor() {
+		List<Object> codes = new ArrayList<>();
+		flightJdbcRepository.exportAll(row -> codes.add(row.get("departureAirport")));
+
+		assertEquals(FLIGHTS, codes.size());
+		assertTrue(codes.stream().allMatch(code -> code instanceof String));
+	}
+
+	@Test
+	void fareDaysAggregateARouteInOneStatement() {
+		Map<LocalDate, DoubleSummaryStatistics> expected = new TreeMap<>();
+		for (Flight flight : flightRepository.findAllWithDetails()) {
+			if (flight.getDepartureAirport().getId().equals(originId)
+					&& flight.getArrivalAirport().getId().equals(destinationId)) {
+				expected.computeIfAbsent(flight.getDepartureTime().toLocalDate(), day -> new DoubleSummaryStatistics())
+						.accept(flight.getPrice());
+			}
+		}
+		statistics.clear();
+
+		List<FareDayView> days = flightRepository.findFareDays(originId, destinationId, DAY.minusDays(1).atStartOfDay(),
+				DAY.plusDays(1).atStartOfDay());
+
+		assertEquals(1, statistics.getPrepareStatementCount());
+		assertEquals(List.copyOf(expected.keySet()), days.stream().map(FareDayView::getDay).toList());
+		for (FareDayView day : days) {
+			assertEquals(expected.get(day.getDay()).getMin(), day.getMinPrice());
+			assertEquals(expected.get(day.getDay()).getCount(), day.getFlights());
+		}
+		assertTrue(flightRepository.findFareDays(originId, destinationId, DAY.plusDays(1).atStartOfDay(),
+				DAY.plusDays(8).atStartOfDay()).isEmpty());
+	}
+
+	@Test
+	void flightDetailIsASingleStatement() {
+		Flight flight = flightRepository.findWithDetailsById(flightId).orElseThrow();
+		render(List.of(flight));
+
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	@Test
+	void userBookingsAreASingleStatement() {
+		List<Booking> bookings = bookingRepository.findByUserIdWithDetails(userId);
+		render(bookings);
+
+		assertEquals(50, bookings.size());
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+
+	/** Serializes outside the persistence context, as the controllers do with open-in-view off. */
+	private void render(List<?> entities) {
+		entityManager.clear();
+		jsonMapper.writeValueAsString(entities);
+	}
+}
@@ -0,0 +1,36 @@
+package com.airline.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs the Flyway migrations on an empty database and lets Hibernate validate the
+ * entities against the result.
+ */
+@DataJpaTest
+@TestPropertySource(properties = {
+		"spring.jpa.hibernate.ddl-auto=validate",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+class SchemaMigrationTest {
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void migrationsMatchTheEntitiesAndIndexFlightSearch() {
+		List<String> columns = jdbcTemplate.queryForList(
+				"SELECT c.column_name FROM information_schema.index_columns c "
+						+ "WHERE c.index_name = 'IDX_FLIGHTS_ROUTE_DEPARTURE' ORDER BY c.ordinal_position",
+				String.class);
+
+		assertEquals(List.of("DEPARTURE_AIRPORT_ID", "ARRIVAL_AIRPORT_ID", "DEPARTURE_TIME"), columns);
+	}
+}
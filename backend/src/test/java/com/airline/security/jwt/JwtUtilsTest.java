@@ -0,0 +1,100 @@
+package com.airline.security.jwt;
+
+import com.airline.security.services.UserDetailsImpl;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.io.Encoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class JwtUtilsTest {
+
+	private final String secret = Encoders.BASE64.encode(Keys.secretKeyFor(SignatureAlgorithm.HS256).getEncoded());
+	private final Key key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+	private JwtUtils jwtUtils;
+
+	@BeforeEach
+	void setUp() {
+		jwtUtils = new JwtUtils();
+		ReflectionTestUtils.setField(jwtUtils, "jwtSecret", secret);
+		ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 60_000);
+		ReflectionTestUtils.setField(jwtUtils, "verifiedCacheMaxEntries", 2);
+		jwtUtils.init();
+	}
+
+	@Test
+	void verifiesOnceThenServesTheSameTokenFromCache() {
+		String token = token("traveller", 60_000);
+
+		assertEquals("traveller", jwtUtils.parseValidatedClaims(token).getSubject());
+		assertEquals("traveller", jwtUtils.getUserNameFromJwtToken(token));
+
+		assertEquals(1L, jwtUtils.getVerifiedCacheStats().get("misses"));
+		assertEquals(1L, jwtUtils.getVerifiedCacheStats().get("hits"));
+	}
+
+	@Test
+	void cachedSignatureOnATamperedPayloadIsRejected() {
+		String token = token("traveller", 60_000);
+		jwtUtils.parseValidatedClaims(token);
+
+		String[] parts = token.split("\\.");
+		String forgedPayload = Base64.getUrlEncoder().withoutPadding()
+				.encodeToString("{\"sub\":\"admin\",\"exp\":4102444800}".getBytes(StandardCharsets.UTF_8));
+		assertNull(jwtUtils.parseValidatedClaims(parts[0] + "." + forgedPayload + "." + parts[2]));
+	}
+
+	@Test
+	void rejectsExpiredAndForeignTokensAndStaysBounded() {
+		assertNull(jwtUtils.parseValidatedClaims(token("traveller", -1_000)));
+
+		Key otherKey = Keys.secretKeyFor(SignatureAlgorithm.HS256);
+		String foreign = Jwts.builder().setSubject("traveller").setExpiration(new Date(System.currentTimeMillis() + 60_000))
+				.signWith(otherKey, SignatureAlgorithm.HS256).compact();
+		assertNull(jwtUtils.parseValidatedClaims(foreign));
+		assertNull(jwtUtils.parseValidatedClaims("not-a-token"));
+
+		for (int i = 0; i < 5; i++) {
+			Claims claims = jwtUtils.parseValidatedClaims(token("user" + i, 60_000));
+			assertEquals("user" + i, claims.getSubject());
+		}
+		assertEquals(2L, jwtUtils.getVerifiedCacheStats().get("size"));
+	}
+
+	@Test
+	void issuedTokensCarryThePrincipal() {
+		UserDetailsImpl user = new UserDetailsImpl(7L, "traveller", "traveller@example.com", "hash",
+				List.of(new SimpleGrantedAuthority("ROLE_CUSTOMER"), new SimpleGrantedAuthority("ROLE_ADMIN")));
+		String token = jwtUtils.generateJwtToken(new UsernamePasswordAuthenticationToken(user, null));
+
+		UserDetailsImpl principal = jwtUtils.principalFromClaims(jwtUtils.parseValidatedClaims(token));
+		assertEquals(7L, principal.getId());
+		assertEquals("traveller", principal.getUsername());
+		assertEquals("traveller@example.com", principal.getEmail());
+		assertNull(principal.getPassword());
+		assertEquals(user.getAuthorities(), principal.getAuthorities());
+
+		assertNull(jwtUtils.principalFromClaims(jwtUtils.parseValidatedClaims(token("legacy", 60_000))));
+	}
+
+	private String token(String subject, long ttlMillis) {
+		return Jwts.builder().setSubject(subject).setIssuedAt(new Date())
+				.setExpiration(new Date(System.currentTimeMillis() + ttlMillis))
+				.signWith(key, SignatureAlgorithm.HS256).compact();
+	}
+}
@@ -0,0 +1,91 @@
+package com.airline.security.services;
+
+import com.airline.entity.ERole;
+import com.airline.entity.Role;
+import com.airline.entity.User;
+import com.airline.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserDetailsServiceImplTest {
+
+	private final UserDetailsImpl fromToken = new UserDetailsImpl(7L, "traveller", "traveller@example.com", null,
+			List.of(new SimpleGrantedAuthority("ROLE_CUSTOMER")));
+
+	private UserRepository userRepository;
+	private UserDetailsServiceImpl service;
+
+	@BeforeEach
+	void setUp() {
+		userRepository = mock(UserRepository.class);
+		service = new UserDetailsServiceImpl();
+		ReflectionTestUtils.setField(service, "userRepository", userRepository);
+		ReflectionTestUtils.setField(service, "principalCacheMaxEntries", 100);
+	}
+
+	@Test
+	void trustsTokenClaimsWithoutTouchingTheDatabase() {
+		assertSame(fromToken, service.resolvePrincipal("traveller", fromToken));
+
+		verify(userRepository, never()).findByUsername(anyString());
+		verify(userRepository, never()).findWithRolesByUsername(anyString());
+	}
+
+	@Test
+	void legacyTokensFallBackToALookup() {
+		when(userRepository.findByUsername("traveller")).thenReturn(Optional.of(user(7L, ERole.ROLE_CUSTOMER)));
+
+		UserDetails principal = service.resolvePrincipal("traveller", null);
+
+		assertEquals("traveller", principal.getUsername());
+		verify(userRepository).findByUsername("traveller");
+	}
+
+	@Test
+	void principalCacheRereadsTheUserOncePerTtl() {
+		ReflectionTestUtils.setField(service, "principalCacheTtlSeconds", 60L);
+		when(userRepository.findWithRolesByUsername("traveller")).thenReturn(Optional.of(user(7L, ERole.ROLE_ADMIN)));
+
+		for (int i = 0; i < 5; i++) {
+			UserDetails principal = service.resolvePrincipal("traveller", fromToken);
+			// Roles come from the database, so a role change wins over the token
+			assertEquals(List.of(new SimpleGrantedAuthority("ROLE_ADMIN")), principal.getAuthorities());
+		}
+		verify(userRepository, times(1)).findWithRolesByUsername("traveller");
+	}
+
+	@Test
+	void principalCacheRejectsDeletedOrReplacedUsers() {
+		ReflectionTestUtils.setField(service, "principalCacheTtlSeconds", 60L);
+		when(userRepository.findWithRolesByUsername("traveller")).thenReturn(Optional.empty());
+		assertThrows(UsernameNotFoundException.class, () -> service.resolvePrincipal("traveller", fromToken));
+
+		when(userRepository.findWithRolesByUsername("traveller")).thenReturn(Optional.of(user(8L, ERole.ROLE_CUSTOMER)));
+		assertThrows(UsernameNotFoundException.class, () -> service.resolvePrincipal("traveller", fromToken));
+	}
+
+	private static User user(long id, ERole role) {
+		User user = new User("traveller", "traveller@example.com", "hash");
+		user.setId(id);
+		user.setRoles(Set.of(new Role(1, role)));
+		return user;
+	}
+}
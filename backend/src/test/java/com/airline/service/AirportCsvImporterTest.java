@@ -0,0 +1,64 @@
+package com.airline.service;
+
+import com.airline.entity.Airport;
+import com.airline.repository.AirportJdbcRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AirportCsvImporterTest {
+
+	private static final String HEADER = "id,ident,type,name,latitude_deg,longitude_deg,elevation_ft,continent,"
+			+ "iso_country,iso_region,municipality,scheduled_service,gps_code,iata_code\n";
+
+	@Test
+	void rowsWithBadCoordinatesDoNotClaimTheirCode() throws IOException {
+		String csv = HEADER
+				+ row("Old Strip", "abc", "77.1", "DEL")
+				+ row("Nowhere", "NaN", "77.1", "DEL")
+				+ row("Far North", "91.0", "77.1", "DEL")
+				+ row("Indira Gandhi", "28.56", "77.1", "DEL")
+				+ row("Indira Gandhi Annex", "28.57", "77.2", "DEL")
+				+ row("Chhatrapati Shivaji", "19.09", "72.87", "BOM");
+
+		List<Airport> written = new ArrayList<>();
+		AirportJdbcRepository repository = mock(AirportJdbcRepository.class);
+		when(repository.insertBatch(anyList())).thenAnswer(invocation -> {
+			List<Airport> batch = invocation.getArgument(0);
+			written.addAll(batch);
+			return batch.size();
+		});
+
+		AirportCsvImporter importer = new AirportCsvImporter();
+		ReflectionTestUtils.setField(importer, "airportJdbcRepository", repository);
+		ReflectionTestUtils.setField(importer, "batchSize", 100);
+		ReflectionTestUtils.setField(importer, "progressInterval", 1000);
+
+		Set<String> existingCodes = new HashSet<>(Set.of("BOM"));
+		AirportCsvImporter.ImportResult result = importer.importCsv(
+				new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), existingCodes);
+
+		assertEquals(List.of("Indira Gandhi"), written.stream().map(Airport::getName).toList());
+		assertEquals(28.56, written.get(0).getLatitude());
+		assertEquals(6, result.rowsRead());
+		assertEquals(1, result.inserted());
+		assertEquals(5, result.skipped());
+	}
+
+	private static String row(String name, String latitude, String longitude, String iata) {
+		return String.join(",", "1", "X", "medium_airport", name, latitude, longitude, "0", "AS", "IN", "IN-DL",
+				"City", "yes", "", iata) + "\n";
+	}
+}
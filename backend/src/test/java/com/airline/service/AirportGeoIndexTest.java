@@ -0,0 +1,90 @@
+package com.airline.service;
+
+import com.airline.entity.Airport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AirportGeoIndexTest {
+
+	private final List<Airport> airports = new ArrayList<>();
+	private final AirportGeoIndex index = new AirportGeoIndex();
+
+	@BeforeEach
+	void setUp() {
+		Random random = new Random(3);
+		for (long id = 1; id <= 5000; id++) {
+			double latitude = Math.toDegrees(Math.asin(2 * random.nextDouble() - 1));
+			double longitude = random.nextDouble() * 360 - 180;
+			airports.add(new Airport(id, "Airport " + id, "City", "Country", latitude, longitude, "A" + id));
+		}
+		airports.add(new Airport(9001L, "No location", "City", "Country", null, null, "NOLOC"));
+		index.rebuild(airports);
+	}
+
+	@Test
+	void nearestMatchesABruteForceScan() {
+		Random random = new Random(5);
+		for (int q = 0; q < 200; q++) {
+			double latitude = random.nextDouble() * 180 - 90;
+			double longitude = random.nextDouble() * 360 - 180;
+
+			List<Long> expected = bruteForce(latitude, longitude).stream().limit(7).map(Airport::getId).toList();
+			List<Long> actual = index.nearest(latitude, longitude, 7, null).stream()
+					.map(nearby -> nearby.airport().getId()).toList();
+			assertEquals(expected, actual);
+		}
+	}
+
+	@Test
+	void radiusQueryMatchesABruteForceScanAcrossTheAntimeridian() {
+		double latitude = -17.75;
+		double longitude = 179.9;
+		List<Long> expected = bruteForce(latitude, longitude).stream()
+				.filter(airport -> distance(latitude, longitude, airport) <= 1500)
+				.map(Airport::getId).toList();
+
+		List<AirportGeoIndex.Nearby> actual = index.within(latitude, longitude, 1500, 1000);
+
+		assertTrue(expected.size() > 3);
+		assertEquals(expected, actual.stream().map(nearby -> nearby.airport().getId()).toList());
+		assertTrue(actual.stream().anyMatch(nearby -> nearby.airport().getLongitude() < 0));
+	}
+
+	@Test
+	void excludesTheReferenceAirportAndPicksUpAdditions() {
+		Airport reference = airports.get(42);
+		List<AirportGeoIndex.Nearby> nearest = index.nearest(reference.getLatitude(), reference.getLongitude(), 3,
+				reference.getId());
+		assertEquals(3, nearest.size());
+		assertTrue(nearest.stream().noneMatch(nearby -> nearby.airport().getId().equals(reference.getId())));
+
+		Airport added = new Airport(7000L, "New", "City", "Country", reference.getLatitude() + 0.01,
+				reference.getLongitude(), "NEW");
+		index.put(added);
+		assertEquals(7000L, index.nearest(reference.getLatitude(), reference.getLongitude(), 1, reference.getId())
+				.get(0).airport().getId());
+		assertEquals(1.11, index.nearest(reference.getLatitude(), reference.getLongitude(), 1, reference.getId())
+				.get(0).distanceKm(), 0.01);
+	}
+
+	private List<Airport> bruteForce(double latitude, double longitude) {
+		Map<Airport, Double> distances = new IdentityHashMap<>();
+		airports.stream().filter(airport -> airport.getLatitude() != null)
+				.forEach(airport -> distances.put(airport, distance(latitude, longitude, airport)));
+		return distances.keySet().stream().sorted(Comparator.comparingDouble(distances::get)).toList();
+	}
+
+	private static double distance(double latitude, double longitude, Airport airport) {
+		return AirportGeoIndex.haversineKm(latitude, longitude, airport.getLatitude(), airport.getLongitude());
+	}
+}
@@ -0,0 +1,59 @@
+package com.airline.service;
+
+import com.airline.entity.Airport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AirportSearchIndexTest {
+
+	private AirportSearchIndex index;
+
+	@BeforeEach
+	void setUp() {
+		index = new AirportSearchIndex();
+		index.rebuild(List.of(
+				new Airport(1L, "Indira Gandhi International Airport", "New Delhi", "IN", 28.5562, 77.1000, "DEL"),
+				new Airport(2L, "Delaware Coastal Airport", "Georgetown", "US", 38.6891, -75.3589, "GED"),
+				new Airport(3L, "Heathrow Airport", "London", "GB", 51.4700, -0.4543, "LHR"),
+				new Airport(4L, "Aeroporto de São Paulo/Guarulhos", "São Paulo", "BR", -23.4356, -46.4731, "GRU"),
+				new Airport(5L, "Chennai International Airport", "Chennai", "IN", 12.9941, 80.1709, "MAA")));
+	}
+
+	@Test
+	void exactCodeRanksFirst() {
+		assertEquals(List.of("DEL", "GED"), codes(index.search("del", 10)));
+	}
+
+	@Test
+	void matchesNameAndCityPrefixesIgnoringAccents() {
+		assertEquals(List.of("GRU"), codes(index.search("sao pa", 10)));
+		assertEquals(List.of("LHR"), codes(index.search("Lond", 10)));
+	}
+
+	@Test
+	void fallsBackToSubstringMatches() {
+		assertEquals(List.of("LHR"), codes(index.search("throw", 10)));
+	}
+
+	@Test
+	void capsResultsAndPicksUpWrites() {
+		assertEquals(3, index.search("airport", 3).size());
+		assertTrue(index.search("bom", 10).isEmpty());
+
+		index.put(new Airport(6L, "Chhatrapati Shivaji Maharaj International Airport", "Mumbai", "IN", 19.0896,
+				72.8656, "BOM"));
+
+		assertEquals(List.of("BOM"), codes(index.search("bom", 10)));
+		assertEquals(6, index.size());
+	}
+
+	private static List<String> codes(List<Airport> airports) {
+		return airports.stream().map(Airport::getCode).collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,135 @@
+package com.airline.service;
+
+import com.airline.entity.Airport;
+import com.airline.entity.DatasetVersion;
+import com.airline.repository.AirportRepository;
+import com.airline.repository.DatasetVersionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AirportServiceTest {
+
+	private final List<Airport> airports = List.of(
+			new Airport(1L, "Indira Gandhi International Airport", "New Delhi", "IN", 28.5562, 77.1, "DEL"),
+			new Airport(2L, "Chhatrapati Shivaji International Airport", "Mumbai", "IN", 19.0887, 72.8679, "BOM"));
+
+	private AirportRepository airportRepository;
+	private AirportCsvImporter airportCsvImporter;
+	private DatasetVersionRepository datasetVersionRepository;
+	private AirportService service;
+
+	@BeforeEach
+	void setUp() {
+		airportRepository = mock(AirportRepository.class);
+		when(airportRepository.findAll()).thenReturn(airports);
+		airportCsvImporter = mock(AirportCsvImporter.class);
+		datasetVersionRepository = mock(DatasetVersionRepository.class);
+		when(datasetVersionRepository.findById("airports")).thenReturn(Optional.empty());
+
+		service = new AirportService();
+		ReflectionTestUtils.setField(service, "airportRepository", airportRepository);
+		ReflectionTestUtils.setField(service, "airportSearchIndex", new AirportSearchIndex());
+		ReflectionTestUtils.setField(service, "airportGeoIndex", new AirportGeoIndex());
+		ReflectionTestUtils.setField(service, "airportCsvImporter", airportCsvImporter);
+		ReflectionTestUtils.setField(service, "datasetVersionRepository", datasetVersionRepository);
+		ReflectionTestUtils.setField(service, "referenceDataCache", mock(ReferenceDataCache.class));
+		ReflectionTestUtils.setField(service, "datasetResource", "airports-sample.csv");
+	}
+
+	@Test
+	void importJobRunsInTheBackgroundAndReportsLoadingUntilDone() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicReference<String> thread = new AtomicReference<>();
+		when(airportCsvImporter.importCsv(any(), anySet())).thenAnswer(invocation -> {
+			thread.set(Thread.currentThread().getName());
+			release.await(5, TimeUnit.SECONDS);
+			return new AirportCsvImporter.ImportResult(2, 2, 0, 1);
+		});
+
+		service.startImportJob();
+		assertEquals(AirportService.DataState.LOADING, service.getDataState());
+		release.countDown();
+		awaitSettled();
+
+		assertEquals(AirportService.DataState.READY, service.getDataState());
+		assertEquals("airport-import", thread.get());
+		assertEquals(2, service.getDataStatus().get("indexedAirports"));
+	}
+
+	@Test
+	void unchangedDatasetIsSkippedWithoutASecondIndexBuild() throws Exception {
+		when(airportCsvImporter.importCsv(any(), anySet())).thenReturn(new AirportCsvImporter.ImportResult(2, 2, 0, 1));
+		service.runImportJob();
+
+		verify(airportCsvImporter, times(1)).importCsv(any(), anySet());
+		verify(airportRepository, times(2)).findAll();
+		ArgumentCaptor<DatasetVersion> saved = ArgumentCaptor.forClass(DatasetVersion.class);
+		verify(datasetVersionRepository).save(saved.capture());
+		assertEquals(service.getDataStatus().get("datasetChecksum"), saved.getValue().getChecksum());
+
+		when(datasetVersionRepository.findById("airports")).thenReturn(Optional.of(saved.getValue()));
+		service.runImportJob();
+
+		verify(airportCsvImporter, times(1)).importCsv(any(), anySet());
+		verify(airportRepository, times(3)).findAll();
+		assertEquals(AirportService.DataState.READY, service.getDataState());
+	}
+
+	@Test
+	void importThatAddsNothingKeepsTheFirstIndexBuild() throws Exception {
+		when(airportCsvImporter.importCsv(any(), anySet())).thenReturn(new AirportCsvImporter.ImportResult(2, 0, 2, 1));
+
+		service.runImportJob();
+
+		verify(airportRepository, times(1)).findAll();
+		assertEquals(AirportService.DataState.READY, service.getDataState());
+	}
+
+	@Test
+	void failedImportDegradesButKeepsServingTheDatabase() throws Exception {
+		when(airportCsvImporter.importCsv(any(), anySet())).thenThrow(new IOException("disk gone"));
+
+		service.runImportJob();
+
+		assertEquals(AirportService.DataState.DEGRADED, service.getDataState());
+		assertEquals(List.of("DEL"), service.searchAirports("del").stream().map(Airport::getCode).toList());
+	}
+
+	@Test
+	void searchBeforeTheIndexIsBuiltAppliesTheLimit() {
+		service.searchAirports("a", 3);
+		service.searchAirports("a", 500);
+
+		verify(airportRepository).findByNameContainingIgnoreCaseOrCityContainingIgnoreCaseOrCodeContainingIgnoreCase(
+				"a", "a", "a", Limit.of(3));
+		verify(airportRepository).findByNameContainingIgnoreCaseOrCityContainingIgnoreCaseOrCodeContainingIgnoreCase(
+				"a", "a", "a", Limit.of(50));
+	}
+
+	private void awaitSettled() throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (service.getDataState() == AirportService.DataState.LOADING) {
+			assertTrue(System.nanoTime() < deadline, "import job did not finish");
+			Thread.sleep(5);
+		}
+	}
+}
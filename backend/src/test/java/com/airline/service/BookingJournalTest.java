@@ -0,0 +1,64 @@
+package com.airline.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BookingJournalTest {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void recoveryReturnsBookingsAfterTheLastCommit() throws Exception {
+		Path path = dir.resolve("journal.log");
+		try (BookingJournal journal = new BookingJournal(path)) {
+			for (long sequence = 1; sequence <= 5; sequence++) {
+				journal.sync(journal.append(booking(sequence, sequence == 3 ? null : 10 + sequence)));
+			}
+			journal.commit(2);
+		}
+		// A crash mid-append leaves a torn line
+		Files.writeString(path, "B\t6\t1\t2", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+		try (BookingJournal journal = new BookingJournal(path)) {
+			BookingJournal.Recovery recovery = journal.recover();
+
+			assertEquals(List.of(3L, 4L, 5L), recovery.bookings().stream().map(PendingBooking::sequence).toList());
+			assertEquals(new PendingBooking(3, 1L, 2L, null, "9990000000013", 199.0,
+					LocalDateTime.of(2026, 10, 1, 12, 0), true), recovery.bookings().get(0));
+			assertEquals(5, recovery.lastSequence());
+		}
+	}
+
+	@Test
+	void truncatedJournalStartsOver() throws Exception {
+		Path path = dir.resolve("journal.log");
+		try (BookingJournal journal = new BookingJournal(path)) {
+			journal.append(booking(1, 11L));
+			journal.commit(1);
+			assertTrue(journal.size() > 0);
+
+			journal.truncate();
+			journal.sync(journal.append(booking(2, 12L)));
+		}
+
+		try (BookingJournal journal = new BookingJournal(path)) {
+			assertEquals(List.of(2L), journal.recover().bookings().stream().map(PendingBooking::sequence).toList());
+		}
+	}
+
+	private static PendingBooking booking(long sequence, Long seatId) {
+		return new PendingBooking(sequence, 1L, 2L, seatId, "99900000000" + (10 + sequence), 199.0,
+				LocalDateTime.of(2026, 10, 1, 12, 0), false);
+	}
+}
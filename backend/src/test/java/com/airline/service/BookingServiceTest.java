@@ -0,0 +1,171 @@
+package com.airline.service;
+
+import com.airline.entity.Airport;
+import com.airline.entity.EFlightStatus;
+import com.airline.entity.ESeatType;
+import com.airline.entity.Flight;
+import com.airline.entity.Seat;
+import com.airline.entity.User;
+import com.airline.payload.response.BookingConfirmation;
+import com.airline.repository.AirportRepository;
+import com.airline.repository.FlightRepository;
+import com.airline.repository.SeatRepository;
+import com.airline.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.reset;
+
+/**
+ * Runs the booking pipeline against a real database, committing each booking as
+ * the application does.
+ */
+@DataJpaTest
+@Import({ BookingService.class, SeatReservationService.class, SeatHoldService.class, TicketNumberGenerator.class,
+		TicketNumberSequence.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+		"spring.flyway.enabled=false",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+class BookingServiceTest {
+
+	@Autowired
+	private BookingService bookingService;
+
+	@Autowired
+	private SeatHoldService seatHoldService;
+
+	@Autowired
+	private SeatReservationService seatReservationService;
+
+	@MockitoSpyBean
+	private TicketNumberGenerator ticketNumberGenerator;
+
+	@Autowired
+	private AirportRepository airportRepository;
+
+	@Autowired
+	private FlightRepository flightRepository;
+
+	@Autowired
+	private SeatRepository seatRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Long userId;
+	private Long flightId;
+	private Long seatId;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate.execute("DELETE FROM tickets");
+		jdbcTemplate.execute("DELETE FROM payments");
+		jdbcTemplate.execute("DELETE FROM bookings");
+		jdbcTemplate.execute("DELETE FROM seats");
+		jdbcTemplate.execute("DELETE FROM flights");
+		jdbcTemplate.execute("DELETE FROM airports");
+		jdbcTemplate.execute("DELETE FROM users");
+
+		Airport origin = airportRepository.save(new Airport(null, "Origin", "A", "X", 0.0, 0.0, "AAA"));
+		Airport destination = airportRepository.save(new Airport(null, "Destination", "B", "X", 1.0, 1.0, "BBB"));
+		LocalDateTime departure = LocalDateTime.now().plusDays(3);
+		Flight flight = flightRepository.save(new Flight(null, "XX-1", origin, destination, departure,
+				departure.plusHours(2), null, EFlightStatus.SCHEDULED, 199.0));
+		flightId = flight.getId();
+		seatId = seatRepository.save(new Seat(null, "1A", ESeatType.ECONOMY, false, flight, null)).getId();
+		userId = userRepository.save(new User("traveller", "traveller@example.com", "hash")).getId();
+	}
+
+	@Test
+	void bookingWritesBookingPaymentAndTicketTogether() {
+		BookingConfirmation confirmation = bookingService.book(userId, flightId, seatId);
+
+		assertEquals("1A", confirmation.getSeatNumber());
+		assertEquals(199.0, confirmation.getAmount());
+		assertTrue(confirmation.getTicketNumber().matches("999\\d{10}"));
+		assertEquals(1, count("bookings"));
+		assertEquals(1, count("payments"));
+		assertEquals(confirmation.getTicketNumber(),
+				jdbcTemplate.queryForObject("SELECT ticket_number FROM tickets", String.class));
+		assertTrue(seatRepository.findById(seatId).orElseThrow().getIsBooked());
+	}
+
+	@Test
+	void takenSeatIsRejectedWithoutWritingAnything() {
+		bookingService.book(userId, flightId, seatId);
+
+		assertThrows(SeatUnavailableException.class, () -> bookingService.book(userId, flightId, seatId));
+		assertEquals(1, count("bookings"));
+		assertEquals(1, count("tickets"));
+	}
+
+	@Test
+	void unknownFlightIsNotFoundWithoutClaimingTheSeat() {
+		assertThrows(FlightNotFoundException.class, () -> bookingService.book(userId, -1L, null));
+		assertThrows(FlightNotFoundException.class, () -> bookingService.book(userId, -1L, seatId));
+
+		assertEquals("1A", bookingService.book(userId, flightId, seatId).getSeatNumber());
+		assertEquals(1, count("bookings"));
+	}
+
+	@Test
+	void failureAfterTheSeatClaimRollsBackEverything() {
+		doThrow(new IllegalStateException("sequence unavailable")).when(ticketNumberGenerator).next();
+
+		assertThrows(IllegalStateException.class, () -> bookingService.book(userId, flightId, seatId));
+		assertEquals(0, count("bookings"));
+		assertEquals(0, count("payments"));
+		assertFalse(seatRepository.findById(seatId).orElseThrow().getIsBooked());
+
+		// The seat claim was released with the rollback
+		reset(ticketNumberGenerator);
+		assertEquals("1A", bookingService.book(userId, flightId, seatId).getSeatNumber());
+	}
+
+	@Test
+	void holdOnASeatSoldElsewhereKeepsTheSeatClaimed() {
+		SeatHold hold = seatHoldService.hold(flightId, seatId, userId);
+		// Sold by another instance after this one loaded its seat map
+		jdbcTemplate.update("UPDATE seats SET is_booked = TRUE, version = version + 1 WHERE id = ?", seatId);
+
+		assertThrows(SeatUnavailableException.class, () -> bookingService.confirmHold(hold.getId(), userId));
+		assertEquals(0, count("bookings"));
+		assertTrue(seatReservationService.isBooked(flightId, seatId));
+	}
+
+	@Test
+	void failedConfirmationReleasesTheHeldSeatOnce() {
+		SeatHold hold = seatHoldService.hold(flightId, seatId, userId);
+		doThrow(new IllegalStateException("sequence unavailable")).when(ticketNumberGenerator).next();
+
+		assertThrows(IllegalStateException.class, () -> bookingService.confirmHold(hold.getId(), userId));
+		assertFalse(seatReservationService.isBooked(flightId, seatId));
+		assertFalse(seatRepository.findById(seatId).orElseThrow().getIsBooked());
+		reset(ticketNumberGenerator);
+	}
+
+	private int count(String table) {
+		return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+	}
+}
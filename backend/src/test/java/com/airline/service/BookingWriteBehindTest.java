@@ -0,0 +1,263 @@
+package com.airline.service;
+
+import com.airline.entity.Airport;
+import com.airline.entity.EFlightStatus;
+import com.airline.entity.ESeatType;
+import com.airline.entity.Flight;
+import com.airline.entity.Seat;
+import com.airline.entity.User;
+import com.airline.payload.response.BookingConfirmation;
+import com.airline.repository.AirportRepository;
+import com.airline.repository.BookingRepository;
+import com.airline.repository.FlightRepository;
+import com.airline.repository.PaymentRepository;
+import com.airline.repository.SeatRepository;
+import com.airline.repository.TicketRepository;
+import com.airline.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@Import({ SeatReservationService.class, TicketNumberGenerator.class, TicketNumberSequence.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+		"spring.flyway.enabled=false",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		"spring.jpa.properties.hibernate.jdbc.batch_size=50",
+		"spring.jpa.properties.hibernate.order_inserts=true",
+		"spring.jpa.properties.hibernate.order_updates=true"
+})
+class BookingWriteBehindTest {
+
+	private static final int SEATS = 120;
+
+	@TempDir
+	Path dir;
+
+	@Autowired
+	private SeatReservationService seatReservationService;
+
+	@Autowired
+	private TicketNumberGenerator ticketNumberGenerator;
+
+	@Autowired
+	private AirportRepository airportRepository;
+
+	@Autowired
+	private FlightRepository flightRepository;
+
+	@Autowired
+	private SeatRepository seatRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private BookingRepository bookingRepository;
+
+	@Autowired
+	private PaymentRepository paymentRepository;
+
+	@Autowired
+	private TicketRepository ticketRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private final List<Long> seatIds = new ArrayList<>();
+	private Long userId;
+	private Long flightId;
+	private BookingWriteBehind writeBehind;
+
+	@BeforeEach
+	void setUp() {
+		Airport origin = airportRepository.save(new Airport(null, "Origin", "A", "X", 0.0, 0.0, "AAA"));
+		Airport destination = airportRepository.save(new Airport(null, "Destination", "B", "X", 1.0, 1.0, "BBB"));
+		LocalDateTime departure = LocalDateTime.now().plusDays(3);
+		Flight flight = flightRepository.save(new Flight(null, "XX-1", origin, destination, departure,
+				departure.plusHours(2), null, EFlightStatus.SCHEDULED, 199.0));
+		flightId = flight.getId();
+		List<Seat> seats = new ArrayList<>();
+		for (int i = 0; i < SEATS; i++) {
+			seats.add(new Seat(null, "S" + i, ESeatType.ECONOMY, false, flight, null));
+		}
+		seatRepository.saveAll(seats).forEach(seat -> seatIds.add(seat.getId()));
+		userId = userRepository.save(new User("traveller", "traveller@example.com", "hash")).getId();
+	}
+
+	@AfterEach
+	void tearDown() throws Exception {
+		if (writeBehind != null) {
+			writeBehind.shutdown();
+		}
+		for (String table : new String[] { "tickets", "payments", "bookings", "seats", "flights", "airports",
+				"users" }) {
+			jdbcTemplate.execute("DELETE FROM " + table);
+		}
+	}
+
+	@Test
+	void acknowledgedBookingsAreWrittenInBatches() throws Exception {
+		writeBehind = start(1000);
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		List<BookingConfirmation> confirmations = new ArrayList<>();
+		for (Long seatId : seatIds) {
+			confirmations.add(writeBehind.submit(userId, flightId, seatId));
+		}
+		assertThrows(SeatUnavailableException.class, () -> writeBehind.submit(userId, flightId, seatIds.get(0)));
+		assertThrows(FlightNotFoundException.class, () -> writeBehind.submit(userId, -1L, null));
+		awaitWritten(SEATS);
+
+		BookingConfirmation first = confirmations.get(0);
+		assertNull(first.getBookingId());
+		assertEquals("XX-1", first.getFlightNumber());
+		assertEquals("S0", first.getSeatNumber());
+		assertEquals(SEATS, paymentRepository.count());
+		assertEquals(SEATS, ticketRepository.count());
+		assertTrue(ticketRepository.findByTicketNumber(first.getTicketNumber()).isPresent());
+		assertEquals(SEATS, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM seats WHERE is_booked", Integer.class));
+		// 360 rows and 120 seat updates; one statement per row would prepare 480
+		assertTrue(statistics.getPrepareStatementCount() < SEATS,
+				"prepared " + statistics.getPrepareStatementCount() + " statements");
+	}
+
+	@Test
+	void fullQueueRejectsAndReleasesTheSeat() throws Exception {
+		writeBehind = start(0);
+
+		assertThrows(RejectedExecutionException.class, () -> writeBehind.submit(userId, flightId, seatIds.get(0)));
+		assertFalse(seatReservationService.isBooked(flightId, seatIds.get(0)));
+	}
+
+	@Test
+	void droppedBookingsFreeTheirSeatAndQueueSlot() throws Exception {
+		writeBehind = start(2);
+		// No such user, so the insert fails for good
+		writeBehind.submit(-1L, flightId, seatIds.get(0));
+		awaitStat("failed", 1);
+		assertFalse(seatReservationService.isBooked(flightId, seatIds.get(0)));
+
+		// Sold in the database behind this instance's back: dropped, and the seat stays taken
+		jdbcTemplate.update("UPDATE seats SET is_booked = TRUE WHERE id = ?", seatIds.get(1));
+		writeBehind.submit(userId, flightId, seatIds.get(1));
+		awaitStat("failed", 2);
+		assertTrue(seatReservationService.isBooked(flightId, seatIds.get(1)));
+
+		// The writer has finished the first batch, so its queue slot is free again
+		writeBehind.submit(userId, flightId, seatIds.get(0));
+		awaitWritten(1);
+	}
+
+	@Test
+	void journalledBookingsAreReplayedOnceAfterACrash() throws Exception {
+		writeBehind = start(1000);
+		String writtenTicket = writeBehind.submit(userId, flightId, seatIds.get(0)).getTicketNumber();
+		awaitWritten(1);
+		writeBehind.shutdown();
+		writeBehind = null;
+
+		// The first booking reached the database but the crash lost its commit line
+		LocalDateTime bookedAt = LocalDateTime.now();
+		try (BookingJournal journal = new BookingJournal(dir.resolve("journal.log"))) {
+			journal.truncate();
+			journal.append(new PendingBooking(1, userId, flightId, seatIds.get(0), writtenTicket, 199.0, bookedAt,
+					false));
+			journal.append(new PendingBooking(2, userId, flightId, seatIds.get(1), ticketNumberGenerator.next(),
+					199.0, bookedAt, false));
+			journal.sync(journal.append(new PendingBooking(3, userId, flightId, null, ticketNumberGenerator.next(),
+					199.0, bookedAt, false)));
+		}
+
+		writeBehind = start(1000);
+		// Recovered bookings hold their seats again until written
+		assertThrows(SeatUnavailableException.class, () -> writeBehind.submit(userId, flightId, seatIds.get(1)));
+		awaitWritten(3);
+
+		assertEquals(1L, writeBehind.getStats().get("skippedDuplicates"));
+		assertEquals(3, ticketRepository.count());
+		assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM seats WHERE is_booked", Integer.class));
+		// The next booking continues the journal's sequence
+		writeBehind.submit(userId, flightId, seatIds.get(2));
+		awaitWritten(4);
+	}
+
+	private BookingWriteBehind start(int queueCapacity) {
+		BookingWriteBehind service = create(queueCapacity);
+		ReflectionTestUtils.invokeMethod(service, "init");
+		return service;
+	}
+
+	private BookingWriteBehind create(int queueCapacity) {
+		BookingWriteBehind service = new BookingWriteBehind();
+		service.seatReservationService = seatReservationService;
+		service.ticketNumberGenerator = ticketNumberGenerator;
+		service.flightRepository = flightRepository;
+		service.seatRepository = seatRepository;
+		service.userRepository = userRepository;
+		service.bookingRepository = bookingRepository;
+		service.paymentRepository = paymentRepository;
+		service.ticketRepository = ticketRepository;
+		service.transactionManager = transactionManager;
+		ReflectionTestUtils.setField(service, "enabled", true);
+		ReflectionTestUtils.setField(service, "queueCapacity", queueCapacity);
+		ReflectionTestUtils.setField(service, "batchSize", 200);
+		ReflectionTestUtils.setField(service, "maxDelayMs", 20L);
+		ReflectionTestUtils.setField(service, "retryDelayMs", 50L);
+		ReflectionTestUtils.setField(service, "journalPath", dir.resolve("journal.log").toString());
+		ReflectionTestUtils.setField(service, "journalMaxBytes", 1L << 20);
+		ReflectionTestUtils.setField(service, "shutdownTimeoutSeconds", 10L);
+		return service;
+	}
+
+	private void awaitStat(String name, long expected) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (writeBehind.getStats().get(name) < expected && System.currentTimeMillis() < deadline) {
+			Thread.sleep(20);
+		}
+		assertEquals(expected, writeBehind.getStats().get(name));
+	}
+
+	private void awaitWritten(long expected) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 10_000;
+		while (bookingRepository.count() < expected && System.currentTimeMillis() < deadline) {
+			Thread.sleep(20);
+		}
+		assertEquals(expected, bookingRepository.count());
+	}
+}
@@ -0,0 +1,54 @@
+package com.airline.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CsvReaderTest {
+
+	@Test
+	void readsQuotedFieldsWithCommasQuotesAndLineBreaks() throws IOException {
+		String csv = "id,name,municipality\r\n"
+				+ "1,\"Chhatrapati Shivaji, Mumbai\",Mumbai\n"
+				+ "2,\"The \"\"Old\"\" Field\",\"Line\nBreak\"\n"
+				+ "3,,\n";
+
+		List<List<String>> records = readAll(csv);
+
+		assertEquals(List.of("id", "name", "municipality"), records.get(0));
+		assertEquals(List.of("1", "Chhatrapati Shivaji, Mumbai", "Mumbai"), records.get(1));
+		assertEquals(List.of("2", "The \"Old\" Field", "Line\nBreak"), records.get(2));
+		assertEquals(List.of("3", "", ""), records.get(3));
+		assertEquals(4, records.size());
+	}
+
+	@Test
+	void handlesMissingTrailingNewline() throws IOException {
+		assertEquals(List.of(List.of("a", "b"), List.of("c", "d")), readAll("a,b\nc,d"));
+	}
+
+	@Test
+	void rejectsUnterminatedQuotes() {
+		assertThrows(IOException.class, () -> readAll("1,\"open"));
+	}
+
+	private static List<List<String>> readAll(String input) throws IOException {
+		List<List<String>> records = new ArrayList<>();
+		try (CsvReader reader = new CsvReader(new StringReader(input))) {
+			while (reader.next()) {
+				List<String> record = new ArrayList<>();
+				for (int i = 0; i < reader.size(); i++) {
+					record.add(reader.get(i));
+				}
+				records.add(record);
+			}
+		}
+		return records;
+	}
+}
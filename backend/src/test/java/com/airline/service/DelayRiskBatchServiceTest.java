@@ -0,0 +1,53 @@
+package com.airline.service;
+
+import com.airline.entity.Airport;
+import com.airline.entity.ERiskLevel;
+import com.airline.entity.Flight;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DelayRiskBatchServiceTest {
+
+	@Test
+	void flightsWithoutADepartureAirportAreScoredWithoutWeather() {
+		Airport del = new Airport(1L, "Indira Gandhi", "Delhi", "IN", 28.56, 77.1, "DEL");
+		Flight routed = new Flight();
+		routed.setId(1L);
+		routed.setFlightNumber("AI-1");
+		routed.setDepartureAirport(del);
+		Flight unrouted = new Flight();
+		unrouted.setId(2L);
+		unrouted.setFlightNumber("AI-2");
+
+		WeatherService weatherService = mock(WeatherService.class);
+		when(weatherService.getWeatherAsync(any())).thenReturn(CompletableFuture.completedFuture(
+				new WeatherSnapshot(30.0, 45.0, 90, 0, true)));
+		DelayRiskBatchService service = new DelayRiskBatchService();
+		ReflectionTestUtils.setField(service, "weatherService", weatherService);
+		ReflectionTestUtils.setField(service, "delayPredictionService", new DelayPredictionService());
+		ReflectionTestUtils.setField(service, "budgetMs", 1000L);
+
+		List<Map<String, Object>> results = new ArrayList<>();
+		service.scoreFlights(List.of(routed, unrouted), results::add);
+
+		assertEquals(2, results.size());
+		Map<String, Object> withoutAirport = results.stream()
+				.filter(result -> Long.valueOf(2L).equals(result.get("flightId"))).findFirst().orElseThrow();
+		assertEquals(ERiskLevel.LOW, withoutAirport.get("riskLevel"));
+		assertEquals(false, withoutAirport.get("weatherAvailable"));
+		assertEquals(null, withoutAirport.get("departureAirport"));
+		Map<String, Object> withAirport = results.stream()
+				.filter(result -> Long.valueOf(1L).equals(result.get("flightId"))).findFirst().orElseThrow();
+		assertEquals(ERiskLevel.HIGH, withAirport.get("riskLevel"));
+	}
+}
@@ -0,0 +1,146 @@
+package com.airline.service;
+
+import com.airline.entity.Airport;
+import com.airline.entity.Flight;
+import com.airline.payload.response.FareCalendarResponse;
+import com.airline.repository.FareDayView;
+import com.airline.repository.FlightRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FareCalendarServiceTest {
+
+	private static final LocalDate DATE = LocalDate.of(2026, 11, 15);
+
+	private final Airport del = new Airport(1L, "Indira Gandhi", "Delhi", "India", 28.56, 77.1, "DEL");
+	private final Airport bom = new Airport(2L, "Chhatrapati Shivaji", "Mumbai", "India", 19.09, 72.87, "BOM");
+
+	private FlightRepository flightRepository;
+	private FareCalendarService service;
+
+	@BeforeEach
+	void setUp() {
+		flightRepository = mock(FlightRepository.class);
+		when(flightRepository.findFareDays(eq(1L), eq(2L), any(), any())).thenReturn(List.of(
+				fare(DATE.minusDays(30), 4200.0, 3),
+				fare(DATE, 3900.0, 5)));
+
+		AirportService airportService = mock(AirportService.class);
+		when(airportService.findByCode("DEL")).thenReturn(del);
+		when(airportService.findByCode("BOM")).thenReturn(bom);
+
+		service = new FareCalendarService();
+		ReflectionTestUtils.setField(service, "flightRepository", flightRepository);
+		ReflectionTestUtils.setField(service, "airportService", airportService);
+		ReflectionTestUtils.setField(service, "maxDays", 30);
+		ReflectionTestUtils.setField(service, "maxRoutes", 100);
+		ReflectionTestUtils.setField(service, "ttlSeconds", 600L);
+		service.init();
+	}
+
+	@Test
+	void fillsEveryDayOfTheWindowFromOneBoundedQuery() {
+		FareCalendarResponse calendar = service.getCalendar("DEL", "BOM", DATE, 45);
+
+		assertEquals(61, calendar.getDays().size());
+		assertEquals(DATE.minusDays(30), calendar.getFrom());
+		assertEquals(4200.0, calendar.getDays().get(0).getMinPrice());
+		assertEquals(5, calendar.getDays().get(30).getFlights());
+		assertNull(calendar.getDays().get(1).getMinPrice());
+		assertEquals(0, calendar.getDays().get(60).getFlights());
+
+		service.getCalendar("DEL", "BOM", DATE, 30);
+		verify(flightRepository, times(1)).findFareDays(1L, 2L,
+				DATE.minusDays(30).atStartOfDay(), DATE.plusDays(31).atStartOfDay());
+	}
+
+	@Test
+	void savingAFlightOnTheRouteInvalidatesIt() {
+		service.getCalendar("DEL", "BOM", DATE, 30);
+
+		Flight other = new Flight();
+		other.setDepartureAirport(bom);
+		other.setArrivalAirport(del);
+		service.onFlightSaved(null, other);
+		service.getCalendar("DEL", "BOM", DATE, 30);
+		verify(flightRepository, times(1)).findFareDays(eq(1L), eq(2L), any(), any());
+
+		Flight onRoute = new Flight();
+		onRoute.setDepartureAirport(del);
+		onRoute.setArrivalAirport(bom);
+		service.onFlightSaved(null, onRoute);
+		service.getCalendar("DEL", "BOM", DATE, 30);
+		verify(flightRepository, times(2)).findFareDays(eq(1L), eq(2L), any(), any());
+	}
+
+	@Test
+	void movingAFlightOffTheRouteInvalidatesItToo() {
+		service.getCalendar("DEL", "BOM", DATE, 30);
+		service.getCalendar("DEL", "BOM", DATE, 7);
+
+		Flight before = new Flight();
+		before.setDepartureAirport(del);
+		before.setArrivalAirport(bom);
+		Flight after = new Flight();
+		after.setDepartureAirport(bom);
+		after.setArrivalAirport(del);
+		service.onFlightSaved(before, after);
+
+		service.getCalendar("DEL", "BOM", DATE, 30);
+		service.getCalendar("DEL", "BOM", DATE, 7);
+		verify(flightRepository, times(2)).findFareDays(eq(1L), eq(2L), any(), any());
+	}
+
+	@Test
+	void windowsPastTheLoadedSpanLoadOnlyTheMissingDays() {
+		service.getCalendar("DEL", "BOM", DATE, 7);
+		service.getCalendar("DEL", "BOM", DATE.plusDays(10), 7);
+		verify(flightRepository, times(1)).findFareDays(1L, 2L,
+				DATE.plusDays(8).atStartOfDay(), DATE.plusDays(18).atStartOfDay());
+
+		// Inside the extended span, so served from it
+		FareCalendarResponse calendar = service.getCalendar("DEL", "BOM", DATE.plusDays(5), 7);
+		assertEquals(15, calendar.getDays().size());
+		assertEquals(3900.0, calendar.getDays().get(2).getMinPrice());
+		verify(flightRepository, times(2)).findFareDays(eq(1L), eq(2L), any(), any());
+
+		// Not next to the span, so loaded on its own instead of bridging the gap
+		service.getCalendar("DEL", "BOM", DATE.plusDays(60), 7);
+		verify(flightRepository, times(1)).findFareDays(1L, 2L,
+				DATE.plusDays(53).atStartOfDay(), DATE.plusDays(68).atStartOfDay());
+	}
+
+	@Test
+	void unknownAirportsHaveNoCalendar() {
+		assertNull(service.getCalendar("XXX", "BOM", DATE, 30));
+	}
+
+	private static FareDayView fare(LocalDate day, double minPrice, long flights) {
+		return new FareDayView() {
+			public LocalDate getDay() {
+				return day;
+			}
+
+			public Double getMinPrice() {
+				return minPrice;
+			}
+
+			public Long getFlights() {
+				return flights;
+			}
+		};
+	}
+}
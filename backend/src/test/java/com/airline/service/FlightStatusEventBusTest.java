@@ -0,0 +1,215 @@
+package com.airline.service;
+
+import com.airline.config.WorkerThreads;
+import com.airline.entity.Airport;
+import com.airline.entity.EFlightStatus;
+import com.airline.entity.Flight;
+import com.airline.payload.response.FlightStatusEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.InterruptedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FlightStatusEventBusTest {
+
+	private static final LocalDateTime DEPARTURE = LocalDateTime.of(2026, 11, 2, 8, 0);
+
+	private FlightStatusEventBus bus;
+
+	@BeforeEach
+	void setUp() {
+		bus = newBus(8, 10_000);
+	}
+
+	@AfterEach
+	void tearDown() {
+		bus.shutdown();
+	}
+
+	@Test
+	void fansOutToTenThousandSubscribersAndDropsOnlyTheSlowOne() throws Exception {
+		int subscribers = 10_000;
+		int events = 20;
+		CountDownLatch allDelivered = new CountDownLatch(subscribers * events);
+		AtomicInteger outOfOrder = new AtomicInteger();
+		// Room for every event, so only the blocked subscriber below can fall behind
+		ReflectionTestUtils.setField(bus, "queueCapacity", events);
+		for (int i = 0; i < subscribers; i++) {
+			bus.subscribe(FlightStatusEventBus.airportTopic("del"), null, new Sink() {
+				long last;
+
+				@Override
+				public void send(FlightStatusEvent event) {
+					if (event.getId() <= last) {
+						outOfOrder.incrementAndGet();
+					}
+					last = event.getId();
+					allDelivered.countDown();
+				}
+			});
+		}
+		ReflectionTestUtils.setField(bus, "queueCapacity", 8);
+		CountDownLatch unblock = new CountDownLatch(1);
+		AtomicBoolean slowClosed = new AtomicBoolean();
+		bus.subscribe(FlightStatusEventBus.airportTopic("DEL"), null, new Sink() {
+			@Override
+			public void send(FlightStatusEvent event) {
+				try {
+					unblock.await(30, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+
+			@Override
+			public void close() {
+				slowClosed.set(true);
+			}
+		});
+		List<FlightStatusEvent> otherFlight = new CopyOnWriteArrayList<>();
+		bus.subscribe(FlightStatusEventBus.flightTopic(99), null, (Sink) otherFlight::add);
+
+		EFlightStatus status = EFlightStatus.SCHEDULED;
+		for (int i = 0; i < events; i++) {
+			EFlightStatus next = status == EFlightStatus.SCHEDULED ? EFlightStatus.DELAYED : EFlightStatus.SCHEDULED;
+			bus.onFlightSaved(flight(1L, status, DEPARTURE), flight(1L, next, DEPARTURE.plusMinutes(i)));
+			status = next;
+		}
+
+		assertTrue(allDelivered.await(30, TimeUnit.SECONDS));
+		unblock.countDown();
+		assertTrue(slowClosed.get());
+		assertEquals(0, outOfOrder.get());
+		assertTrue(otherFlight.isEmpty());
+		assertEquals(1L, bus.getStats().get("droppedSlowSubscribers"));
+		assertEquals((long) subscribers + 1, bus.getStats().get("subscribers"));
+	}
+
+	@Test
+	void reconnectingSubscriberReplaysWhatTheRingStillHolds() throws Exception {
+		for (int i = 0; i < 6; i++) {
+			bus.onFlightSaved(flight(1L, EFlightStatus.SCHEDULED, DEPARTURE),
+					flight(1L, EFlightStatus.DELAYED, DEPARTURE.plusMinutes(i)));
+		}
+
+		List<Long> replayed = new CopyOnWriteArrayList<>();
+		CountDownLatch received = new CountDownLatch(3);
+		bus.subscribe(FlightStatusEventBus.flightTopic(1), 3L, (Sink) event -> {
+			replayed.add(event.getId());
+			received.countDown();
+		});
+
+		assertTrue(received.await(5, TimeUnit.SECONDS));
+		assertEquals(List.of(4L, 5L, 6L), new ArrayList<>(replayed));
+	}
+
+	@Test
+	void publishesOnlyWhenStatusOrTimesChange() {
+		bus.onFlightSaved(null, flight(1L, EFlightStatus.SCHEDULED, DEPARTURE));
+		bus.onFlightSaved(flight(1L, EFlightStatus.SCHEDULED, DEPARTURE), flight(1L, EFlightStatus.SCHEDULED, DEPARTURE));
+		assertEquals(0L, bus.getStats().get("published"));
+
+		bus.onFlightSaved(flight(1L, EFlightStatus.SCHEDULED, DEPARTURE),
+				flight(1L, EFlightStatus.SCHEDULED, DEPARTURE.plusHours(1)));
+		assertEquals(1L, bus.getStats().get("published"));
+	}
+
+	@Test
+	void refusesSubscribersBeyondTheLimit() {
+		ReflectionTestUtils.setField(bus, "maxSubscribers", 2);
+		Sink sink = event -> {
+		};
+		FlightStatusEventBus.Subscription first = bus.subscribe(FlightStatusEventBus.flightTopic(1), null, sink);
+		bus.subscribe(FlightStatusEventBus.flightTopic(1), null, sink);
+		assertEquals(null, bus.subscribe(FlightStatusEventBus.flightTopic(1), null, sink));
+
+		bus.unsubscribe(first);
+		assertTrue(bus.subscribe(FlightStatusEventBus.flightTopic(1), null, sink) != null);
+	}
+
+	@Test
+	void subscribersThatNeverDrainDoNotStallTheOthers() throws Exception {
+		bus.shutdown();
+		bus = newBus(2, 100);
+		CountDownLatch unblock = new CountDownLatch(1);
+		CountDownLatch stuckClosed = new CountDownLatch(2);
+		for (int i = 0; i < 2; i++) {
+			// A client whose socket never accepts another byte
+			bus.subscribe(FlightStatusEventBus.flightTopic(1), null, new Sink() {
+				@Override
+				public void send(FlightStatusEvent event) throws InterruptedIOException {
+					try {
+						unblock.await();
+					} catch (InterruptedException e) {
+						throw new InterruptedIOException();
+					}
+				}
+
+				@Override
+				public void close() {
+					stuckClosed.countDown();
+				}
+			});
+		}
+		CountDownLatch delivered = new CountDownLatch(1);
+		bus.subscribe(FlightStatusEventBus.flightTopic(1), null, (Sink) event -> delivered.countDown());
+
+		bus.onFlightSaved(flight(1L, EFlightStatus.SCHEDULED, DEPARTURE), flight(1L, EFlightStatus.DELAYED, DEPARTURE));
+
+		// Both dispatcher threads are stuck in the first two sends
+		assertTrue(delivered.await(5, TimeUnit.SECONDS));
+		assertTrue(stuckClosed.await(5, TimeUnit.SECONDS));
+		assertEquals(2L, bus.getStats().get("timedOutSends"));
+		assertEquals(1L, bus.getStats().get("subscribers"));
+		assertEquals(0L, bus.getStats().get("stuckDispatcherThreads"));
+	}
+
+	private static FlightStatusEventBus newBus(int dispatcherThreads, long sendTimeoutMs) {
+		FlightStatusEventBus bus = new FlightStatusEventBus();
+		ReflectionTestUtils.setField(bus, "workerThreads", new WorkerThreads());
+		ReflectionTestUtils.setField(bus, "ringSize", 4);
+		ReflectionTestUtils.setField(bus, "queueCapacity", 8);
+		ReflectionTestUtils.setField(bus, "maxSubscribers", 20_000);
+		ReflectionTestUtils.setField(bus, "maxTopics", 1000);
+		ReflectionTestUtils.setField(bus, "dispatcherThreads", dispatcherThreads);
+		ReflectionTestUtils.setField(bus, "heartbeatSeconds", 0L);
+		ReflectionTestUtils.setField(bus, "sendTimeoutMs", sendTimeoutMs);
+		bus.init();
+		return bus;
+	}
+
+	private static Flight flight(Long id, EFlightStatus status, LocalDateTime departure) {
+		Flight flight = new Flight();
+		flight.setId(id);
+		flight.setFlightNumber("AI" + id);
+		flight.setDepartureAirport(new Airport(1L, "Delhi", "Delhi", "India", 28.5, 77.1, "DEL"));
+		flight.setArrivalAirport(new Airport(2L, "Mumbai", "Mumbai", "India", 19.1, 72.9, "BOM"));
+		flight.setStatus(status);
+		flight.setDepartureTime(departure);
+		flight.setArrivalTime(departure.plusHours(2));
+		return flight;
+	}
+
+	private interface Sink extends FlightStatusEventBus.EventSink {
+		@Override
+		default void heartbeat() {
+		}
+
+		@Override
+		default void close() {
+		}
+	}
+}
@@ -0,0 +1,65 @@
+package com.airline.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HashedTimingWheelTest {
+
+	private final HashedTimingWheel wheel = new HashedTimingWheel(Duration.ofMillis(10), 64, "test-wheel");
+
+	@AfterEach
+	void closeWheel() {
+		wheel.close();
+	}
+
+	@Test
+	void expiresTensOfThousandsOfTimeoutsAndSkipsCancelledOnes() throws Exception {
+		int total = 50_000;
+		CountDownLatch expired = new CountDownLatch(total / 2);
+		AtomicInteger fired = new AtomicInteger();
+		List<HashedTimingWheel.Timeout> timeouts = new ArrayList<>(total);
+
+		for (int i = 0; i < total; i++) {
+			// Spread across more than one wheel rotation (64 x 10 ms)
+			Duration delay = Duration.ofMillis(500 + (i % 900));
+			timeouts.add(wheel.schedule(() -> {
+				fired.incrementAndGet();
+				expired.countDown();
+			}, delay));
+		}
+		for (int i = 0; i < total; i += 2) {
+			assertTrue(timeouts.get(i).cancel());
+		}
+
+		assertTrue(expired.await(5, TimeUnit.SECONDS));
+		Thread.sleep(100);
+		assertEquals(total / 2, fired.get());
+		assertEquals(0, wheel.size());
+		assertFalse(timeouts.get(1).cancel());
+	}
+
+	@Test
+	void neverFiresEarly() throws Exception {
+		CountDownLatch done = new CountDownLatch(1);
+		long start = System.nanoTime();
+		AtomicInteger elapsedMs = new AtomicInteger();
+		wheel.schedule(() -> {
+			elapsedMs.set((int) TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+			done.countDown();
+		}, Duration.ofMillis(700));
+
+		assertTrue(done.await(2, TimeUnit.SECONDS));
+		assertTrue(elapsedMs.get() >= 700, "fired after " + elapsedMs.get() + " ms");
+	}
+}
@@ -0,0 +1,110 @@
+package com.airline.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IdempotencyStoreTest {
+
+	private IdempotencyStore store;
+
+	@BeforeEach
+	void setUp() {
+		store = new IdempotencyStore();
+		ReflectionTestUtils.setField(store, "ttlSeconds", 60L);
+		ReflectionTestUtils.setField(store, "maxEntries", 3);
+	}
+
+	@Test
+	void retriesReplayTheFirstResponse() {
+		IdempotencyStore.Claim first = store.begin("7:key", "book:1:2");
+		assertEquals(IdempotencyStore.State.ACQUIRED, first.getState());
+		assertEquals(IdempotencyStore.State.IN_PROGRESS, store.begin("7:key", "book:1:2").getState());
+
+		ResponseEntity<String> response = ResponseEntity.ok("booked");
+		store.complete(first, response);
+
+		IdempotencyStore.Claim retry = store.begin("7:key", "book:1:2");
+		assertEquals(IdempotencyStore.State.REPLAY, retry.getState());
+		assertSame(response, retry.getResponse());
+		assertEquals(IdempotencyStore.State.MISMATCH, store.begin("7:key", "book:1:3").getState());
+	}
+
+	@Test
+	void abandonedKeysCanBeRetried() {
+		store.abandon(store.begin("7:key", "book:1:2"));
+
+		assertEquals(IdempotencyStore.State.ACQUIRED, store.begin("7:key", "book:1:2").getState());
+	}
+
+	@Test
+	void oldestKeysAreDroppedAtCapacity() {
+		for (int i = 0; i < 4; i++) {
+			store.complete(store.begin("key-" + i, "f"), ResponseEntity.ok(i));
+		}
+		assertEquals(3L, store.getStats().get("entries"));
+		assertEquals(1L, store.getStats().get("evicted"));
+		assertEquals(IdempotencyStore.State.ACQUIRED, store.begin("key-0", "f").getState());
+	}
+
+	@Test
+	void expiredKeysExecuteAgain() {
+		ReflectionTestUtils.setField(store, "ttlSeconds", 0L);
+		store.complete(store.begin("7:key", "book:1:2"), ResponseEntity.ok("booked"));
+
+		assertEquals(IdempotencyStore.State.ACQUIRED, store.begin("7:key", "book:1:2").getState());
+		assertEquals(0L, store.getStats().get("replayed"));
+	}
+
+	@Test
+	void concurrentDuplicatesExecuteOnce() throws Exception {
+		ReflectionTestUtils.setField(store, "maxEntries", 10_000);
+		int keys = 200;
+		int duplicates = 16;
+		AtomicInteger executions = new AtomicInteger();
+		ConcurrentHashMap<String, Object> answers = new ConcurrentHashMap<>();
+		ExecutorService pool = Executors.newFixedThreadPool(32);
+		CountDownLatch start = new CountDownLatch(1);
+		try {
+			for (int k = 0; k < keys; k++) {
+				String key = "key-" + k;
+				for (int d = 0; d < duplicates; d++) {
+					pool.execute(() -> {
+						try {
+							start.await();
+						} catch (InterruptedException e) {
+							return;
+						}
+						IdempotencyStore.Claim claim = store.begin(key, "f");
+						if (claim.getState() == IdempotencyStore.State.ACQUIRED) {
+							Object body = new Object();
+							executions.incrementAndGet();
+							answers.put(key, body);
+							store.complete(claim, ResponseEntity.ok(body));
+						} else if (claim.getState() == IdempotencyStore.State.REPLAY) {
+							assertSame(answers.get(key), claim.getResponse().getBody());
+						}
+					});
+				}
+			}
+			start.countDown();
+		} finally {
+			pool.shutdown();
+			assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+		}
+
+		assertEquals(keys, executions.get());
+	}
+}
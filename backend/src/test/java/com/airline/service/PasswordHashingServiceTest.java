@@ -0,0 +1,67 @@
+package com.airline.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PasswordHashingServiceTest {
+
+	private final CountDownLatch release = new CountDownLatch(1);
+	private PasswordHashingService service;
+
+	@BeforeEach
+	void setUp() {
+		PasswordEncoder encoder = mock(PasswordEncoder.class);
+		when(encoder.encode(any())).thenAnswer(inv -> {
+			release.await(10, TimeUnit.SECONDS);
+			return "hash:" + inv.getArgument(0);
+		});
+		service = new PasswordHashingService();
+		ReflectionTestUtils.setField(service, "encoder", encoder);
+		ReflectionTestUtils.setField(service, "threads", 2);
+		ReflectionTestUtils.setField(service, "queueCapacity", 3);
+		service.init();
+	}
+
+	@AfterEach
+	void tearDown() {
+		release.countDown();
+		service.shutdownExecutor();
+	}
+
+	@Test
+	void rejectsWorkBeyondThePoolAndQueueInsteadOfWaiting() throws Exception {
+		List<CompletableFuture<String>> accepted = new ArrayList<>();
+		for (int i = 0; i < 5; i++) {
+			accepted.add(service.encode("secret" + i));
+		}
+
+		CompletableFuture<String> overflow = service.encode("one-too-many");
+		ExecutionException failure = assertThrows(ExecutionException.class, () -> overflow.get(1, TimeUnit.SECONDS));
+		assertInstanceOf(RejectedExecutionException.class, failure.getCause());
+
+		release.countDown();
+		for (int i = 0; i < accepted.size(); i++) {
+			assertEquals("hash:secret" + i, accepted.get(i).get(5, TimeUnit.SECONDS));
+		}
+		assertEquals(5L, service.getStats().get("completed"));
+		assertEquals(1L, service.getStats().get("rejected"));
+	}
+}
@@ -0,0 +1,109 @@
+package com.airline.service;
+
+import com.airline.config.SecondLevelCacheConfig;
+import com.airline.entity.Airport;
+import com.airline.repository.AirportRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@Import({ SecondLevelCacheConfig.class, ReferenceDataCache.class })
+// Each repository call commits on its own, as in the application; cached entries are only shared after commit
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+		"spring.flyway.enabled=false",
+		"spring.jpa.hibernate.ddl-auto=create-drop",
+		"spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+		"spring.jpa.properties.hibernate.generate_statistics=true",
+		"spring.jpa.show-sql=false"
+})
+class ReferenceDataCacheTest {
+
+	@Autowired
+	private AirportRepository airportRepository;
+
+	@Autowired
+	private ReferenceDataCache referenceDataCache;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+	@AfterEach
+	void tearDown() {
+		airportRepository.deleteAll();
+	}
+
+	@Test
+	void repeatedLookupsAreServedWithoutTheDatabase() {
+		Airport saved = airportRepository.save(airport("DEL"));
+
+		statistics.clear();
+		assertTrue(airportRepository.findByCode("DEL").isPresent());
+		long afterFirst = statistics.getPrepareStatementCount();
+		long airportHits = hits(SecondLevelCacheConfig.AIRPORTS_REGION);
+		long queryHits = hits(SecondLevelCacheConfig.QUERY_RESULTS_REGION);
+		for (int i = 0; i < 10; i++) {
+			assertEquals(saved.getId(), airportRepository.findByCode("DEL").orElseThrow().getId());
+			assertEquals("DEL", airportRepository.findById(saved.getId()).orElseThrow().getCode());
+		}
+		assertEquals(afterFirst, statistics.getPrepareStatementCount());
+
+		assertTrue(hits(SecondLevelCacheConfig.AIRPORTS_REGION) - airportHits >= 10);
+		assertEquals(10, hits(SecondLevelCacheConfig.QUERY_RESULTS_REGION) - queryHits);
+		assertTrue((Double) referenceDataCache.getStats().get(SecondLevelCacheConfig.AIRPORTS_REGION).get("hitRatio") > 0);
+	}
+
+	@Test
+	void writesThroughHibernateInvalidateCachedQueries() {
+		assertTrue(airportRepository.findByCode("HND").isEmpty());
+		assertTrue(airportRepository.findByCode("HND").isEmpty());
+
+		airportRepository.save(airport("HND"));
+
+		assertTrue(airportRepository.findByCode("HND").isPresent());
+	}
+
+	@Test
+	void writesBehindHibernateNeedAnExplicitEviction() {
+		assertTrue(airportRepository.findByCode("BOM").isEmpty());
+		jdbcTemplate.update("INSERT INTO airports (name, city, country, latitude, longitude, code) "
+				+ "VALUES ('Mumbai', 'Mumbai', 'India', 19.09, 72.87, 'BOM')");
+		assertTrue(airportRepository.findByCode("BOM").isEmpty());
+
+		referenceDataCache.evictAirports();
+
+		assertTrue(airportRepository.findByCode("BOM").isPresent());
+	}
+
+	private long hits(String region) {
+		return (Long) referenceDataCache.getStats().get(region).get("hits");
+	}
+
+	private static Airport airport(String code) {
+		return new Airport(null, code + " Airport", code, "Country", 10.0, 20.0, code);
+	}
+}
@@ -0,0 +1,114 @@
+package com.airline.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RouteGraphTest {
+
+	private static final long DEL = 1, DXB = 2, LHR = 3, JFK = 4;
+	private static final int DAY = 0;
+
+	private RouteGraph graph;
+
+	@BeforeEach
+	void setUp() {
+		graph = new RouteGraph();
+		graph.addAll(List.of(
+				leg(1, DEL, DXB, "08:00", "11:00", 200),
+				// Leaves DXB 30 minutes after arrival, inside the minimum connection time
+				leg(2, DXB, JFK, "11:30", "21:00", 500),
+				leg(3, DXB, JFK, "13:00", "23:00", 600),
+				leg(4, DEL, LHR, "09:00", "15:00", 300),
+				leg(5, LHR, JFK, "16:30", "20:00", 400),
+				leg(6, DEL, JFK, "10:00", "26:00", 650),
+				leg(7, JFK, DEL, "21:30", "36:00", 100)));
+	}
+
+	@Test
+	void ordersItinerariesByArrivalRespectingMinimumConnectionTime() {
+		List<RouteGraph.Itinerary> results = graph.search(query(RouteGraph.Sort.ARRIVAL, 5, 3));
+
+		assertEquals(List.of(List.of(4L, 5L), List.of(1L, 3L), List.of(6L)), flightIds(results));
+		assertEquals(700.0, results.get(0).price());
+	}
+
+	@Test
+	void ordersItinerariesByTotalPrice() {
+		List<RouteGraph.Itinerary> results = graph.search(query(RouteGraph.Sort.PRICE, 2, 3));
+
+		assertEquals(List.of(List.of(6L), List.of(4L, 5L)), flightIds(results));
+	}
+
+	@Test
+	void maxLegsOfOneReturnsOnlyDirectFlights() {
+		assertEquals(List.of(List.of(6L)), flightIds(graph.search(query(RouteGraph.Sort.ARRIVAL, 5, 1))));
+	}
+
+	@Test
+	void flightsAddedAndRemovedIncrementallyAreSearched() {
+		graph.add(leg(8, LHR, JFK, "16:00", "18:30", 100));
+		List<RouteGraph.Itinerary> results = graph.search(query(RouteGraph.Sort.ARRIVAL, 1, 3));
+		assertEquals(List.of(List.of(4L, 8L)), flightIds(results));
+
+		graph.remove(8);
+		graph.remove(5);
+		results = graph.search(query(RouteGraph.Sort.ARRIVAL, 5, 3));
+		assertEquals(List.of(List.of(1L, 3L), List.of(6L)), flightIds(results));
+		assertTrue(results.stream().noneMatch(itinerary -> itinerary.first().from() != DEL));
+	}
+
+	@Test
+	void departedLegsAreDroppedAndCanNoLongerBeRemoved() {
+		assertEquals(2, graph.removeDepartedBefore(minutes("10:00")));
+		assertEquals(5, graph.size());
+		assertEquals(List.of(List.of(6L)), flightIds(graph.search(query(RouteGraph.Sort.ARRIVAL, 5, 3))));
+
+		// Their index entries went with them; the remaining legs are still found by id
+		graph.remove(1);
+		graph.remove(6);
+		assertEquals(4, graph.size());
+		assertEquals(0, graph.removeDepartedBefore(minutes("10:00")));
+	}
+
+	@Test
+	void cheaperArrivalsThatMissTheConnectionDoNotHideOneThatMakesIt() {
+		long hub = 5, destination = 6;
+		RouteGraph hubGraph = new RouteGraph();
+		hubGraph.addAll(List.of(
+				// Cheapest into the hub, but after the last onward departure
+				leg(11, DEL, hub, "14:00", "16:00", 50),
+				leg(12, DEL, hub, "15:00", "17:00", 60),
+				leg(13, DEL, hub, "08:00", "10:00", 200),
+				leg(14, hub, destination, "12:00", "14:00", 100)));
+
+		List<RouteGraph.Itinerary> results = hubGraph.search(new RouteGraph.Query(DEL, destination, DAY,
+				DAY + 24 * 60 - 1, RouteGraph.Sort.PRICE, 1, 2, 60, 24 * 60, 10_000));
+
+		assertEquals(List.of(List.of(13L, 14L)), flightIds(results));
+	}
+
+	private static RouteGraph.Query query(RouteGraph.Sort sort, int limit, int maxLegs) {
+		return new RouteGraph.Query(DEL, JFK, DAY, DAY + 24 * 60 - 1, sort, limit, maxLegs, 60, 24 * 60, 10_000);
+	}
+
+	private static RouteGraph.Leg leg(long id, long from, long to, String departure, String arrival, double price) {
+		return new RouteGraph.Leg(id, "FL" + id, from, to, "A" + from, "A" + to, minutes(departure), minutes(arrival),
+				price);
+	}
+
+	private static int minutes(String time) {
+		String[] parts = time.split(":");
+		return DAY + Integer.parseInt(parts[0]) * 60 + Integer.parseInt(parts[1]);
+	}
+
+	private static List<List<Long>> flightIds(List<RouteGraph.Itinerary> itineraries) {
+		return itineraries.stream()
+				.map(itinerary -> itinerary.legs().stream().map(RouteGraph.Leg::flightId).toList())
+				.toList();
+	}
+}
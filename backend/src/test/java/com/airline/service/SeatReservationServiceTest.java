@@ -0,0 +1,227 @@
+package com.airline.service;
+
+import com.airline.entity.ESeatType;
+import com.airline.entity.Flight;
+import com.airline.entity.Seat;
+import com.airline.payload.response.SeatAvailabilityResponse;
+import com.airline.repository.FlightRepository;
+import com.airline.repository.SeatRepository;
+import com.airline.repository.SeatView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SeatReservationServiceTest {
+
+	private static final long FLIGHT_ID = 42L;
+	private static final int SEATS = 180;
+
+	/** Committed seat rows, as the database would hold them. */
+	private final Map<Long, Seat> rows = new ConcurrentHashMap<>();
+	private final AtomicInteger successfulWrites = new AtomicInteger();
+
+	private SeatReservationService service;
+	private FlightRepository flightRepository;
+	private LocalDateTime departure = LocalDateTime.now().plusDays(2);
+
+	@BeforeEach
+	void setUp() {
+		for (long id = 1; id <= SEATS; id++) {
+			rows.put(id, new Seat(id, "S" + id, id <= 30 ? ESeatType.BUSINESS : ESeatType.ECONOMY, false, null, 0L));
+		}
+
+		SeatRepository seatRepository = mock(SeatRepository.class);
+		when(seatRepository.findByFlightIdOrderById(FLIGHT_ID)).thenAnswer(inv -> {
+			List<SeatView> views = new ArrayList<>();
+			rows.values().stream().sorted((a, b) -> Long.compare(a.getId(), b.getId()))
+					.forEach(seat -> views.add(view(seat)));
+			return views;
+		});
+		when(seatRepository.findById(anyLong())).thenAnswer(
+				inv -> Optional.ofNullable(rows.get(inv.<Long>getArgument(0))).map(SeatReservationServiceTest::copy));
+		when(seatRepository.saveAndFlush(any(Seat.class))).thenAnswer(inv -> {
+			Seat seat = inv.getArgument(0);
+			synchronized (rows) {
+				if (!rows.get(seat.getId()).getVersion().equals(seat.getVersion())) {
+					throw new ObjectOptimisticLockingFailureException(Seat.class, seat.getId());
+				}
+				Seat updated = copy(seat);
+				updated.setVersion(seat.getVersion() + 1);
+				rows.put(seat.getId(), updated);
+				successfulWrites.incrementAndGet();
+				return copy(updated);
+			}
+		});
+
+		when(seatRepository.existsByIdAndFlightId(anyLong(), anyLong()))
+				.thenAnswer(inv -> FLIGHT_ID == inv.<Long>getArgument(1) && rows.containsKey(inv.<Long>getArgument(0)));
+		flightRepository = mock(FlightRepository.class);
+		when(flightRepository.findById(FLIGHT_ID)).thenAnswer(inv -> Optional.of(flight(departure)));
+
+		service = new SeatReservationService();
+		ReflectionTestUtils.setField(service, "seatRepository", seatRepository);
+		ReflectionTestUtils.setField(service, "flightRepository", flightRepository);
+		ReflectionTestUtils.setField(service, "sweepIntervalSeconds", 60L);
+	}
+
+	@Test
+	void thousandsOfConcurrentBookingsNeverDoubleSell() throws Exception {
+		int attempts = 5000;
+		ExecutorService pool = Executors.newFixedThreadPool(64);
+		CountDownLatch start = new CountDownLatch(1);
+		Map<Long, AtomicInteger> winsPerSeat = new ConcurrentHashMap<>();
+		AtomicInteger conflicts = new AtomicInteger();
+
+		for (int i = 0; i < attempts; i++) {
+			pool.execute(() -> {
+				long seatId = ThreadLocalRandom.current().nextLong(1, SEATS + 1);
+				try {
+					start.await();
+					service.claim(FLIGHT_ID, seatId);
+					winsPerSeat.computeIfAbsent(seatId, id -> new AtomicInteger()).incrementAndGet();
+				} catch (SeatUnavailableException e) {
+					conflicts.incrementAndGet();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			});
+		}
+		start.countDown();
+		pool.shutdown();
+		assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+		winsPerSeat.forEach((seatId, wins) -> assertEquals(1, wins.get(), "seat " + seatId + " sold twice"));
+		assertEquals(attempts, winsPerSeat.size() + conflicts.get());
+		assertEquals(winsPerSeat.size(), successfulWrites.get());
+		long bookedRows = rows.values().stream().filter(Seat::getIsBooked).count();
+		assertEquals(winsPerSeat.size(), bookedRows);
+	}
+
+	@Test
+	void rejectsSeatsFromAnotherFlightAndReleasesCancelledSeats() {
+		assertThrows(SeatUnavailableException.class, () -> service.claim(FLIGHT_ID, 999L));
+
+		service.claim(FLIGHT_ID, 7L);
+		assertTrue(service.isBooked(FLIGHT_ID, 7L));
+		assertThrows(SeatUnavailableException.class, () -> service.claim(FLIGHT_ID, 7L));
+
+		assertThrows(SeatUnavailableException.class, () -> service.release(7777L, 7L));
+		assertTrue(rows.get(7L).getIsBooked());
+		service.release(FLIGHT_ID, 7L);
+		assertFalse(service.isBooked(FLIGHT_ID, 7L));
+		service.claim(FLIGHT_ID, 7L);
+		assertTrue(rows.get(7L).getIsBooked());
+	}
+
+	@Test
+	void availabilitySnapshotIsCachedUntilASeatChanges() {
+		SeatAvailabilityResponse before = service.getAvailability(FLIGHT_ID);
+		assertSame(before, service.getAvailability(FLIGHT_ID));
+		assertEquals(List.of(ESeatType.ECONOMY, ESeatType.BUSINESS),
+				before.getCabins().stream().map(SeatAvailabilityResponse.Cabin::getSeatType).toList());
+
+		service.claim(FLIGHT_ID, 3L);
+
+		SeatAvailabilityResponse after = service.getAvailability(FLIGHT_ID);
+		assertNotEquals(before.getVersion(), after.getVersion());
+		SeatAvailabilityResponse.Cabin business = after.getCabins().get(1);
+		assertEquals(29, business.getAvailable());
+		assertTrue(BitSet.valueOf(Base64.getDecoder().decode(business.getTaken())).get(2));
+	}
+
+	@Test
+	void unknownAndDepartedFlightsAreNotCached() {
+		assertTrue(service.getAvailability(7777L).getCabins().isEmpty());
+		assertThrows(SeatUnavailableException.class, () -> service.hold(7777L, 1L));
+		assertEquals(0, service.cachedFlights());
+
+		departure = LocalDateTime.now().minusHours(1);
+		assertThrows(SeatUnavailableException.class, () -> service.hold(FLIGHT_ID, 1L));
+		assertEquals(0, service.cachedFlights());
+	}
+
+	@Test
+	void seatsOnUnknownAndDepartedFlightsCannotBeClaimed() {
+		assertThrows(SeatUnavailableException.class, () -> service.claim(7777L, 1L));
+
+		departure = LocalDateTime.now().minusHours(1);
+		assertThrows(SeatUnavailableException.class, () -> service.claim(FLIGHT_ID, 1L));
+		assertFalse(rows.get(1L).getIsBooked());
+		assertEquals(0, successfulWrites.get());
+	}
+
+	@Test
+	void reloadPicksUpNewSeatsAndKeepsHeldOnes() {
+		service.hold(FLIGHT_ID, 5L);
+		assertEquals(1, service.cachedFlights());
+
+		// A seat added after the map was built is found on its first claim
+		rows.put(500L, new Seat(500L, "X1", ESeatType.ECONOMY, false, null, 0L));
+		service.hold(FLIGHT_ID, 500L);
+		assertTrue(service.isBooked(FLIGHT_ID, 5L));
+
+		// The flight is rescheduled into the past; the saved flight's map goes
+		departure = LocalDateTime.now().minusMinutes(1);
+		service.onFlightSaved(flight(departure));
+		assertEquals(0, service.cachedFlights());
+	}
+
+	private static Flight flight(LocalDateTime departureTime) {
+		Flight flight = new Flight();
+		flight.setId(FLIGHT_ID);
+		flight.setDepartureTime(departureTime);
+		return flight;
+	}
+
+	private static Seat copy(Seat seat) {
+		return new Seat(seat.getId(), seat.getSeatNumber(), seat.getSeatType(), seat.getIsBooked(), null,
+				seat.getVersion());
+	}
+
+	private static SeatView view(Seat seat) {
+		return new SeatView() {
+			public Long getId() {
+				return seat.getId();
+			}
+
+			public String getSeatNumber() {
+				return seat.getSeatNumber();
+			}
+
+			public ESeatType getSeatType() {
+				return seat.getSeatType();
+			}
+
+			public Boolean getIsBooked() {
+				return seat.getIsBooked();
+			}
+		};
+	}
+}
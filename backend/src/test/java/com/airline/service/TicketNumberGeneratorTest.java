@@ -0,0 +1,85 @@
+package com.airline.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TicketNumberGeneratorTest {
+
+	// A sequence that starts with 100 and increments by the block size
+	private final AtomicLong sequence = new AtomicLong(100);
+	private final AtomicLong roundTrips = new AtomicLong();
+	private JdbcTemplate jdbcTemplate;
+	private TicketNumberGenerator generator;
+
+	@BeforeEach
+	void setUp() {
+		jdbcTemplate = mock(JdbcTemplate.class);
+		when(jdbcTemplate.queryForList(eq(TicketNumberGenerator.INCREMENT_SQL), eq(Long.class)))
+				.thenReturn(List.of(100L));
+		when(jdbcTemplate.queryForObject(eq(TicketNumberGenerator.NEXT_BLOCK_SQL), eq(Long.class))).thenAnswer(inv -> {
+			roundTrips.incrementAndGet();
+			return sequence.getAndAdd(100);
+		});
+		generator = new TicketNumberGenerator();
+		ReflectionTestUtils.setField(generator, "jdbcTemplate", jdbcTemplate);
+		ReflectionTestUtils.setField(generator, "prefix", "999");
+		ReflectionTestUtils.setField(generator, "blockSize", 100);
+	}
+
+	@Test
+	void numbersComeFromReservedBlocks() {
+		assertEquals("9990000000100", generator.next());
+		assertEquals("9990000000101", generator.next());
+		assertEquals(1, roundTrips.get());
+	}
+
+	@Test
+	void blockSizeOtherThanTheSequenceIncrementIsRefused() {
+		ReflectionTestUtils.setField(generator, "blockSize", 1000);
+
+		assertThrows(IllegalStateException.class, generator::checkIncrement);
+		assertThrows(IllegalStateException.class, generator::next);
+		assertEquals(0, roundTrips.get());
+	}
+
+	@Test
+	void concurrentIssuesAreUniqueWithOneRoundTripPerBlock() throws Exception {
+		int threads = 16;
+		int perThread = 5_000;
+		Set<String> numbers = ConcurrentHashMap.newKeySet();
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			for (int t = 0; t < threads; t++) {
+				pool.execute(() -> {
+					for (int i = 0; i < perThread; i++) {
+						numbers.add(generator.next());
+					}
+				});
+			}
+		} finally {
+			pool.shutdown();
+			assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+		}
+
+		assertEquals(threads * perThread, numbers.size());
+		assertEquals(threads * perThread / 100, roundTrips.get());
+		assertTrue(numbers.stream().allMatch(number -> number.length() == 13));
+	}
+}
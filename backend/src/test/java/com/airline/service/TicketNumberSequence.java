@@ -0,0 +1,19 @@
+package com.airline.service;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Creates {@code ticket_number_seq} as V3 and V6 leave it, for tests whose schema
+ * comes from Hibernate, before {@link TicketNumberGenerator} checks it at startup.
+ */
+@TestConfiguration
+class TicketNumberSequence {
+
+	@Bean
+	InitializingBean createTicketNumberSequence(JdbcTemplate jdbcTemplate) {
+		return () -> jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS ticket_number_seq INCREMENT BY 1000");
+	}
+}
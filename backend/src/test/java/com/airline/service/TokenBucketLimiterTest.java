@@ -0,0 +1,37 @@
+package com.airline.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketLimiterTest {
+
+	@Test
+	void refillsOverTimeUpToCapacity() throws Exception {
+		// 6000 per minute is one token every 10 ms
+		TokenBucketLimiter limiter = new TokenBucketLimiter(2, 6000, 4, 16);
+
+		assertEquals(0, limiter.tryAcquire("alice"));
+		assertEquals(0, limiter.tryAcquire("alice"));
+		long wait = limiter.tryAcquire("alice");
+		assertTrue(wait > 0 && wait <= TimeUnit.MILLISECONDS.toNanos(10), "wait " + wait);
+		assertEquals(0, limiter.tryAcquire("bob"));
+
+		Thread.sleep(50);
+		assertEquals(0, limiter.tryAcquire("alice"));
+		assertEquals(0, limiter.tryAcquire("alice"));
+		assertTrue(limiter.tryAcquire("alice") > 0);
+	}
+
+	@Test
+	void keepsABoundedNumberOfKeys() {
+		TokenBucketLimiter limiter = new TokenBucketLimiter(1, 1, 4, 8);
+		for (int i = 0; i < 10_000; i++) {
+			limiter.tryAcquire("key" + i);
+		}
+		assertTrue(limiter.size() <= 32, "size " + limiter.size());
+	}
+}
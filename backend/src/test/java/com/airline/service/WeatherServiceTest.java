@@ -0,0 +1,257 @@
+package com.airline.service;
+
+import com.airline.config.WorkerThreads;
+import com.airline.entity.Airport;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WeatherServiceTest {
+
+	private static final String BODY = "{\"current_weather\":{\"temperature\":31.2,\"windspeed\":12.5,"
+			+ "\"winddirection\":270.0,\"weathercode\":3,\"is_day\":1}}";
+	private static final WeatherSnapshot SNAPSHOT = new WeatherSnapshot(31.2, 12.5, 270, 3, true);
+
+	private final JsonMapper jsonMapper = JsonMapper.builder().build();
+
+	private final AtomicInteger upstreamCalls = new AtomicInteger();
+	private volatile int status = 200;
+	private volatile CountDownLatch release = new CountDownLatch(0);
+
+	private HttpServer server;
+	private ExecutorService serverExecutor;
+	private WeatherService weatherService;
+
+	@BeforeEach
+	void startStub() throws Exception {
+		server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+		serverExecutor = Executors.newCachedThreadPool();
+		server.setExecutor(serverExecutor);
+		server.createContext("/v1/forecast", exchange -> {
+			upstreamCalls.incrementAndGet();
+			try {
+				release.await(5, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			byte[] body = BODY.getBytes(StandardCharsets.UTF_8);
+			exchange.getResponseHeaders().add("Content-Type", "application/json");
+			exchange.sendResponseHeaders(status, body.length);
+			exchange.getResponseBody().write(body);
+			exchange.close();
+		});
+		server.start();
+
+		useWeatherService(600);
+	}
+
+	@AfterEach
+	void stopStub() {
+		release.countDown();
+		weatherService.shutdownExecutor();
+		server.stop(0);
+		serverExecutor.shutdownNow();
+	}
+
+	@Test
+	void servesRepeatedLookupsFromCache() {
+		Airport del = airport("DEL", 28.5562, 77.1000);
+
+		assertNotNull(weatherService.getWeather(del));
+		assertNotNull(weatherService.getWeather(airport("DEL-T3", 28.5601, 77.0999)));
+
+		assertEquals(1, upstreamCalls.get());
+		Map<String, Long> stats = weatherService.getCacheStats();
+		assertEquals(1L, stats.get("misses"));
+		assertEquals(1L, stats.get("hits"));
+	}
+
+	@Test
+	void coalescesConcurrentMisses() throws Exception {
+		useWeatherService(600, 5000);
+		release = new CountDownLatch(1);
+		ExecutorService callers = Executors.newFixedThreadPool(16);
+		try {
+			List<Future<WeatherSnapshot>> results = new ArrayList<>();
+			for (int i = 0; i < 16; i++) {
+				results.add(callers.submit(() -> weatherService.getWeather(airport("DEL", 28.5562, 77.1000))));
+			}
+			while (weatherService.getCacheStats().get("coalesced") < 15) {
+				Thread.sleep(5);
+			}
+			release.countDown();
+			for (Future<WeatherSnapshot> result : results) {
+				assertNotNull(result.get(5, TimeUnit.SECONDS));
+			}
+		} finally {
+			callers.shutdownNow();
+		}
+
+		assertEquals(1, upstreamCalls.get());
+		assertEquals(15L, weatherService.getCacheStats().get("coalesced"));
+	}
+
+	@Test
+	void servesStaleDataWhenUpstreamFails() {
+		useWeatherService(0);
+		Airport lhr = airport("LHR", 51.4700, -0.4543);
+		WeatherSnapshot first = weatherService.getWeather(lhr);
+
+		status = 503;
+		WeatherSnapshot second = weatherService.getWeather(lhr);
+
+		assertEquals(SNAPSHOT, first);
+		assertEquals(first, second);
+		assertEquals(2, upstreamCalls.get());
+		assertTrue(weatherService.getCacheStats().get("staleServed") >= 1);
+	}
+
+	@Test
+	void servesStaleDataWhenUpstreamIsSlow() throws Exception {
+		useWeatherService(0, 200);
+		Airport lhr = airport("LHR", 51.4700, -0.4543);
+		prime(lhr);
+		long timedOut = weatherService.getCacheStats().get("timedOut");
+
+		release = new CountDownLatch(1);
+		long start = System.nanoTime();
+		WeatherSnapshot second = weatherService.getWeather(lhr);
+		long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+		assertEquals(SNAPSHOT, second);
+		assertTrue(elapsedMs < 1000, "waited " + elapsedMs + " ms");
+		assertEquals(timedOut + 1, weatherService.getCacheStats().get("timedOut"));
+	}
+
+	@Test
+	void coalescedCallersWaitNoLongerThanTheFetchBudget() throws Exception {
+		useWeatherService(600, 200);
+		release = new CountDownLatch(1);
+		Airport del = airport("DEL", 28.5562, 77.1000);
+		ExecutorService callers = Executors.newFixedThreadPool(2);
+		try {
+			Future<WeatherSnapshot> leader = callers.submit(() -> weatherService.getWeather(del));
+			while (upstreamCalls.get() == 0) {
+				Thread.sleep(5);
+			}
+			long start = System.nanoTime();
+			Future<WeatherSnapshot> follower = callers.submit(() -> weatherService.getWeather(del));
+
+			assertNull(follower.get(1, TimeUnit.SECONDS));
+			assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 1000);
+			assertNull(leader.get(1, TimeUnit.SECONDS));
+		} finally {
+			callers.shutdownNow();
+		}
+
+		assertEquals(1, upstreamCalls.get());
+		assertEquals(1L, weatherService.getCacheStats().get("coalesced"));
+		assertEquals(2L, weatherService.getCacheStats().get("timedOut"));
+	}
+
+	@Test
+	void asyncLookupServesStaleDataWhenUpstreamIsSlow() throws Exception {
+		useWeatherService(0, 200);
+		Airport del = airport("DEL", 28.5562, 77.1000);
+		prime(del);
+
+		release = new CountDownLatch(1);
+		CompletableFuture<WeatherSnapshot> departure = weatherService.getWeatherAsync(del);
+		weatherService.awaitWithinBudget(departure);
+
+		assertEquals(SNAPSHOT, departure.getNow(null));
+	}
+
+	@Test
+	void asyncLookupDegradesWhenUpstreamIsSlow() {
+		useWeatherService(600, 200);
+		release = new CountDownLatch(1);
+		CompletableFuture<WeatherSnapshot> departure = weatherService
+				.getWeatherAsync(airport("DEL", 28.5562, 77.1000));
+		CompletableFuture<WeatherSnapshot> arrival = weatherService
+				.getWeatherAsync(airport("BOM", 19.0896, 72.8656));
+
+		long start = System.nanoTime();
+		weatherService.awaitWithinBudget(departure, arrival);
+		long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+		assertNull(departure.getNow(null));
+		assertNull(arrival.getNow(null));
+		assertTrue(elapsedMs < 1000, "waited " + elapsedMs + " ms");
+		assertEquals(2, upstreamCalls.get());
+	}
+
+	@Test
+	void serializesInTheOpenMeteoShape() {
+		WeatherSnapshot snapshot = weatherService.getWeather(airport("DEL", 28.5562, 77.1000));
+
+		assertEquals(jsonMapper.readValue(BODY, Map.class),
+				jsonMapper.readValue(jsonMapper.writeValueAsString(snapshot), Map.class));
+	}
+
+	@Test
+	void returnsNullWithoutCoordinates() {
+		assertNull(weatherService.getWeather(new Airport()));
+		assertEquals(0, upstreamCalls.get());
+	}
+
+	private void useWeatherService(long ttlSeconds) {
+		useWeatherService(ttlSeconds, 2000);
+	}
+
+	// Replaces the service under test, shutting down the pools of the one it replaces
+	private void useWeatherService(long ttlSeconds, long callTimeoutMs) {
+		if (weatherService != null) {
+			weatherService.shutdownExecutor();
+		}
+		WeatherService service = new WeatherService();
+		ReflectionTestUtils.setField(service, "workerThreads", new WorkerThreads());
+		ReflectionTestUtils.setField(service, "restTemplate", new RestTemplate());
+		ReflectionTestUtils.setField(service, "apiUrl", "http://127.0.0.1:" + server.getAddress().getPort()
+				+ "/v1/forecast?latitude={lat}&longitude={lon}&current_weather=true");
+		ReflectionTestUtils.setField(service, "cacheTtlSeconds", ttlSeconds);
+		ReflectionTestUtils.setField(service, "cacheMaxEntries", 100);
+		ReflectionTestUtils.setField(service, "maxConcurrentRequests", 4);
+		ReflectionTestUtils.setField(service, "throttleWaitMs", 1000L);
+		ReflectionTestUtils.setField(service, "callTimeoutMs", callTimeoutMs);
+		ReflectionTestUtils.setField(service, "requestBudgetMs", 300L);
+		ReflectionTestUtils.setField(service, "executorThreads", 4);
+		ReflectionTestUtils.setField(service, "executorQueueCapacity", 16);
+		service.init();
+		weatherService = service;
+	}
+
+	// The first call may overrun a short budget while the JVM warms up; it still lands in the cache
+	private void prime(Airport airport) throws InterruptedException {
+		weatherService.getWeather(airport);
+		while (weatherService.getCacheStats().get("size") == 0) {
+			Thread.sleep(5);
+		}
+	}
+
+	private static Airport airport(String code, double latitude, double longitude) {
+		return new Airport(null, code, code, "XX", latitude, longitude, code);
+	}
+}
@@ -1,7 +1,8 @@
-import api from "./api";
+import api, { getPage } from "./api";
 
-const getAllAirports = () => {
-    return api.get("/airports");
+// Thousands of airports: fetch one page at a time, passing the previous page's `next`
+const getAirports = (after = null) => {
+    return getPage("/airports", after);
 };
 
 const searchAirports = (query) => {
@@ -9,7 +10,7 @@ const searchAirports = (query) => {
 };
 
 const AirportService = {
-    getAllAirports,
+    getAirports,
     searchAirports
 };
 
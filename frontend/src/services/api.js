@@ -37,4 +37,24 @@ api.interceptors.response.use(
   }
 );
 
+// Listings are keyset-paginated: one page, with the cursor for the next in `next`
+// (null on the last page), for lists the UI pages through with "load more"
+export const getPage = async (path, after = null) => {
+  const response = await api.get(path, { params: after !== null ? { after } : {} });
+  return { data: response.data, next: response.headers["x-next-cursor"] ?? null };
+};
+
+// Follows X-Next-Cursor to the last page; only for listings known to be small, since
+// it costs one request per page
+export const getAllPages = async (path) => {
+  const data = [];
+  let after = null;
+  do {
+    const response = await api.get(path, { params: after !== null ? { after } : {} });
+    data.push(...response.data);
+    after = response.headers["x-next-cursor"] ?? null;
+  } while (after !== null);
+  return { data };
+};
+
 export default api;
@@ -1,7 +1,8 @@
-import api from "./api";
+import api, { getAllPages } from "./api";
 
+// The schedule is small enough for the admin dashboard to list in full
 const getAllFlights = () => {
-  return api.get("/flights");
+  return getAllPages("/flights");
 };
 
 const getFlightById = (id) => {